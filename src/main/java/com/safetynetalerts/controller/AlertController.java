@@ -1,12 +1,24 @@
 package com.safetynetalerts.controller;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.safetynetalerts.dto.*;
 import com.safetynetalerts.service.AlertService;
+import com.safetynetalerts.service.EncodedResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Contrôleur exposant les endpoints « alertes » décrits dans le cahier des
@@ -25,6 +37,11 @@ public class AlertController {
     /** Journalisation applicative. */
     private static final Logger logger = LoggerFactory.getLogger(AlertController.class);
 
+    /** Taille par défaut des tranches de /communityEmail en flux. */
+    private static final int DEFAULT_EMAIL_CHUNK = 512;
+
+    private static final JsonFactory JSON = new JsonFactory();
+
     private final AlertService alertService;
 
     public AlertController(AlertService alertService) {
@@ -34,13 +51,20 @@ public class AlertController {
     /**
      * Retourne la liste des enfants (=< 18 ans) résidant à l’adresse fournie,
      * ainsi que les autres membres du foyer.
+     * Réponse marquée d’un ETag : un client qui le renvoie dans
+     * {@code If-None-Match} reçoit 304 tant que l’adresse n’a pas changé.
      *
      * @param address adresse recherchée (ex. : « 1509 Culver St »)
+     * @param request requête (en-têtes conditionnels)
      * @return liste éventuelle d’enfants, vide s’il n’y en a pas
      */
     @GetMapping("/childAlert")
-    public List<ChildAlertDTO> getChildAlert(@RequestParam String address) {
+    public List<ChildAlertDTO> getChildAlert(@RequestParam String address, WebRequest request) {
         logger.info("GET /childAlert?address={}", address);
+        if (request.checkNotModified(alertService.getChildAlertETag(address))) {
+            logger.info("Réponse : 304 (inchangée)");
+            return null;
+        }
         List<ChildAlertDTO> children = alertService.getChildAlert(address);
         logger.info("Réponse : {} enfant(s)", children.size());
         return children;
@@ -63,31 +87,55 @@ public class AlertController {
     /**
      * Fournit les occupants d’une adresse ainsi que le numéro de caserne associé.
      *
+     * Corps JSON servi depuis le cache des réponses sérialisées.
+     *
      * @param address adresse recherchée
-     * @return informations agrégées (occupants + station)
+     * @param request requête (négociation gzip)
+     * @return informations agrégées (occupants + station), en JSON
      */
     @GetMapping("/fire")
-    public FireDTO getFire(@RequestParam String address) {
+    public ResponseEntity<byte[]> getFire(@RequestParam String address, WebRequest request) {
         logger.info("GET /fire?address={}", address);
-        FireDTO fireResponse = alertService.getFire(address);
-        logger.info("Station {} – {} occupant(s)", fireResponse.getStationNumber(),
-                fireResponse.getPersons().size());
-        return fireResponse;
+        EncodedResponse fireResponse = alertService.getFireJson(address);
+        logger.info("Réponse : {} octet(s)", fireResponse.getJson().length);
+        return JsonResponses.of(fireResponse, request);
+    }
+
+    /**
+     * Variante multi-adresses de /fire pour un incendie touchant plusieurs
+     * bâtiments : un seul aller-retour, adresses résolues ensemble.
+     *
+     * @param addresses adresses recherchées (paramètre répété ou liste 1,2,3…)
+     * @return pour chaque adresse demandée, occupants et caserne
+     */
+    @GetMapping("/fire/addresses")
+    public Map<String, FireDTO> getFires(@RequestParam List<String> addresses) {
+        logger.info("GET /fire/addresses?addresses={}", addresses);
+        Map<String, FireDTO> fires = alertService.getFires(addresses);
+        logger.info("Réponse : {} adresse(s)", fires.size());
+        return fires;
     }
 
     /**
      * Retourne, pour une liste de casernes, les foyers à évacuer
-     * (occupants groupés par adresse).
+     * (occupants groupés par adresse). ETag et 304
+     * comme pour /childAlert, sur l’ensemble des casernes demandées.
      *
      * @param stations liste des numéros de caserne (query string : 1,2,3…)
-     * @return liste de foyers contenant occupants et informations médicales
+     * @param request  requête (en-têtes conditionnels, négociation gzip)
+     * @return liste de foyers contenant occupants et informations
+     *         médicales, en JSON pré-sérialisé
      */
     @GetMapping("/flood/stations")
-    public List<HouseholdDTO> getFloodStations(@RequestParam List<String> stations) {
+    public ResponseEntity<byte[]> getFloodStations(@RequestParam List<String> stations, WebRequest request) {
         logger.info("GET /flood/stations?stations={}", stations);
-        List<HouseholdDTO> households = alertService.getFloodStations(stations);
-        logger.info("Réponse : {} foyer(s)", households.size());
-        return households;
+        if (request.checkNotModified(JsonResponses.etag(alertService.getFloodStationsETag(stations), request))) {
+            logger.info("Réponse : 304 (inchangée)");
+            return null;
+        }
+        EncodedResponse households = alertService.getFloodStationsJson(stations);
+        logger.info("Réponse : {} octet(s)", households.getJson().length);
+        return JsonResponses.of(households, request);
     }
 
     /**
@@ -105,6 +153,32 @@ public class AlertController {
         return personInfos;
     }
 
+    /**
+     * Retourne les habitants d’une tranche d’âge (nourrissons, seniors…),
+     * du plus âgé au plus jeune.
+     *
+     * @param minAge  âge minimal inclus (0 par défaut)
+     * @param maxAge  âge maximal inclus (sans limite par défaut)
+     * @param station numéro de caserne facultatif : limite aux adresses desservies
+     * @param address adresse facultative (prioritaire sur la caserne)
+     * @return liste (éventuellement vide) d’habitants avec leur âge ; 400
+     *         si {@code minAge > maxAge}
+     */
+    @GetMapping("/residentsByAge")
+    public List<ResidentAgeDTO> getResidentsByAge(@RequestParam(defaultValue = "0") int minAge,
+            @RequestParam(defaultValue = "" + Integer.MAX_VALUE) int maxAge,
+            @RequestParam(required = false) String station,
+            @RequestParam(required = false) String address) {
+        logger.info("GET /residentsByAge?minAge={}&maxAge={}&station={}&address={}", minAge, maxAge, station,
+                address);
+        if (minAge > maxAge) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "minAge doit être inférieur ou égal à maxAge");
+        }
+        List<ResidentAgeDTO> residents = alertService.getResidentsByAge(minAge, maxAge, station, address);
+        logger.info("Réponse : {} habitant(s)", residents.size());
+        return residents;
+    }
+
     /**
      * Retourne toutes les adresses e‑mail des habitants d’une ville.
      *
@@ -118,4 +192,43 @@ public class AlertController {
         logger.info("Réponse : {} e‑mail(s)", emails.size());
         return emails;
     }
+
+    /**
+     * Variante en flux de /communityEmail pour les grandes villes : le
+     * tableau JSON est écrit et envoyé par tranches, au fil du parcours de
+     * l’annuaire de la ville, sans construire de liste ni la réponse
+     * complète en mémoire.
+     *
+     * @param city      nom de la ville
+     * @param chunkSize nombre d’e-mails écrits entre deux envois
+     * @return tableau JSON d’e-mails sans doublon, transmis par morceaux
+     */
+    @GetMapping(value = "/communityEmail", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamCommunityEmail(@RequestParam String city,
+            @RequestParam(defaultValue = "" + DEFAULT_EMAIL_CHUNK) int chunkSize) {
+        logger.info("GET /communityEmail?city={}&stream=true", city);
+        int chunk = Math.max(1, chunkSize);
+        StreamingResponseBody body = out -> {
+            int count;
+            try (JsonGenerator json = JSON.createGenerator(out)) {
+                json.writeStartArray();
+                int[] written = {0};
+                count = alertService.forEachCommunityEmail(city, email -> {
+                    try {
+                        json.writeString(email);
+                        if (++written[0] % chunk == 0) {
+                            json.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                json.writeEndArray();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            logger.info("Réponse : {} e‑mail(s) en flux", count);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
 }
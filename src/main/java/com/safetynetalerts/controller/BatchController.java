@@ -0,0 +1,52 @@
+package com.safetynetalerts.controller;
+
+import com.safetynetalerts.dto.BatchOperationDTO;
+import com.safetynetalerts.dto.BatchResultDTO;
+import com.safetynetalerts.service.BatchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Contrôleur des lots de modifications : plusieurs opérations sur les
+ * personnes, dossiers médicaux et mappings, appliquées d’un bloc.
+ */
+@RestController
+@RequestMapping("/batch")
+public class BatchController {
+
+    /** Journalisation applicative. */
+    private static final Logger LOG = LoggerFactory.getLogger(BatchController.class);
+
+    private final BatchService batchService;
+
+    public BatchController(BatchService batchService) {
+        this.batchService = batchService;
+    }
+
+    /**
+     * POST /batch : applique la liste d’opérations en une seule version
+     * et une seule sauvegarde, ou aucune. Exemple de déménagement :
+     * {@code [{"action":"UPDATE","person":{…}}, {"action":"UPDATE","medicalRecord":{…}}]}.
+     *
+     * @param operations opérations, appliquées dans l’ordre
+     * @return 200 et la nouvelle version si le lot est appliqué ; 409 et
+     *         l’opération en conflit s’il est refusé (rien n’est modifié)
+     */
+    @PostMapping
+    public ResponseEntity<BatchResultDTO> applyBatch(@RequestBody List<BatchOperationDTO> operations) {
+        LOG.info("POST /batch – {} opération(s)", operations.size());
+        BatchResultDTO result;
+        try {
+            result = batchService.applyBatch(operations);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return ResponseEntity.status(result.isApplied() ? HttpStatus.OK : HttpStatus.CONFLICT).body(result);
+    }
+}
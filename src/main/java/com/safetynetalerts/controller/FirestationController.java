@@ -1,11 +1,26 @@
 package com.safetynetalerts.controller;
 
-import com.safetynetalerts.dto.FirestationCoverageDTO;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynetalerts.dto.ImportResultDTO;
+import com.safetynetalerts.dto.StationCoverageDTO;
+import com.safetynetalerts.dto.StationReassignmentDTO;
+import com.safetynetalerts.dto.StationReassignmentResultDTO;
 import com.safetynetalerts.model.Firestation;
+import com.safetynetalerts.service.EncodedResponse;
 import com.safetynetalerts.service.FirestationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 
 /**
  * Contrôleur responsable des opérations CRUD sur les mappings
@@ -19,27 +34,51 @@ public class FirestationController {
     private static final Logger logger = LoggerFactory.getLogger(FirestationController.class);
 
     private final FirestationService firestationService;
+    private final ObjectMapper mapper;
 
-    public FirestationController(FirestationService firestationService) {
+    public FirestationController(FirestationService firestationService, ObjectMapper mapper) {
         this.firestationService = firestationService;
+        this.mapper = mapper;
     }
 
     /**
      * Renvoie la liste des personnes couvertes par une caserne ainsi que
-     * le nombre d’adultes et d’enfants.
+     * le nombre d’adultes et d’enfants. Réponse marquée
+     * d’un ETag : 304 sur {@code If-None-Match} tant que la caserne n’a pas
+     * changé.
      *
      * @param stationNumber numéro de la caserne recherché
-     * @return DTO récapitulatif (personnes + compteurs)
+     * @param request       requête (en-têtes conditionnels, négociation gzip)
+     * @return récapitulatif (personnes + compteurs), en JSON pré-sérialisé
      */
     @GetMapping
-    public FirestationCoverageDTO getPersonsByStation(@RequestParam String stationNumber) {
+    public ResponseEntity<byte[]> getPersonsByStation(@RequestParam String stationNumber, WebRequest request) {
         logger.info("GET /firestation?stationNumber={}", stationNumber);
-        FirestationCoverageDTO coverage = firestationService.getPersonsCoveredByStation(stationNumber);
-        logger.info("Réponse : {} pers. ({} adultes / {} enfants)",
-                coverage.getPersons().size(),
-                coverage.getNumberOfAdults(),
-                coverage.getNumberOfChildren());
-        return coverage;
+        if (request.checkNotModified(
+                JsonResponses.etag(firestationService.getPersonsCoveredByStationETag(stationNumber), request))) {
+            logger.info("Réponse : 304 (inchangée)");
+            return null;
+        }
+        EncodedResponse coverage = firestationService.getPersonsCoveredByStationJson(stationNumber);
+        logger.info("Réponse : {} octet(s)", coverage.getJson().length);
+        return JsonResponses.of(coverage, request);
+    }
+
+    /**
+     * Compteurs de couverture (habitants, adultes, enfants, téléphones
+     * distincts) tenus à jour à chaque écriture : lecture en temps
+     * constant, adaptée à l’interrogation périodique d’un tableau de bord.
+     *
+     * @param stationNumber caserne voulue ; toutes les casernes si absent
+     * @return compteurs de la caserne, ou de chaque caserne
+     */
+    @GetMapping("/coverage")
+    public List<StationCoverageDTO> getStationCoverage(@RequestParam(required = false) String stationNumber) {
+        logger.debug("GET /firestation/coverage?stationNumber={}", stationNumber);
+        if (stationNumber != null) {
+            return List.of(firestationService.getStationCoverage(stationNumber));
+        }
+        return firestationService.getAllStationCoverages();
     }
 
     /**
@@ -55,6 +94,22 @@ public class FirestationController {
         return firestationService.addFirestation(newMapping);
     }
 
+    /**
+     * POST /firestation/bulk : import en masse, en NDJSON (un mapping par
+     * ligne) ou en tableau JSON. Les lignes sont lues au fil du flux et
+     * appliquées par lots ; les adresses déjà desservies sont ignorées.
+     *
+     * @param body corps de la requête, lu en flux
+     * @return bilan de l’import (compteurs et lignes non créées)
+     */
+    @PostMapping(value = "/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, NdjsonResponses.MEDIA_TYPE })
+    public ImportResultDTO importFirestations(InputStream body) throws IOException {
+        logger.info("POST /firestation/bulk – import en masse");
+        try (MappingIterator<Firestation> rows = mapper.readerFor(Firestation.class).readValues(body)) {
+            return firestationService.importFirestations(rows);
+        }
+    }
+
     /**
      * Modifie le numéro de caserne associé à une adresse existante.
      *
@@ -68,6 +123,26 @@ public class FirestationController {
         return firestationService.updateFirestation(updatedMapping);
     }
 
+    /**
+     * PUT /firestation/reassign : change de caserne toutes les adresses de
+     * {@code fromStation}, ou la liste {@code addresses}, en une seule
+     * écriture.
+     *
+     * @param request objet JSON {fromStation, addresses, toStation}
+     * @return adresses déplacées et adresses demandées introuvables
+     */
+    @PutMapping("/reassign")
+    public StationReassignmentResultDTO reassignStation(@RequestBody StationReassignmentDTO request) {
+        logger.info("PUT /firestation/reassign – from={}, {} adresse(s), to={}", request.getFromStation(),
+                request.getAddresses() == null ? "toutes les" : request.getAddresses().size(),
+                request.getToStation());
+        try {
+            return firestationService.reassignStation(request);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
     /**
      * Supprime le mapping caserne → adresse correspondant.
      *
@@ -0,0 +1,55 @@
+package com.safetynetalerts.controller;
+
+import com.safetynetalerts.service.EncodedResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Locale;
+
+/**
+ * Écriture des réponses déjà sérialisées : le tableau d’octets en cache
+ * est transmis tel quel au convertisseur, sans copie ni passage par
+ * Jackson. La variante gzip est servie aux clients qui l’acceptent.
+ *
+ * Un ETag fort désigne une suite d’octets précise : les clients qui
+ * acceptent gzip reçoivent donc un ETag distinct ({@link #etag}), pour
+ * qu’un cache partagé ne serve pas un corps compressé à qui ne l’accepte
+ * pas sur la foi d’un {@code If-None-Match}.
+ */
+final class JsonResponses {
+
+    /** Suffixe des ETags négociés en gzip. */
+    static final String GZIP_ETAG_SUFFIX = "-gz";
+
+    private JsonResponses() {
+    }
+
+    /**
+     * ETag de la variante servie à cette requête : celui de la ressource,
+     * suffixé de {@value #GZIP_ETAG_SUFFIX} (entre les guillemets) si le
+     * client accepte gzip. À passer à {@code checkNotModified}.
+     */
+    static String etag(String etag, WebRequest request) {
+        if (etag == null || !acceptsGzip(request) || !etag.endsWith("\"")) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + GZIP_ETAG_SUFFIX + "\"";
+    }
+
+    static ResponseEntity<byte[]> of(EncodedResponse response, WebRequest request) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (response.isCompressible() && acceptsGzip(request)) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(response.getGzip());
+        }
+        return builder.body(response.getJson());
+    }
+
+    private static boolean acceptsGzip(WebRequest request) {
+        String accepted = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return accepted != null && accepted.toLowerCase(Locale.ROOT).contains("gzip");
+    }
+}
@@ -1,11 +1,22 @@
 package com.safetynetalerts.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynetalerts.dto.ImportResultDTO;
+import com.safetynetalerts.dto.PageDTO;
 import com.safetynetalerts.model.MedicalRecord;
 import com.safetynetalerts.service.MedicalRecordService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -21,16 +32,19 @@ public class MedicalRecordController {
     private static final Logger LOG = LoggerFactory.getLogger(MedicalRecordController.class);
 
     private final MedicalRecordService medicalRecordService;
+    private final ObjectMapper mapper;
 
-    public MedicalRecordController(MedicalRecordService medicalRecordService) {
+    public MedicalRecordController(MedicalRecordService medicalRecordService, ObjectMapper mapper) {
         this.medicalRecordService = medicalRecordService;
+        this.mapper = mapper;
     }
 
     /**
      * GET /medicalRecord : retourne la totalité
-     * des dossiers médicaux chargés en mémoire.
+     * des dossiers médicaux chargés en mémoire (tableau JSON unique, pour
+     * les petits volumes ; variante par défaut).
      */
-    @GetMapping
+    @GetMapping(produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.ALL_VALUE })
     public List<MedicalRecord> getAllMedicalRecords() {
         LOG.info("GET /medicalRecord – récupération de tous les dossiers");
         List<MedicalRecord> records = medicalRecordService.getAllMedicalRecords();
@@ -38,6 +52,34 @@ public class MedicalRecordController {
         return records;
     }
 
+    /**
+     * GET /medicalRecord?limit={n}[&cursor={c}] : page de dossiers triés par
+     * nom puis prénom ; {@code nextCursor} donne la page suivante.
+     *
+     * @param limit  nombre de dossiers par page
+     * @param cursor curseur de la page précédente (absent : première page)
+     */
+    @GetMapping(params = "limit")
+    public PageDTO<MedicalRecord> getMedicalRecordsPage(@RequestParam int limit,
+            @RequestParam(required = false) String cursor) {
+        LOG.info("GET /medicalRecord – page de {} après {}", limit, cursor);
+        try {
+            return medicalRecordService.getMedicalRecordsPage(cursor, limit);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * GET /medicalRecord avec {@code Accept: application/x-ndjson} : un
+     * dossier par ligne, écrit au fil du parcours (mémoire bornée).
+     */
+    @GetMapping(produces = NdjsonResponses.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> streamMedicalRecords() {
+        LOG.info("GET /medicalRecord – flux NDJSON");
+        return NdjsonResponses.of(medicalRecordService.getAllMedicalRecords(), mapper);
+    }
+
     /**
      * GET /medicalRecord/search : récupère un
      * dossier précis à partir du couple <code>firstName/lastName</code>.
@@ -69,6 +111,22 @@ public class MedicalRecordController {
         return medicalRecordService.addMedicalRecord(newRecord);
     }
 
+    /**
+     * POST /medicalRecord/bulk : import en masse, en NDJSON (un dossier par
+     * ligne) ou en tableau JSON. Les lignes sont lues au fil du flux et
+     * appliquées par lots ; les doublons sont ignorés.
+     *
+     * @param body corps de la requête, lu en flux
+     * @return bilan de l’import (compteurs et lignes non créées)
+     */
+    @PostMapping(value = "/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, NdjsonResponses.MEDIA_TYPE })
+    public ImportResultDTO importMedicalRecords(InputStream body) throws IOException {
+        LOG.info("POST /medicalRecord/bulk – import en masse");
+        try (MappingIterator<MedicalRecord> rows = mapper.readerFor(MedicalRecord.class).readValues(body)) {
+            return medicalRecordService.importMedicalRecords(rows);
+        }
+    }
+
     /**
      * PUT /medicalRecord : met à jour un dossier existant.
      *
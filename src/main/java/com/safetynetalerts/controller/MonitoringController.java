@@ -0,0 +1,57 @@
+package com.safetynetalerts.controller;
+
+import com.safetynetalerts.dto.CacheStatsDTO;
+import com.safetynetalerts.dto.MemoryFootprintDTO;
+import com.safetynetalerts.dto.PersistenceStatsDTO;
+import com.safetynetalerts.service.MonitoringService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Contrôleur exposant des métriques techniques (persistance, mémoire…) utiles à
+ * l’exploitation.
+ */
+@RestController
+@RequestMapping("/monitoring")
+public class MonitoringController {
+
+    /** Journalisation applicative. */
+    private static final Logger LOG = LoggerFactory.getLogger(MonitoringController.class);
+
+    private final MonitoringService monitoringService;
+
+    public MonitoringController(MonitoringService monitoringService) {
+        this.monitoringService = monitoringService;
+    }
+
+    /**
+     * GET /monitoring/persistence : mode de persistance, taille des lots
+     * et latence des écritures.
+     */
+    @GetMapping("/persistence")
+    public PersistenceStatsDTO getPersistenceStats() {
+        LOG.info("GET /monitoring/persistence");
+        return monitoringService.getPersistenceStats();
+    }
+
+    /**
+     * GET /monitoring/memory : heap occupé et heap économisé par le
+     * partage des chaînes répétées.
+     */
+    @GetMapping("/memory")
+    public MemoryFootprintDTO getMemoryFootprint() {
+        LOG.info("GET /monitoring/memory");
+        return monitoringService.getMemoryFootprint();
+    }
+
+    /**
+     * GET /monitoring/cache : succès, échecs, évictions et invalidations
+     * du cache des réponses.
+     */
+    @GetMapping("/cache")
+    public CacheStatsDTO getCacheStats() {
+        LOG.info("GET /monitoring/cache");
+        return monitoringService.getCacheStats();
+    }
+}
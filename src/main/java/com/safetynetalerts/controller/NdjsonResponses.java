@@ -0,0 +1,48 @@
+package com.safetynetalerts.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Réponses NDJSON ({@code application/x-ndjson}) : un objet JSON par
+ * ligne, écrit au fil du parcours et envoyé par tranches, sans construire
+ * la réponse complète en mémoire.
+ */
+final class NdjsonResponses {
+
+    static final String MEDIA_TYPE = "application/x-ndjson";
+
+    /** Lignes écrites entre deux envois. */
+    private static final int FLUSH_EVERY = 256;
+
+    private NdjsonResponses() {
+    }
+
+    /**
+     * @param rows liste à parcourir (version publiée, non copiée)
+     */
+    static ResponseEntity<StreamingResponseBody> of(List<?> rows, ObjectMapper mapper) {
+        ObjectWriter writer = mapper.writer();
+        StreamingResponseBody body = out -> write(rows, writer, out);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(MEDIA_TYPE)).body(body);
+    }
+
+    private static void write(List<?> rows, ObjectWriter writer, OutputStream out) throws IOException {
+        int written = 0;
+        for (Object row : rows) {
+            out.write(writer.writeValueAsBytes(row));
+            out.write('\n');
+            if (++written % FLUSH_EVERY == 0) {
+                out.flush();
+            }
+        }
+        out.flush();
+    }
+}
@@ -1,11 +1,23 @@
+
 package com.safetynetalerts.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynetalerts.dto.ImportResultDTO;
+import com.safetynetalerts.dto.PageDTO;
 import com.safetynetalerts.model.Person;
 import com.safetynetalerts.service.PersonService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -20,15 +32,19 @@ public class PersonController {
     private static final Logger LOG = LoggerFactory.getLogger(PersonController.class);
 
     private final PersonService personService;
+    private final ObjectMapper mapper;
 
-    public PersonController(PersonService personService) {
+    public PersonController(PersonService personService, ObjectMapper mapper) {
         this.personService = personService;
+        this.mapper = mapper;
     }
 
     /**
-     * GET /person : liste toutes les personnes.
+     * GET /person : liste toutes les personnes (tableau JSON unique,
+     * pour les petits volumes). Le type {@code *}{@code /*} déclaré garde
+     * cette variante par défaut pour les clients sans {@code Accept}.
      */
-    @GetMapping
+    @GetMapping(produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.ALL_VALUE })
     public List<Person> getAllPersons() {
         LOG.info("GET /person – liste complète");
         List<Person> persons = personService.getAllPersons();
@@ -36,6 +52,34 @@ public class PersonController {
         return persons;
     }
 
+    /**
+     * GET /person?limit={n}[&cursor={c}] : page de personnes triées par nom
+     * puis prénom ; {@code nextCursor} donne la page suivante.
+     *
+     * @param limit  nombre de personnes par page
+     * @param cursor curseur de la page précédente (absent : première page)
+     */
+    @GetMapping(params = "limit")
+    public PageDTO<Person> getPersonsPage(@RequestParam int limit,
+            @RequestParam(required = false) String cursor) {
+        LOG.info("GET /person – page de {} après {}", limit, cursor);
+        try {
+            return personService.getPersonsPage(cursor, limit);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * GET /person avec {@code Accept: application/x-ndjson} : une personne
+     * par ligne, écrite au fil du parcours (mémoire bornée).
+     */
+    @GetMapping(produces = NdjsonResponses.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> streamPersons() {
+        LOG.info("GET /person – flux NDJSON");
+        return NdjsonResponses.of(personService.getAllPersons(), mapper);
+    }
+
     /**
      * GET /person/search : cherche une personne
      * par prénom + nom.
@@ -66,6 +110,22 @@ public class PersonController {
         return personService.addPerson(newPerson);
     }
 
+    /**
+     * POST /person/bulk : import en masse, en NDJSON (une personne par
+     * ligne) ou en tableau JSON. Les lignes sont lues au fil du flux et
+     * appliquées par lots ; les doublons sont ignorés.
+     *
+     * @param body corps de la requête, lu en flux
+     * @return bilan de l’import (compteurs et lignes non créées)
+     */
+    @PostMapping(value = "/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, NdjsonResponses.MEDIA_TYPE })
+    public ImportResultDTO importPersons(InputStream body) throws IOException {
+        LOG.info("POST /person/bulk – import en masse");
+        try (MappingIterator<Person> rows = mapper.readerFor(Person.class).readValues(body)) {
+            return personService.importPersons(rows);
+        }
+    }
+
     /**
      * PUT /person : met à jour une personne existante.
      * L’identification se fait par couple <code>firstName/lastName</code>.
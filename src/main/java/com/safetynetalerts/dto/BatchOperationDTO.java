@@ -0,0 +1,78 @@
+package com.safetynetalerts.dto;
+
+import com.safetynetalerts.model.Firestation;
+import com.safetynetalerts.model.MedicalRecord;
+import com.safetynetalerts.model.Person;
+
+/**
+ * Opération d’un lot de modifications : une action et exactement une
+ * entité cible (personne, dossier médical ou mapping de caserne).
+ *
+ * Pour une suppression, seuls les champs d’identification sont lus
+ * (prénom / nom, ou adresse).
+ */
+public class BatchOperationDTO {
+
+    /** Nature de l’opération. */
+    public enum Action { ADD, UPDATE, DELETE }
+
+    private Action action;
+    private Person person;
+    private MedicalRecord medicalRecord;
+    private Firestation firestation;
+
+    /** Constructeur par défaut (Jackson). */
+    public BatchOperationDTO() {
+    }
+
+    public BatchOperationDTO(Action action, Person person) {
+        this.action = action;
+        this.person = person;
+    }
+
+    public BatchOperationDTO(Action action, MedicalRecord medicalRecord) {
+        this.action = action;
+        this.medicalRecord = medicalRecord;
+    }
+
+    public BatchOperationDTO(Action action, Firestation firestation) {
+        this.action = action;
+        this.firestation = firestation;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Accesseurs / Mutateurs */
+    /* ------------------------------------------------------------------ */
+
+    public Action getAction() {
+        return action;
+    }
+
+    public void setAction(Action action) {
+        this.action = action;
+    }
+
+    public Person getPerson() {
+        return person;
+    }
+
+    public void setPerson(Person person) {
+        this.person = person;
+    }
+
+    public MedicalRecord getMedicalRecord() {
+        return medicalRecord;
+    }
+
+    public void setMedicalRecord(MedicalRecord medicalRecord) {
+        this.medicalRecord = medicalRecord;
+    }
+
+    public Firestation getFirestation() {
+        return firestation;
+    }
+
+    public void setFirestation(Firestation firestation) {
+        this.firestation = firestation;
+    }
+}
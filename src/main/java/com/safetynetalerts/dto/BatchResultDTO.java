@@ -0,0 +1,64 @@
+package com.safetynetalerts.dto;
+
+/**
+ * Résultat d’un lot de modifications : appliqué en entier (nouvelle
+ * version des données) ou pas du tout (première opération en échec).
+ */
+public class BatchResultDTO {
+
+    private boolean applied;
+    private int operations;
+    /** Version publiée par le lot ; version inchangée s’il est refusé. */
+    private long version;
+    /** Indice (à partir de 0) de l’opération refusée, {@code null} si appliqué. */
+    private Integer failedIndex;
+    private String error;
+
+    /** Constructeur par défaut (Jackson). */
+    public BatchResultDTO() {
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Accesseurs / Mutateurs */
+    /* ------------------------------------------------------------------ */
+
+    public boolean isApplied() {
+        return applied;
+    }
+
+    public void setApplied(boolean applied) {
+        this.applied = applied;
+    }
+
+    public int getOperations() {
+        return operations;
+    }
+
+    public void setOperations(int operations) {
+        this.operations = operations;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Integer getFailedIndex() {
+        return failedIndex;
+    }
+
+    public void setFailedIndex(Integer failedIndex) {
+        this.failedIndex = failedIndex;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,85 @@
+package com.safetynetalerts.dto;
+
+/**
+ * Réponse de l’endpoint /monitoring/cache : efficacité et occupation du
+ * cache des réponses.
+ */
+public class CacheStatsDTO {
+
+    private long hits;
+    private long misses;
+    private double hitRatio;
+    private long evictions;
+    private long invalidations;
+    private int size;
+    private int maxEntries;
+
+    /** Constructeur par défaut (Jackson). */
+    public CacheStatsDTO() {
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Accesseurs / Mutateurs */
+    /* ------------------------------------------------------------------ */
+
+    /** Réponses servies depuis le cache. */
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    /** Réponses calculées faute d’entrée en cache. */
+    public long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    /** Part des lectures servies depuis le cache (0 à 1). */
+    public double getHitRatio() {
+        return hitRatio;
+    }
+
+    public void setHitRatio(double hitRatio) {
+        this.hitRatio = hitRatio;
+    }
+
+    /** Entrées évincées faute de place (LRU). */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public void setEvictions(long evictions) {
+        this.evictions = evictions;
+    }
+
+    /** Entrées retirées suite à une écriture des données. */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public void setInvalidations(long invalidations) {
+        this.invalidations = invalidations;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+}
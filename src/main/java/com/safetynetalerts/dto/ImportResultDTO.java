@@ -0,0 +1,76 @@
+package com.safetynetalerts.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bilan d’un import en masse : compteurs par statut et détail des lignes
+ * non créées (les lignes créées ne sont que comptées, pour garder la
+ * réponse proportionnelle aux anomalies).
+ */
+public class ImportResultDTO {
+
+    private int received;
+    private int created;
+    private int duplicates;
+    private int rejected;
+    /** {@code false} si le flux est devenu illisible avant sa fin. */
+    private boolean complete = true;
+    private List<ImportRowDTO> rows = new ArrayList<>();
+
+    /** Constructeur par défaut (Jackson). */
+    public ImportResultDTO() {
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Accesseurs / Mutateurs */
+    /* ------------------------------------------------------------------ */
+
+    public int getReceived() {
+        return received;
+    }
+
+    public void setReceived(int received) {
+        this.received = received;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    public void setDuplicates(int duplicates) {
+        this.duplicates = duplicates;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+
+    public List<ImportRowDTO> getRows() {
+        return rows;
+    }
+
+    public void setRows(List<ImportRowDTO> rows) {
+        this.rows = rows;
+    }
+}
@@ -0,0 +1,58 @@
+package com.safetynetalerts.dto;
+
+/**
+ * Ligne d’un import en masse qui n’a pas été créée : doublon, ligne
+ * invalide ou illisible.
+ */
+public class ImportRowDTO {
+
+    /** Statut d’une ligne non créée. */
+    public enum Status { DUPLICATE, REJECTED }
+
+    private int row;
+    private Status status;
+    private String message;
+
+    /** Constructeur par défaut (Jackson). */
+    public ImportRowDTO() {
+    }
+
+    /**
+     * @param row     numéro de la ligne dans le flux (à partir de 1)
+     * @param status  raison de la non-création
+     * @param message détail lisible
+     */
+    public ImportRowDTO(int row, Status status, String message) {
+        this.row = row;
+        this.status = status;
+        this.message = message;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Accesseurs / Mutateurs */
+    /* ------------------------------------------------------------------ */
+
+    public int getRow() {
+        return row;
+    }
+
+    public void setRow(int row) {
+        this.row = row;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
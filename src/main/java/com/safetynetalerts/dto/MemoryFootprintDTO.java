@@ -0,0 +1,70 @@
+package com.safetynetalerts.dto;
+
+/**
+ * Réponse de l’endpoint /monitoring/memory : occupation du heap et gain
+ * apporté par le partage des chaînes répétées.
+ */
+public class MemoryFootprintDTO {
+
+    private long heapUsedBytes;
+    private long heapMaxBytes;
+    private int internedValues;
+    private long sharedReferences;
+    private long estimatedBytesSaved;
+
+    /** Constructeur par défaut (Jackson). */
+    public MemoryFootprintDTO() {
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Accesseurs / Mutateurs */
+    /* ------------------------------------------------------------------ */
+
+    /** Heap actuellement occupé par la JVM. */
+    public long getHeapUsedBytes() {
+        return heapUsedBytes;
+    }
+
+    public void setHeapUsedBytes(long heapUsedBytes) {
+        this.heapUsedBytes = heapUsedBytes;
+    }
+
+    /** Heap maximal autorisé (-Xmx). */
+    public long getHeapMaxBytes() {
+        return heapMaxBytes;
+    }
+
+    public void setHeapMaxBytes(long heapMaxBytes) {
+        this.heapMaxBytes = heapMaxBytes;
+    }
+
+    /**
+     * Valeurs du dictionnaire de chaînes depuis le dernier rechargement
+     * (majorant des valeurs distinctes en usage : rien n’est évincé).
+     */
+    public int getInternedValues() {
+        return internedValues;
+    }
+
+    public void setInternedValues(int internedValues) {
+        this.internedValues = internedValues;
+    }
+
+    /** Champs pointant vers une valeur du dictionnaire. */
+    public long getSharedReferences() {
+        return sharedReferences;
+    }
+
+    public void setSharedReferences(long sharedReferences) {
+        this.sharedReferences = sharedReferences;
+    }
+
+    /** Heap économisé par rapport à une copie par ligne (estimation). */
+    public long getEstimatedBytesSaved() {
+        return estimatedBytesSaved;
+    }
+
+    public void setEstimatedBytesSaved(long estimatedBytesSaved) {
+        this.estimatedBytesSaved = estimatedBytesSaved;
+    }
+}
@@ -0,0 +1,42 @@
+package com.safetynetalerts.dto;
+
+import java.util.List;
+
+/**
+ * Page d’une liste paginée par curseur : éléments et curseur à renvoyer
+ * pour obtenir la suite ({@code null} sur la dernière page).
+ */
+public class PageDTO<T> {
+
+    private List<T> items;
+    private String nextCursor;
+
+    /** Constructeur par défaut (Jackson). */
+    public PageDTO() {
+    }
+
+    public PageDTO(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Accesseurs / Mutateurs */
+    /* ------------------------------------------------------------------ */
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
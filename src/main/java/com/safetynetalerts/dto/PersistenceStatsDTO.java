@@ -0,0 +1,111 @@
+package com.safetynetalerts.dto;
+
+/**
+ * Réponse de l’endpoint /monitoring/persistence : mode de persistance
+ * et métriques d’écriture (taille des lots, latence).
+ */
+public class PersistenceStatsDTO {
+
+    private String mode;
+    private boolean async;
+    private long flushCount;
+    private long savesFlushed;
+    private int lastBatchSize;
+    private int maxBatchSize;
+    private double averageBatchSize;
+    private double lastFlushMillis;
+    private double maxFlushMillis;
+    private double averageFlushMillis;
+
+    /** Constructeur par défaut (Jackson). */
+    public PersistenceStatsDTO() {
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Accesseurs / Mutateurs */
+    /* ------------------------------------------------------------------ */
+
+    /** Mode de persistance (SNAPSHOT / JOURNAL). */
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    /** Écriture groupée en arrière-plan activée. */
+    public boolean isAsync() {
+        return async;
+    }
+
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    /** Nombre d’écritures physiques. */
+    public long getFlushCount() {
+        return flushCount;
+    }
+
+    public void setFlushCount(long flushCount) {
+        this.flushCount = flushCount;
+    }
+
+    /** Nombre de sauvegardes couvertes par ces écritures. */
+    public long getSavesFlushed() {
+        return savesFlushed;
+    }
+
+    public void setSavesFlushed(long savesFlushed) {
+        this.savesFlushed = savesFlushed;
+    }
+
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public void setLastBatchSize(int lastBatchSize) {
+        this.lastBatchSize = lastBatchSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public double getAverageBatchSize() {
+        return averageBatchSize;
+    }
+
+    public void setAverageBatchSize(double averageBatchSize) {
+        this.averageBatchSize = averageBatchSize;
+    }
+
+    public double getLastFlushMillis() {
+        return lastFlushMillis;
+    }
+
+    public void setLastFlushMillis(double lastFlushMillis) {
+        this.lastFlushMillis = lastFlushMillis;
+    }
+
+    public double getMaxFlushMillis() {
+        return maxFlushMillis;
+    }
+
+    public void setMaxFlushMillis(double maxFlushMillis) {
+        this.maxFlushMillis = maxFlushMillis;
+    }
+
+    public double getAverageFlushMillis() {
+        return averageFlushMillis;
+    }
+
+    public void setAverageFlushMillis(double averageFlushMillis) {
+        this.averageFlushMillis = averageFlushMillis;
+    }
+}
@@ -0,0 +1,85 @@
+package com.safetynetalerts.dto;
+
+/**
+ * Habitant appartenant à une tranche d’âge, tel que retourné par
+ * l’endpoint /residentsByAge (recherche des nourrissons, des seniors…).
+ */
+public class ResidentAgeDTO {
+
+    private String firstName;
+    private String lastName;
+    private String address;
+    private String phone;
+    private int age;
+    private String station;
+
+    /** Constructeur par défaut (Jackson). */
+    public ResidentAgeDTO() {
+    }
+
+    public ResidentAgeDTO(String firstName,
+            String lastName,
+            String address,
+            String phone,
+            int age,
+            String station) {
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.address = address;
+        this.phone = phone;
+        this.age = age;
+        this.station = station;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Accesseurs / Mutateurs */
+    /* ------------------------------------------------------------------ */
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public void setAddress(String address) {
+        this.address = address;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public void setPhone(String phone) {
+        this.phone = phone;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
+    public void setAge(int age) {
+        this.age = age;
+    }
+
+    public String getStation() {
+        return station;
+    }
+
+    public void setStation(String station) {
+        this.station = station;
+    }
+}
@@ -0,0 +1,74 @@
+package com.safetynetalerts.dto;
+
+/**
+ * Compteurs de couverture d’une caserne, tels que retournés par
+ * l’endpoint /firestation/coverage (tableau de bord des casernes).
+ */
+public class StationCoverageDTO {
+
+    private String station;
+    private int residents;
+    private int adults;
+    private int children;
+    private int distinctPhones;
+
+    /** Constructeur par défaut (Jackson). */
+    public StationCoverageDTO() {
+    }
+
+    public StationCoverageDTO(String station,
+            int residents,
+            int adults,
+            int children,
+            int distinctPhones) {
+        this.station = station;
+        this.residents = residents;
+        this.adults = adults;
+        this.children = children;
+        this.distinctPhones = distinctPhones;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Accesseurs / Mutateurs */
+    /* ------------------------------------------------------------------ */
+
+    public String getStation() {
+        return station;
+    }
+
+    public void setStation(String station) {
+        this.station = station;
+    }
+
+    public int getResidents() {
+        return residents;
+    }
+
+    public void setResidents(int residents) {
+        this.residents = residents;
+    }
+
+    public int getAdults() {
+        return adults;
+    }
+
+    public void setAdults(int adults) {
+        this.adults = adults;
+    }
+
+    public int getChildren() {
+        return children;
+    }
+
+    public void setChildren(int children) {
+        this.children = children;
+    }
+
+    public int getDistinctPhones() {
+        return distinctPhones;
+    }
+
+    public void setDistinctPhones(int distinctPhones) {
+        this.distinctPhones = distinctPhones;
+    }
+}
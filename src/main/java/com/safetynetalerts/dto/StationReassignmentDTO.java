@@ -0,0 +1,54 @@
+package com.safetynetalerts.dto;
+
+import java.util.List;
+
+/**
+ * Demande de changement de caserne groupé : toutes les adresses d’une
+ * caserne ({@code fromStation} seul), une liste d’adresses
+ * ({@code addresses} seul), ou les adresses de la liste desservies par
+ * {@code fromStation} (les deux).
+ */
+public class StationReassignmentDTO {
+
+    private String fromStation;
+    private List<String> addresses;
+    private String toStation;
+
+    /** Constructeur par défaut (Jackson). */
+    public StationReassignmentDTO() {
+    }
+
+    public StationReassignmentDTO(String fromStation, List<String> addresses, String toStation) {
+        this.fromStation = fromStation;
+        this.addresses = addresses;
+        this.toStation = toStation;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Accesseurs / Mutateurs */
+    /* ------------------------------------------------------------------ */
+
+    public String getFromStation() {
+        return fromStation;
+    }
+
+    public void setFromStation(String fromStation) {
+        this.fromStation = fromStation;
+    }
+
+    public List<String> getAddresses() {
+        return addresses;
+    }
+
+    public void setAddresses(List<String> addresses) {
+        this.addresses = addresses;
+    }
+
+    public String getToStation() {
+        return toStation;
+    }
+
+    public void setToStation(String toStation) {
+        this.toStation = toStation;
+    }
+}
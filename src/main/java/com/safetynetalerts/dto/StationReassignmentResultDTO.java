@@ -0,0 +1,52 @@
+package com.safetynetalerts.dto;
+
+import java.util.List;
+
+/**
+ * Bilan d’un changement de caserne groupé : adresses déplacées vers
+ * {@code toStation} et adresses demandées sans mapping correspondant.
+ */
+public class StationReassignmentResultDTO {
+
+    private String toStation;
+    private List<String> reassigned;
+    private List<String> notFound;
+
+    /** Constructeur par défaut (Jackson). */
+    public StationReassignmentResultDTO() {
+    }
+
+    public StationReassignmentResultDTO(String toStation, List<String> reassigned, List<String> notFound) {
+        this.toStation = toStation;
+        this.reassigned = reassigned;
+        this.notFound = notFound;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Accesseurs / Mutateurs */
+    /* ------------------------------------------------------------------ */
+
+    public String getToStation() {
+        return toStation;
+    }
+
+    public void setToStation(String toStation) {
+        this.toStation = toStation;
+    }
+
+    public List<String> getReassigned() {
+        return reassigned;
+    }
+
+    public void setReassigned(List<String> reassigned) {
+        this.reassigned = reassigned;
+    }
+
+    public List<String> getNotFound() {
+        return notFound;
+    }
+
+    public void setNotFound(List<String> notFound) {
+        this.notFound = notFound;
+    }
+}
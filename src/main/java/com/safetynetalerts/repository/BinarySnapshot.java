@@ -0,0 +1,302 @@
+package com.safetynetalerts.repository;
+
+import com.safetynetalerts.model.Firestation;
+import com.safetynetalerts.model.MedicalRecord;
+import com.safetynetalerts.model.Person;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Format binaire compact du jeu de données, pour un démarrage rapide.
+ *
+ * Structure du fichier (entiers big-endian sur 4 octets) :
+ * <pre>
+ * magic "SNA1" | nb sections
+ * section = tag | taille en octets | contenu
+ *   STRG : nb chaînes, puis (longueur, octets UTF-8) pour chacune
+ *   PERS : nb personnes, puis 7 codes par personne
+ *   FIRE : nb mappings, puis 2 codes par mapping
+ *   MEDR : nb dossiers, puis prénom, nom, date, médicaments, allergies
+ * </pre>
+ * Chaque texte est remplacé par son code dans le dictionnaire STRG
+ * ({@code -1} pour {@code null}) ; une liste est stockée sous forme
+ * « taille puis codes » ({@code -1} pour une liste {@code null}).
+ *
+ * La lecture se fait sur un {@link MappedByteBuffer} : aucun parsing
+ * textuel, et chaque chaîne du dictionnaire n’est décodée qu’une fois.
+ */
+class BinarySnapshot {
+
+    static final int MAGIC = 0x534E4131; // "SNA1"
+
+    private static final int STRINGS = 0x53545247; // "STRG"
+    private static final int PERSONS = 0x50455253; // "PERS"
+    private static final int FIRESTATIONS = 0x46495245; // "FIRE"
+    private static final int MEDICAL_RECORDS = 0x4D454452; // "MEDR"
+
+    private static final int NULL = -1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /* ------------------------------------------------------------------ */
+    /* Écriture */
+    /* ------------------------------------------------------------------ */
+
+    /**
+     * Écrit le snapshot via un fichier temporaire renommé atomiquement.
+     */
+    void write(Path target,
+            Collection<Person> persons,
+            Collection<Firestation> firestations,
+            Collection<MedicalRecord> medicalRecords) throws IOException {
+        Dictionary dictionary = new Dictionary();
+        Sections sections = new Sections();
+
+        DataOutputStream out = sections.begin(PERSONS);
+        out.writeInt(persons.size());
+        for (Person p : persons) {
+            out.writeInt(dictionary.code(p.getFirstName()));
+            out.writeInt(dictionary.code(p.getLastName()));
+            out.writeInt(dictionary.code(p.getAddress()));
+            out.writeInt(dictionary.code(p.getCity()));
+            out.writeInt(dictionary.code(p.getZip()));
+            out.writeInt(dictionary.code(p.getPhone()));
+            out.writeInt(dictionary.code(p.getEmail()));
+        }
+
+        out = sections.begin(FIRESTATIONS);
+        out.writeInt(firestations.size());
+        for (Firestation f : firestations) {
+            out.writeInt(dictionary.code(f.getAddress()));
+            out.writeInt(dictionary.code(f.getStation()));
+        }
+
+        out = sections.begin(MEDICAL_RECORDS);
+        out.writeInt(medicalRecords.size());
+        for (MedicalRecord m : medicalRecords) {
+            out.writeInt(dictionary.code(m.getFirstName()));
+            out.writeInt(dictionary.code(m.getLastName()));
+            out.writeInt(dictionary.code(m.getBirthdate()));
+            writeList(out, dictionary, m.getMedications());
+            writeList(out, dictionary, m.getAllergies());
+        }
+
+        Path temp = JsonDataWriter.createTemp(target);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                DataOutputStream file = new DataOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+                file.writeInt(MAGIC);
+                file.writeInt(4);
+                // Le dictionnaire en tête : il doit être connu avant les codes
+                dictionary.writeSection(file);
+                sections.writeTo(file);
+                file.flush();
+                channel.force(true);
+            }
+            JsonDataWriter.replace(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeList(DataOutputStream out, Dictionary dictionary, List<String> values)
+            throws IOException {
+        if (values == null) {
+            out.writeInt(NULL);
+            return;
+        }
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeInt(dictionary.code(value));
+        }
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Lecture */
+    /* ------------------------------------------------------------------ */
+
+    /**
+     * Lit le snapshot et transmet chaque entité, dans l’ordre du fichier.
+     * Les sections inconnues sont ignorées.
+     */
+    void read(Path source,
+            Consumer<Person> personConsumer,
+            Consumer<Firestation> firestationConsumer,
+            Consumer<MedicalRecord> medicalRecordConsumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot binaire trop volumineux : " + channel.size() + " octets");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try {
+                if (buffer.getInt() != MAGIC) {
+                    throw new IOException("Snapshot binaire invalide : " + source);
+                }
+                String[] strings = new String[0];
+                int sectionCount = buffer.getInt();
+                for (int s = 0; s < sectionCount; s++) {
+                    int tag = buffer.getInt();
+                    int length = buffer.getInt();
+                    int end = buffer.position() + length;
+                    switch (tag) {
+                        case STRINGS -> strings = readStrings(buffer);
+                        case PERSONS -> readPersons(buffer, strings, personConsumer);
+                        case FIRESTATIONS -> readFirestations(buffer, strings, firestationConsumer);
+                        case MEDICAL_RECORDS -> readMedicalRecords(buffer, strings, medicalRecordConsumer);
+                        default -> {
+                            // Section d’une version ultérieure : ignorée
+                        }
+                    }
+                    buffer.position(end);
+                }
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+                throw new IOException("Snapshot binaire tronqué ou corrompu : " + source, e);
+            }
+        }
+    }
+
+    private static String[] readStrings(ByteBuffer buffer) {
+        String[] strings = new String[buffer.getInt()];
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < strings.length; i++) {
+            int length = buffer.getInt();
+            if (length > bytes.length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            buffer.get(bytes, 0, length);
+            strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    private static void readPersons(ByteBuffer buffer, String[] strings, Consumer<Person> consumer) {
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            consumer.accept(new Person(
+                    string(buffer, strings),
+                    string(buffer, strings),
+                    string(buffer, strings),
+                    string(buffer, strings),
+                    string(buffer, strings),
+                    string(buffer, strings),
+                    string(buffer, strings)));
+        }
+    }
+
+    private static void readFirestations(ByteBuffer buffer, String[] strings, Consumer<Firestation> consumer) {
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            consumer.accept(new Firestation(string(buffer, strings), string(buffer, strings)));
+        }
+    }
+
+    private static void readMedicalRecords(ByteBuffer buffer, String[] strings, Consumer<MedicalRecord> consumer) {
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            consumer.accept(new MedicalRecord(
+                    string(buffer, strings),
+                    string(buffer, strings),
+                    string(buffer, strings),
+                    list(buffer, strings),
+                    list(buffer, strings)));
+        }
+    }
+
+    private static String string(ByteBuffer buffer, String[] strings) {
+        int code = buffer.getInt();
+        return code == NULL ? null : strings[code];
+    }
+
+    private static List<String> list(ByteBuffer buffer, String[] strings) {
+        int size = buffer.getInt();
+        if (size == NULL) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(string(buffer, strings));
+        }
+        return values;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Outils d’écriture */
+    /* ------------------------------------------------------------------ */
+
+    /** Dictionnaire texte → code, dans l’ordre de première apparition. */
+    private static final class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+
+        int code(String value) {
+            if (value == null) {
+                return NULL;
+            }
+            return codes.computeIfAbsent(value, v -> {
+                strings.add(v);
+                return strings.size() - 1;
+            });
+        }
+
+        void writeSection(DataOutputStream file) throws IOException {
+            byte[][] encoded = new byte[strings.size()][];
+            long length = 4;
+            for (int i = 0; i < encoded.length; i++) {
+                encoded[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+                length += 4 + encoded[i].length;
+            }
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Dictionnaire trop volumineux pour le snapshot binaire");
+            }
+            file.writeInt(STRINGS);
+            file.writeInt((int) length);
+            file.writeInt(encoded.length);
+            for (byte[] bytes : encoded) {
+                file.writeInt(bytes.length);
+                file.write(bytes);
+            }
+        }
+    }
+
+    /** Sections de données, tamponnées en attendant le dictionnaire complet. */
+    private static final class Sections {
+
+        private final List<Integer> tags = new ArrayList<>();
+        private final List<ByteArrayOutputStream> contents = new ArrayList<>();
+
+        DataOutputStream begin(int tag) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream(BUFFER_SIZE);
+            tags.add(tag);
+            contents.add(content);
+            return new DataOutputStream(content);
+        }
+
+        void writeTo(DataOutputStream file) throws IOException {
+            for (int i = 0; i < tags.size(); i++) {
+                file.writeInt(tags.get(i));
+                file.writeInt(contents.get(i).size());
+                contents.get(i).writeTo(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.safetynetalerts.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Habitants triés par date de naissance (jour epoch croissant, donc du
+ * plus âgé au plus jeune).
+ *
+ * Une tranche d’âge correspond à un intervalle de jours de naissance :
+ * une recherche dichotomique en donne le début, sans parcourir les
+ * habitants hors tranche. Les habitants sans date exploitable ne sont pas
+ * indexés.
+ *
+ * L’index est découpé en blocs triés, à partage structurel : une écriture
+ * ne recopie que le bloc où l’habitant entre ou sort, les autres blocs
+ * sont partagés avec la version précédente. À date égale, l’ordre
+ * d’indexation est conservé.
+ */
+final class BirthdateIndex {
+
+    /** Taille au-delà de laquelle un bloc est coupé en deux. */
+    private static final int CHUNK = 512;
+
+    static final BirthdateIndex EMPTY = new BirthdateIndex(new Resident[0][], new int[0], new int[0]);
+
+    private final Resident[][] chunks;
+    /** Nombre d’éléments utiles de chaque bloc (jamais nul). */
+    private final int[] lengths;
+    /** Dernier jour de naissance de chaque bloc : localise un bloc par dichotomie. */
+    private final int[] lastDays;
+
+    private BirthdateIndex(Resident[][] chunks, int[] lengths, int[] lastDays) {
+        this.chunks = chunks;
+        this.lengths = lengths;
+        this.lastDays = lastDays;
+    }
+
+    /** Habitants nés entre les deux jours epoch (inclus), du plus âgé au plus jeune. */
+    List<Resident> find(int fromDay, int toDay) {
+        List<Resident> result = new ArrayList<>();
+        int first = chunkFrom(lastDays, chunks.length, fromDay);
+        for (int c = first; c < chunks.length; c++) {
+            Resident[] chunk = chunks[c];
+            for (int i = c == first ? lowerBound(chunk, lengths[c], fromDay) : 0; i < lengths[c]; i++) {
+                if (chunk[i].getBirthEpochDay() > toDay) {
+                    return Collections.unmodifiableList(result);
+                }
+                result.add(chunk[i]);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    /** Premier bloc dont le dernier jour est {@code >= day}. */
+    private static int chunkFrom(int[] lastDays, int count, long day) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (lastDays[mid] < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Premier indice du bloc dont la date est {@code >= day}. */
+    private static int lowerBound(Resident[] chunk, int length, long day) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (chunk[mid].getBirthEpochDay() < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Prépare la version suivante ; blocs recopiés au premier accès en
+     * écriture. Réservé à l’écrivain du repository.
+     */
+    static final class Builder {
+
+        private Resident[][] chunks;
+        private int[] lengths;
+        private int[] lastDays;
+        private boolean[] owned;
+        /** Position dans son bloc du dernier habitant trouvé par {@link #locate}. */
+        private int offset;
+
+        private Builder(BirthdateIndex base) {
+            this.chunks = base.chunks;
+            this.lengths = base.lengths;
+            this.lastDays = base.lastDays;
+        }
+
+        /** Indexe l’habitant après ceux déjà indexés à la même date. */
+        void add(Resident r) {
+            if (!r.hasBirthDate()) {
+                return;
+            }
+            own();
+            if (chunks.length == 0) {
+                insertChunk(0, new Resident[16], 0);
+            }
+            int day = r.getBirthEpochDay();
+            int c = Math.min(chunkFrom(lastDays, chunks.length, day + 1L), chunks.length - 1);
+            Resident[] chunk = ownChunk(c, lengths[c] + 1);
+            int i = lowerBound(chunk, lengths[c], day + 1L);
+            System.arraycopy(chunk, i, chunk, i + 1, lengths[c] - i);
+            chunk[i] = r;
+            lengths[c]++;
+            lastDays[c] = chunk[lengths[c] - 1].getBirthEpochDay();
+            if (lengths[c] > CHUNK) {
+                split(c);
+            }
+        }
+
+        /** Retire l’instance ; {@code false} si absente. */
+        boolean remove(Resident r) {
+            int c = locate(r);
+            if (c < 0) {
+                return false;
+            }
+            Resident[] chunk = ownChunk(c, lengths[c]);
+            System.arraycopy(chunk, offset + 1, chunk, offset, lengths[c] - offset - 1);
+            chunk[--lengths[c]] = null;
+            if (lengths[c] == 0) {
+                removeChunk(c);
+            } else {
+                lastDays[c] = chunk[lengths[c] - 1].getBirthEpochDay();
+            }
+            return true;
+        }
+
+        /**
+         * Remplace l’instance {@code previous} : à la même position si la
+         * date est inchangée, sinon à la place correspondant à la nouvelle.
+         */
+        void replace(Resident previous, Resident r) {
+            if (r.hasBirthDate() && previous.hasBirthDate()
+                    && previous.getBirthEpochDay() == r.getBirthEpochDay()) {
+                int c = locate(previous);
+                if (c >= 0) {
+                    ownChunk(c, lengths[c])[offset] = r;
+                    return;
+                }
+            }
+            remove(previous);
+            add(r);
+        }
+
+        BirthdateIndex build() {
+            BirthdateIndex index = new BirthdateIndex(chunks, lengths, lastDays);
+            owned = null;
+            return index;
+        }
+
+        /**
+         * Bloc contenant l’instance (sa position dans le bloc est rangée dans
+         * {@link #offset}), ou -1 si absente. Seuls les habitants nés le même
+         * jour sont comparés.
+         */
+        private int locate(Resident r) {
+            if (!r.hasBirthDate()) {
+                return -1;
+            }
+            int day = r.getBirthEpochDay();
+            for (int c = chunkFrom(lastDays, chunks.length, day); c < chunks.length; c++) {
+                Resident[] chunk = chunks[c];
+                int i = lowerBound(chunk, lengths[c], day);
+                for (; i < lengths[c] && chunk[i].getBirthEpochDay() == day; i++) {
+                    if (chunk[i] == r) {
+                        offset = i;
+                        return c;
+                    }
+                }
+                if (i < lengths[c]) {
+                    break;
+                }
+            }
+            return -1;
+        }
+
+        private void split(int c) {
+            int half = lengths[c] / 2;
+            Resident[] chunk = chunks[c];
+            Resident[] right = Arrays.copyOfRange(chunk, half, lengths[c]);
+            Arrays.fill(chunk, half, lengths[c], null);
+            lengths[c] = half;
+            lastDays[c] = chunk[half - 1].getBirthEpochDay();
+            insertChunk(c + 1, right, right.length);
+        }
+
+        private void insertChunk(int c, Resident[] chunk, int length) {
+            int count = chunks.length;
+            Resident[][] nextChunks = new Resident[count + 1][];
+            int[] nextLengths = new int[count + 1];
+            int[] nextLastDays = new int[count + 1];
+            boolean[] nextOwned = new boolean[count + 1];
+            System.arraycopy(chunks, 0, nextChunks, 0, c);
+            System.arraycopy(chunks, c, nextChunks, c + 1, count - c);
+            System.arraycopy(lengths, 0, nextLengths, 0, c);
+            System.arraycopy(lengths, c, nextLengths, c + 1, count - c);
+            System.arraycopy(lastDays, 0, nextLastDays, 0, c);
+            System.arraycopy(lastDays, c, nextLastDays, c + 1, count - c);
+            System.arraycopy(owned, 0, nextOwned, 0, c);
+            System.arraycopy(owned, c, nextOwned, c + 1, count - c);
+            nextChunks[c] = chunk;
+            nextLengths[c] = length;
+            nextLastDays[c] = length == 0 ? 0 : chunk[length - 1].getBirthEpochDay();
+            nextOwned[c] = true;
+            chunks = nextChunks;
+            lengths = nextLengths;
+            lastDays = nextLastDays;
+            owned = nextOwned;
+        }
+
+        private void removeChunk(int c) {
+            int count = chunks.length - 1;
+            Resident[][] nextChunks = new Resident[count][];
+            int[] nextLengths = new int[count];
+            int[] nextLastDays = new int[count];
+            boolean[] nextOwned = new boolean[count];
+            System.arraycopy(chunks, 0, nextChunks, 0, c);
+            System.arraycopy(chunks, c + 1, nextChunks, c, count - c);
+            System.arraycopy(lengths, 0, nextLengths, 0, c);
+            System.arraycopy(lengths, c + 1, nextLengths, c, count - c);
+            System.arraycopy(lastDays, 0, nextLastDays, 0, c);
+            System.arraycopy(lastDays, c + 1, nextLastDays, c, count - c);
+            System.arraycopy(owned, 0, nextOwned, 0, c);
+            System.arraycopy(owned, c + 1, nextOwned, c, count - c);
+            chunks = nextChunks;
+            lengths = nextLengths;
+            lastDays = nextLastDays;
+            owned = nextOwned;
+        }
+
+        /** Bloc possédé par ce constructeur, d’au moins {@code capacity} places. */
+        private Resident[] ownChunk(int c, int capacity) {
+            own();
+            if (!owned[c] || chunks[c].length < capacity) {
+                int grown = Math.max(capacity, Math.min(CHUNK + 1, Math.max(16, lengths[c] * 2)));
+                chunks[c] = Arrays.copyOf(chunks[c], Math.max(grown, chunks[c].length));
+                owned[c] = true;
+            }
+            return chunks[c];
+        }
+
+        private void own() {
+            if (owned == null) {
+                chunks = chunks.clone();
+                lengths = lengths.clone();
+                lastDays = lastDays.clone();
+                owned = new boolean[chunks.length];
+            }
+        }
+    }
+}
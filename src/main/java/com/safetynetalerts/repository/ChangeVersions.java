@@ -0,0 +1,63 @@
+package com.safetynetalerts.repository;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dernière version ayant modifié chaque adresse, caserne, ville et nom de
+ * famille.
+ *
+ * Tenue à jour à partir des {@link DataChange} publiés ; une valeur ne
+ * fait que croître. Deux lectures d’une même clé qui renvoient la même
+ * version portent sur les mêmes données : de quoi fonder un ETag sans
+ * recalculer la réponse. Un changement global (rechargement, recompte des
+ * âges) vaut pour toutes les clés.
+ */
+public final class ChangeVersions {
+
+    private volatile long global;
+    private final Map<String, Long> addresses = new ConcurrentHashMap<>();
+    private final Map<String, Long> stations = new ConcurrentHashMap<>();
+    private final Map<String, Long> cities = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastNames = new ConcurrentHashMap<>();
+
+    /** Enregistre une écriture publiée (écrivain uniquement). */
+    void record(DataChange change) {
+        if (change.isGlobal()) {
+            global = change.getVersion();
+            return;
+        }
+        long version = change.getVersion();
+        change.getAddresses().forEach(a -> addresses.put(a, version));
+        change.getStations().forEach(s -> stations.put(s, version));
+        change.getCities().forEach(c -> cities.put(c, version));
+        change.getLastNames().forEach(n -> lastNames.put(n, version));
+    }
+
+    public long ofAddress(String address) {
+        return versionOf(addresses, key(address));
+    }
+
+    public long ofStation(String station) {
+        return versionOf(stations, station);
+    }
+
+    public long ofCity(String city) {
+        return versionOf(cities, key(city));
+    }
+
+    public long ofLastName(String lastName) {
+        return versionOf(lastNames, key(lastName));
+    }
+
+    private long versionOf(Map<String, Long> versions, String key) {
+        long base = global;
+        Long version = key == null ? null : versions.get(key);
+        return version == null ? base : Math.max(base, version);
+    }
+
+    private static String key(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+}
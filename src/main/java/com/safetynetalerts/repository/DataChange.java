@@ -0,0 +1,64 @@
+package com.safetynetalerts.repository;
+
+import java.util.Set;
+
+/**
+ * Portée d’une écriture publiée : adresses, casernes, villes et noms de
+ * famille dont les habitants, mappings ou dossiers ont changé.
+ *
+ * Diffusée aux écouteurs du {@link DataRepository} après la publication de
+ * la version, pour invalider précisément ce qui en dépend. Les adresses,
+ * villes et noms sont en minuscules (comme les clés des index) ; les
+ * numéros de caserne sont tels quels. Un changement global (chargement
+ * complet, recompte des âges) concerne toutes les données.
+ */
+public final class DataChange {
+
+    private final long version;
+    private final boolean global;
+    private final Set<String> addresses;
+    private final Set<String> stations;
+    private final Set<String> cities;
+    private final Set<String> lastNames;
+
+    DataChange(long version, boolean global, Set<String> addresses, Set<String> stations,
+            Set<String> cities, Set<String> lastNames) {
+        this.version = version;
+        this.global = global;
+        this.addresses = Set.copyOf(addresses);
+        this.stations = Set.copyOf(stations);
+        this.cities = Set.copyOf(cities);
+        this.lastNames = Set.copyOf(lastNames);
+    }
+
+    /** Version publiée par l’écriture. */
+    public long getVersion() {
+        return version;
+    }
+
+    /** {@code true} si toutes les données sont susceptibles d’avoir changé. */
+    public boolean isGlobal() {
+        return global;
+    }
+
+    public Set<String> getAddresses() {
+        return addresses;
+    }
+
+    public Set<String> getStations() {
+        return stations;
+    }
+
+    public Set<String> getCities() {
+        return cities;
+    }
+
+    public Set<String> getLastNames() {
+        return lastNames;
+    }
+
+    /** {@code true} si l’écriture n’a rien touché. */
+    public boolean isEmpty() {
+        return !global && addresses.isEmpty() && stations.isEmpty() && cities.isEmpty() && lastNames.isEmpty();
+    }
+}
@@ -0,0 +1,104 @@
+package com.safetynetalerts.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Journal d’écriture « append-only » : chaque {@link Mutation} y est ajoutée
+ * sur une ligne JSON compacte, si bien qu’une écriture coûte la taille du
+ * changement et non celle du jeu de données.
+ *
+ * Le journal est rejoué au démarrage par-dessus le snapshot JSON, puis
+ * vidé lors de chaque compaction.
+ */
+class DataJournal {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DataJournal.class);
+
+    private final Path path;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /** Nombre d’enregistrements actuellement dans le fichier. */
+    private long entries;
+
+    DataJournal(Path path) {
+        this.path = path;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    long getEntries() {
+        return entries;
+    }
+
+    /**
+     * Relit toutes les mutations du journal. Une dernière ligne tronquée
+     * (arrêt brutal pendant une écriture) est ignorée.
+     */
+    List<Mutation> readAll() throws IOException {
+        List<Mutation> mutations = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return mutations;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    mutations.add(mapper.readValue(line, Mutation.class));
+                } catch (IOException e) {
+                    LOG.warn("Entrée de journal illisible ignorée : {}", line);
+                }
+            }
+        }
+        entries = mutations.size();
+        return mutations;
+    }
+
+    /**
+     * Ajoute les mutations en fin de fichier en une seule écriture,
+     * puis force leur passage sur disque.
+     */
+    void append(List<Mutation> mutations) throws IOException {
+        if (mutations.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        for (Mutation m : mutations) {
+            mapper.writeValue(buffer, m);
+            buffer.write('\n');
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+        entries += mutations.size();
+    }
+
+    /** Vide le journal (après compaction dans le snapshot). */
+    void truncate() throws IOException {
+        Files.deleteIfExists(path);
+        entries = 0;
+    }
+}
@@ -1,12 +1,10 @@
 package com.safetynetalerts.repository;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.safetynetalerts.model.Firestation;
 import com.safetynetalerts.model.MedicalRecord;
 import com.safetynetalerts.model.Person;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,18 +13,60 @@ import org.springframework.stereotype.Repository;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
-import com.fasterxml.jackson.databind.ObjectWriter;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 
 /**
  * Repository en mémoire : lit le fichier JSON au démarrage et expose
  * trois listes (persons, firestations, medicalRecords).
+ *
+ * Les données et leurs index secondaires (adresse, caserne, nom, ville,
+ * prénom + nom) forment un {@link DataSnapshot} immuable et versionné.
+ * Les lectures se font sans verrou sur la version courante, obtenue par
+ * une simple lecture volatile ({@link #snapshot()}) ; chaque écriture,
+ * sérialisée par le moniteur du repository, construit la version suivante
+ * en partageant tout ce qu’elle ne modifie pas, puis la publie.
+ * Les services soumettent leurs écritures via {@link #execute(Supplier)} :
+ * un {@link WriteExecutor} les applique dans l’ordre sur un thread unique
+ * et sauvegarde une fois par lot de commandes.
+ * Les index « personne » portent sur des {@link Resident} : la jointure
+ * avec le dossier médical et la caserne y est maintenue incrémentalement,
+ * tout comme les agrégats par caserne ({@link StationCoverage}).
+ * Les valeurs répétées (ville, code postal, adresse, caserne, médicaments,
+ * allergies) sont partagées via un {@link StringPool}, au chargement comme
+ * à chaque ajout ou modification.
+ *
+ * En mode {@link PersistenceMode#JOURNAL}, chaque mutation est ajoutée à un
+ * {@link DataJournal} au lieu de réécrire tout le fichier ; le journal est
+ * replié dans le snapshot JSON tous les {@code data.journal.compact-threshold}
+ * enregistrements et à l’arrêt de l’application.
+ *
+ * Avec {@code data.persistence.async=true}, les sauvegardes sont confiées à
+ * un {@link PersistenceWriter} qui regroupe les demandes en une seule
+ * écriture ; l’appelant choisit d’attendre ou non la durabilité.
+ *
+ * {@code data.snapshot.format} permet d’écrire, en plus ou à la place du
+ * JSON, un {@link BinarySnapshot} relu au démarrage par projection mémoire.
  */
 @Repository
 public class DataRepository {
@@ -34,12 +74,89 @@ public class DataRepository {
     private static final Logger LOG = LoggerFactory.getLogger(DataRepository.class);
 
     /* ------------------------------------------------------------------ */
-    /* Collections en mémoire */
+    /* Données publiées */
     /* ------------------------------------------------------------------ */
 
-    private List<Person> persons = new ArrayList<>();
-    private List<Firestation> firestations = new ArrayList<>();
-    private List<MedicalRecord> medicalRecords = new ArrayList<>();
+    /** Version courante, remplacée (jamais modifiée) à chaque écriture. */
+    private volatile DataSnapshot snapshot = DataSnapshot.empty(0, childBirthDayThreshold(LocalDate.now()));
+
+    /** Dernière version ayant modifié chaque clé (adresse, caserne…). */
+    private final ChangeVersions changeVersions = new ChangeVersions();
+
+    /** Abonnés aux écritures publiées ({@link #addChangeListener}). */
+    private final List<Consumer<DataChange>> changeListeners = new CopyOnWriteArrayList<>();
+
+    /* ------------------------------------------------------------------ */
+    /* État de l’écrivain (accès sous le moniteur du repository) */
+    /* ------------------------------------------------------------------ */
+
+    private final StringPool stringPool = new StringPool();
+
+    /* ------------------------------------------------------------------ */
+    /* Persistance */
+    /* ------------------------------------------------------------------ */
+
+    @Value("${data.persistence.mode:SNAPSHOT}")
+    private PersistenceMode persistenceMode = PersistenceMode.SNAPSHOT;
+
+    /** Fichier journal ; par défaut « &lt;data.file&gt;.journal ». */
+    @Value("${data.journal.file:}")
+    private String journalFile = "";
+
+    /** Nombre d’entrées de journal au-delà duquel on compacte. */
+    @Value("${data.journal.compact-threshold:1000}")
+    private int compactThreshold = 1000;
+
+    /** Écriture groupée en arrière-plan plutôt que sur le thread appelant. */
+    @Value("${data.persistence.async:false}")
+    private boolean asyncPersistence;
+
+    /** Délai maximal entre deux écritures groupées. */
+    @Value("${data.persistence.flush-interval-ms:200}")
+    private long flushIntervalMillis = 200;
+
+    /** Nombre de sauvegardes en attente déclenchant une écriture immédiate. */
+    @Value("${data.persistence.flush-batch-size:100}")
+    private int flushBatchSize = 100;
+
+    /** Comportement par défaut de {@link #saveData()} en mode asynchrone. */
+    @Value("${data.persistence.await-durability:false}")
+    private boolean awaitDurability;
+
+    /** Indentation du fichier JSON (à désactiver pour les gros volumes). */
+    @Value("${data.persistence.pretty-print:true}")
+    private boolean prettyPrint = true;
+
+    @Value("${data.snapshot.format:JSON}")
+    private SnapshotFormat snapshotFormat = SnapshotFormat.JSON;
+
+    /** Snapshot binaire ; par défaut « &lt;data.file&gt;.bin ». */
+    @Value("${data.snapshot.binary-file:}")
+    private String binaryFile = "";
+
+    /** Commandes d’écriture en attente au-delà desquelles les appelants attendent. */
+    @Value("${data.write.queue-capacity:1024}")
+    private int writeQueueCapacity = 1024;
+
+    /** Nombre maximal de commandes appliquées avant une sauvegarde. */
+    @Value("${data.write.max-batch:256}")
+    private int writeMaxBatch = 256;
+
+    private DataJournal journal;
+    private PersistenceWriter writer;
+    private WriteExecutor writeExecutor;
+    private final Object writeExecutorLock = new Object();
+    /**
+     * Sérialise les écritures de fichiers (noms temporaires fixes, journal)
+     * sans bloquer les écritures en mémoire, qui prennent le moniteur.
+     */
+    private final Object fileLock = new Object();
+    /** Version déjà confiée à la persistance (thread écrivain). */
+    private long savedVersion;
+    private final PersistenceMetrics persistenceMetrics = new PersistenceMetrics();
+
+    /** Mutations effectuées depuis la dernière sauvegarde (mode journal). */
+    private final List<Mutation> pendingMutations = new ArrayList<>();
 
     /* ------------------------------------------------------------------ */
     /* Chargement du fichier JSON */
@@ -51,34 +168,222 @@ public class DataRepository {
 
     /**
      * Chargement automatique au démarrage.
-     * 
+     *
      * Toute la logique de parsing JSON est centralisée ici afin de pouvoir
-     * manipuler les données intégralement en mémoire.
+     * manipuler les données intégralement en mémoire. Le fichier est lu en
+     * streaming ({@link JsonDataReader}) : chaque entité est insérée et
+     * indexée dès sa lecture, sans arbre JSON intermédiaire.
+     * Lorsqu’un snapshot binaire à jour est disponible, il est lu à la
+     * place du JSON.
      */
     @PostConstruct
     private void loadData() {
-        ObjectMapper mapper = new ObjectMapper();
+        try {
+            synchronized (this) {
+                if (!loadBinarySnapshot()) {
+                    loadJson();
+                    if (snapshotFormat != SnapshotFormat.JSON && dataFile.isFile()) {
+                        // Absent ou périmé : régénéré pour le prochain démarrage
+                        try {
+                            writeBinary(snapshot);
+                        } catch (IOException e) {
+                            LOG.error("Impossible d’écrire le snapshot binaire", e);
+                        }
+                    }
+                }
+            }
+
+            if (persistenceMode == PersistenceMode.JOURNAL) {
+                replayJournal();
+            }
+            savedVersion = snapshot.getVersion();
+            if (asyncPersistence) {
+                writer = new PersistenceWriter(this::flush, flushIntervalMillis, flushBatchSize,
+                        persistenceMetrics);
+            }
+
+        } catch (IOException e) {
+            LOG.error("Erreur lors du chargement des données JSON", e);
+        }
+    }
+
+    private void loadJson() throws IOException {
+        DataSnapshot.Builder builder = reset();
         try (InputStream is = dataFile.getInputStream()) {
+            new JsonDataReader().read(is, builder::addPerson, builder::addFirestation,
+                    builder::addMedicalRecord);
+        }
+        DataSnapshot loaded = publish(builder);
+        LOG.info("JSON chargé : {} persons, {} firestations, {} medicalRecords",
+                loaded.getPersons().size(), loaded.getFirestations().size(), loaded.getMedicalRecords().size());
+    }
+
+    /**
+     * @return {@code false} si aucun snapshot binaire exploitable n’existe :
+     *         le JSON doit alors être lu
+     */
+    private boolean loadBinarySnapshot() {
+        if (snapshotFormat == SnapshotFormat.JSON) {
+            return false;
+        }
+        Path binary;
+        try {
+            binary = binaryPath();
+            if (!Files.exists(binary)) {
+                return false;
+            }
+            if (snapshotFormat == SnapshotFormat.JSON_AND_BINARY && dataFile.exists()
+                    && dataFile.lastModified() > Files.getLastModifiedTime(binary).toMillis()) {
+                LOG.info("JSON plus récent que le snapshot binaire {} : lecture du JSON", binary);
+                return false;
+            }
+        } catch (IOException e) {
+            // Ressource classpath : pas de fichier voisin possible
+            return false;
+        }
+        DataSnapshot.Builder builder = reset();
+        try {
+            new BinarySnapshot().read(binary, builder::addPerson, builder::addFirestation,
+                    builder::addMedicalRecord);
+        } catch (IOException e) {
+            LOG.warn("Snapshot binaire illisible, lecture du JSON", e);
+            return false;
+        }
+        DataSnapshot loaded = publish(builder);
+        LOG.info("Snapshot binaire chargé : {} persons, {} firestations, {} medicalRecords",
+                loaded.getPersons().size(), loaded.getFirestations().size(), loaded.getMedicalRecords().size());
+        return true;
+    }
 
-            JsonNode root = mapper.readTree(is);
+    private Path binaryPath() throws IOException {
+        if (!binaryFile.isBlank()) {
+            return Path.of(binaryFile);
+        }
+        Path data = Path.of(dataFile.getFile().toURI());
+        return data.resolveSibling(data.getFileName() + ".bin");
+    }
+
+    /**
+     * Remplace l’intégralité des données en mémoire et reconstruit les index.
+     *
+     * @param newPersons        personnes
+     * @param newFirestations   mappings adresse / caserne
+     * @param newMedicalRecords dossiers médicaux
+     */
+    public synchronized void load(List<Person> newPersons,
+            List<Firestation> newFirestations,
+            List<MedicalRecord> newMedicalRecords) {
+        DataSnapshot.Builder builder = reset();
+        // Mappings et dossiers d’abord : les habitants sont joints à l’indexation
+        newFirestations.forEach(builder::addFirestation);
+        newMedicalRecords.forEach(builder::addMedicalRecord);
+        newPersons.forEach(builder::addPerson);
+        publish(builder);
+    }
+
+    /**
+     * Repart de zéro (dictionnaire) ; la version continue de
+     * croître pour que les lecteurs ne la voient jamais reculer.
+     */
+    private DataSnapshot.Builder reset() {
+        stringPool.clear();
+        DataSnapshot current = snapshot;
+        DataSnapshot.Builder builder = DataSnapshot.empty(current.getVersion(), current.getChildBirthDayThreshold())
+                .toBuilder(stringPool);
+        builder.touchAll();
+        return builder;
+    }
 
-            persons = mapper.readValue(root.get("persons").traverse(),
-                    new TypeReference<>() {
-                    });
+    /**
+     * Publie la version construite, puis la diffuse aux écouteurs (sur le
+     * thread qui écrit, sous le moniteur du repository).
+     */
+    private DataSnapshot publish(DataSnapshot.Builder builder) {
+        DataSnapshot next = builder.build();
+        snapshot = next;
+        DataChange change = builder.changes();
+        if (!change.isEmpty()) {
+            changeVersions.record(change);
+            for (Consumer<DataChange> listener : changeListeners) {
+                try {
+                    listener.accept(change);
+                } catch (RuntimeException e) {
+                    LOG.error("Échec d’un écouteur de modifications (version {})", next.getVersion(), e);
+                }
+            }
+        }
+        return next;
+    }
 
-            firestations = mapper.readValue(root.get("firestations").traverse(),
-                    new TypeReference<>() {
-                    });
+    /**
+     * Abonne un écouteur aux écritures : il reçoit la portée de chacune
+     * juste après sa publication. Il doit rester bref et ne pas écrire
+     * dans le repository.
+     */
+    public void addChangeListener(Consumer<DataChange> listener) {
+        changeListeners.add(listener);
+    }
 
-            medicalRecords = mapper.readValue(root.get("medicalrecords").traverse(),
-                    new TypeReference<>() {
-                    });
+    /**
+     * Versions de modification par adresse, caserne, ville et nom : base
+     * des ETags des endpoints interrogés périodiquement.
+     */
+    public ChangeVersions getChangeVersions() {
+        return changeVersions;
+    }
 
-            LOG.info("JSON chargé : {} persons, {} firestations, {} medicalRecords",
-                    persons.size(), firestations.size(), medicalRecords.size());
+    /**
+     * Applique une modification sur une nouvelle version et la publie.
+     * Appelé sous le moniteur du repository.
+     */
+    private <T> T write(Function<DataSnapshot.Builder, T> change) {
+        DataSnapshot.Builder builder = snapshot.toBuilder(stringPool);
+        T result = change.apply(builder);
+        publish(builder);
+        return result;
+    }
 
-        } catch (IOException e) {
-            LOG.error("Erreur lors du chargement des données JSON", e);
+    /* ------------------------------------------------------------------ */
+    /* Écrivain unique */
+    /* ------------------------------------------------------------------ */
+
+    /**
+     * Applique la commande sur le thread écrivain, après celles déjà en
+     * file, et attend son résultat. La commande enchaîne librement
+     * vérifications et mises à jour : aucune autre écriture ne s’intercale.
+     * Les données sont sauvegardées avant le retour, une seule fois pour
+     * toutes les commandes du même lot.
+     *
+     * @return le résultat de la commande
+     */
+    public <T> T execute(Supplier<T> command) {
+        return writeExecutor().execute(command);
+    }
+
+    private WriteExecutor writeExecutor() {
+        synchronized (writeExecutorLock) {
+            if (writeExecutor == null) {
+                writeExecutor = new WriteExecutor(writeQueueCapacity, writeMaxBatch, this::saveBatch);
+            }
+            return writeExecutor;
+        }
+    }
+
+    /**
+     * Fin de lot : sauvegarde si au moins une commande a modifié les données.
+     * En cas d’échec, la version reste à sauvegarder pour le lot suivant.
+     */
+    private void saveBatch() {
+        long version = snapshot.getVersion();
+        if (version != savedVersion) {
+            long previous = savedVersion;
+            savedVersion = version;
+            try {
+                saveData();
+            } catch (RuntimeException e) {
+                savedVersion = previous;
+                throw e;
+            }
         }
     }
 
@@ -86,40 +391,736 @@ public class DataRepository {
     /* Écrit l’état actuel des listes dans le fichier JSON */
     /* ------------------------------------------------------------------ */
 
-    public synchronized void saveData() {
-        // On reconstruit un ObjectNode pour garder le même ordre de clés
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode root = mapper.createObjectNode();
-        root.set("persons", mapper.valueToTree(persons));
-        root.set("firestations", mapper.valueToTree(firestations));
-        root.set("medicalrecords", mapper.valueToTree(medicalRecords));
+    public void saveData() {
+        saveData(awaitDurability);
+    }
+
+    /**
+     * Persiste l’état courant. En mode asynchrone, la sauvegarde est
+     * regroupée avec les autres demandes de la même fenêtre d’écriture.
+     *
+     * @param waitForDurability {@code true} pour ne rendre la main qu’une
+     *                          fois l’écriture effectuée (sans effet en
+     *                          mode synchrone, qui attend toujours)
+     * @throws UncheckedIOException si l’écriture attendue a échoué
+     */
+    public void saveData(boolean waitForDurability) {
+        if (writer == null) {
+            long start = System.nanoTime();
+            flush();
+            persistenceMetrics.record(1, System.nanoTime() - start);
+            return;
+        }
+        CompletableFuture<Void> flushed = writer.markDirty();
+        if (waitForDurability) {
+            try {
+                flushed.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException("Échec de la sauvegarde groupée", e.getCause());
+            }
+        }
+    }
+
+    public PersistenceMetrics getPersistenceMetrics() {
+        return persistenceMetrics;
+    }
+
+    public PersistenceMode getPersistenceMode() {
+        return persistenceMode;
+    }
+
+    public boolean isAsyncPersistence() {
+        return asyncPersistence;
+    }
+
+    /**
+     * Mesure, sur les données courantes, les copies de chaînes évitées par
+     * le {@link StringPool} : chaque référence supplémentaire vers une même
+     * instance est une chaîne que Jackson aurait allouée en double.
+     * Parcourt la version publiée, sans verrou : les écritures continuent
+     * pendant la mesure.
+     */
+    public MemoryFootprint getMemoryFootprint() {
+        DataSnapshot current = snapshot();
+        Map<String, Integer> references = new IdentityHashMap<>();
+        for (Person p : current.getPersons()) {
+            countReference(references, p.getAddress());
+            countReference(references, p.getCity());
+            countReference(references, p.getZip());
+        }
+        for (Firestation f : current.getFirestations()) {
+            countReference(references, f.getAddress());
+            countReference(references, f.getStation());
+        }
+        for (MedicalRecord m : current.getMedicalRecords()) {
+            if (m.getMedications() != null) {
+                m.getMedications().forEach(v -> countReference(references, v));
+            }
+            if (m.getAllergies() != null) {
+                m.getAllergies().forEach(v -> countReference(references, v));
+            }
+        }
+        long shared = 0;
+        long saved = 0;
+        for (Map.Entry<String, Integer> e : references.entrySet()) {
+            shared += e.getValue();
+            saved += (e.getValue() - 1) * StringPool.sizeOf(e.getKey());
+        }
+        return new MemoryFootprint(stringPool.size(), shared, saved);
+    }
+
+    private static void countReference(Map<String, Integer> references, String value) {
+        if (value != null) {
+            references.merge(value, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Écrit l’état courant. Le snapshot (ou les mutations en attente) est
+     * pris sous le moniteur, l’écriture du fichier se fait hors du moniteur.
+     *
+     * @throws UncheckedIOException si l’écriture a échoué ; l’état reste
+     *                              alors à sauvegarder
+     */
+    private void flush() {
+        if (dataFile == null) {
+            // Repository purement en mémoire (tests) : rien à persister
+            synchronized (this) {
+                pendingMutations.clear();
+            }
+            return;
+        }
+        synchronized (fileLock) {
+            if (persistenceMode == PersistenceMode.JOURNAL) {
+                appendToJournal();
+            } else {
+                try {
+                    writeSnapshot();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Impossible d’écrire le snapshot", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Applique les commandes en file, vide l’écrivain asynchrone puis
+     * compacte le journal à l’arrêt.
+     */
+    @PreDestroy
+    public void close() {
+        synchronized (writeExecutorLock) {
+            if (writeExecutor != null) {
+                writeExecutor.shutdown();
+                writeExecutor = null;
+            }
+        }
+        if (writer != null) {
+            writer.shutdown();
+            writer = null;
+        }
+        compact();
+    }
+
+    /**
+     * Replie le journal dans le snapshot, pour un redémarrage sans rejeu.
+     */
+    public void compact() {
+        synchronized (fileLock) {
+            if (journal == null) {
+                return;
+            }
+            try {
+                appendToJournal();
+            } catch (UncheckedIOException e) {
+                LOG.error("Compactage abandonné", e);
+                return;
+            }
+            if (journal.getEntries() > 0) {
+                compactJournal();
+            }
+        }
+    }
+
+    /**
+     * Réécrit le(s) snapshot(s) selon {@code data.snapshot.format}, à partir
+     * de la version courante (immuable, lue sans verrou).
+     *
+     * @throws IOException si un des fichiers n’a pas pu être remplacé
+     */
+    private void writeSnapshot() throws IOException {
+        DataSnapshot current = snapshot;
+        if (snapshotFormat != SnapshotFormat.BINARY) {
+            writeJson(current);
+        }
+        if (snapshotFormat != SnapshotFormat.JSON) {
+            // Écrit après le JSON : sa date reste la plus récente
+            writeBinary(current);
+        }
+    }
+
+    /**
+     * Réécrit le fichier JSON complet, en streaming, via un fichier
+     * temporaire renommé atomiquement.
+     */
+    private void writeJson(DataSnapshot data) throws IOException {
+        // ⚠️ dataFile est un Resource ; on obtient son Path pour écrire dessus
+        Path path = Path.of(dataFile.getFile().toURI());
+        new JsonDataWriter().write(path, data.getPersons(), data.getFirestations(), data.getMedicalRecords(),
+                prettyPrint);
+        LOG.debug("JSON persisté : {}", path.toAbsolutePath());
+    }
+
+    private void writeBinary(DataSnapshot data) throws IOException {
+        Path path = binaryPath();
+        new BinarySnapshot().write(path, data.getPersons(), data.getFirestations(), data.getMedicalRecords());
+        LOG.debug("Snapshot binaire persisté : {}", path.toAbsolutePath());
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Journal */
+    /* ------------------------------------------------------------------ */
+
+    private void replayJournal() throws IOException {
+        journal = new DataJournal(journalPath());
+        List<Mutation> mutations = journal.readAll();
+        mutations.forEach(this::replay);
+        pendingMutations.clear();
+        if (!mutations.isEmpty()) {
+            LOG.info("Journal rejoué : {} mutation(s) depuis {}", mutations.size(), journal.getPath());
+        }
+    }
+
+    private Path journalPath() throws IOException {
+        if (!journalFile.isBlank()) {
+            return Path.of(journalFile);
+        }
+        Path data = Path.of(dataFile.getFile().toURI());
+        return data.resolveSibling(data.getFileName() + ".journal");
+    }
+
+    /**
+     * Ajoute au journal les mutations en attente. En cas d’échec, elles sont
+     * remises en tête de file pour la prochaine sauvegarde.
+     */
+    private void appendToJournal() {
+        List<Mutation> batch;
+        synchronized (this) {
+            if (pendingMutations.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pendingMutations);
+            pendingMutations.clear();
+        }
+        try {
+            if (journal == null) {
+                journal = new DataJournal(journalPath());
+            }
+            journal.append(batch);
+            LOG.debug("{} mutation(s) journalisée(s) : {}", batch.size(), journal.getPath());
+        } catch (IOException e) {
+            synchronized (this) {
+                pendingMutations.addAll(0, batch);
+            }
+            throw new UncheckedIOException("Impossible d’écrire dans le journal", e);
+        }
+        if (journal.getEntries() >= compactThreshold) {
+            compactJournal();
+        }
+    }
 
+    /**
+     * Réécrit le snapshot puis vide le journal. Le rejeu étant idempotent,
+     * un arrêt entre les deux étapes ne fait que rejouer des mutations
+     * déjà présentes dans le snapshot.
+     */
+    private void compactJournal() {
         try {
-            // ⚠️ dataFile est un Resource ; on obtient son Path pour écrire dessus
-            Path path = Path.of(dataFile.getFile().toURI());
-            ObjectWriter writer = mapper.writerWithDefaultPrettyPrinter();
-            // overwrite le contenu
-            Files.writeString(path, writer.writeValueAsString(root),
-                    StandardOpenOption.TRUNCATE_EXISTING);
-            LOG.debug("JSON persisté : {}", path.toAbsolutePath());
+            writeSnapshot();
         } catch (IOException e) {
-            LOG.error("Impossible d’écrire le fichier JSON", e);
+            // Le journal reste la seule trace des mutations : on le conserve
+            LOG.error("Impossible d’écrire le snapshot, journal conservé", e);
+            return;
+        }
+        try {
+            long folded = journal.getEntries();
+            journal.truncate();
+            LOG.info("Journal compacté : {} mutation(s) repliée(s) dans le snapshot", folded);
+        } catch (IOException e) {
+            LOG.error("Impossible de vider le journal", e);
+        }
+    }
+
+    /**
+     * Applique une mutation journalisée avec les mêmes règles d’unicité que
+     * les services, ce qui rend le rejeu idempotent.
+     */
+    private void replay(Mutation m) {
+        switch (m.getType()) {
+            case ADD_PERSON -> {
+                Person p = m.dataAs(Person.class);
+                if (findPerson(p.getFirstName(), p.getLastName()) == null) {
+                    addPerson(p);
+                }
+            }
+            case UPDATE_PERSON -> updatePerson(m.dataAs(Person.class));
+            case DELETE_PERSON -> deletePerson(m.field("firstName"), m.field("lastName"));
+            case ADD_FIRESTATION -> {
+                Firestation f = m.dataAs(Firestation.class);
+                if (findFirestation(f.getAddress()) == null) {
+                    addFirestation(f);
+                }
+            }
+            case UPDATE_FIRESTATION -> {
+                Firestation f = m.dataAs(Firestation.class);
+                updateFirestation(f.getAddress(), f.getStation());
+            }
+            case DELETE_FIRESTATION -> deleteFirestation(m.field("address"));
+            case REASSIGN_FIRESTATION -> reassignFirestations(m.field("fromStation"),
+                    List.of(m.field("address")), m.field("station"));
+            case ADD_MEDICAL_RECORD -> {
+                MedicalRecord r = m.dataAs(MedicalRecord.class);
+                if (findMedicalRecord(r.getFirstName(), r.getLastName()) == null) {
+                    addMedicalRecord(r);
+                }
+            }
+            case UPDATE_MEDICAL_RECORD -> updateMedicalRecord(m.dataAs(MedicalRecord.class));
+            case DELETE_MEDICAL_RECORD -> deleteMedicalRecord(m.field("firstName"), m.field("lastName"));
+        }
+    }
+
+    private void record(Mutation mutation) {
+        if (persistenceMode == PersistenceMode.JOURNAL) {
+            pendingMutations.add(mutation);
         }
     }
 
     /* ------------------------------------------------------------------ */
-    /* Accesseurs (lecture seule) */
+    /* Accesseurs (lecture seule, sans verrou) */
     /* ------------------------------------------------------------------ */
 
+    /**
+     * Version courante des données. Un appelant qui enchaîne plusieurs
+     * recherches doit les faire sur le même snapshot pour obtenir un état
+     * cohérent.
+     */
+    public DataSnapshot snapshot() {
+        return snapshot;
+    }
+
     public List<Person> getPersons() {
-        return persons;
+        return snapshot.getPersons();
     }
 
     public List<Firestation> getFirestations() {
-        return firestations;
+        return snapshot.getFirestations();
     }
 
     public List<MedicalRecord> getMedicalRecords() {
-        return medicalRecords;
+        return snapshot.getMedicalRecords();
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Recherches indexées (sur la version courante) */
+    /* ------------------------------------------------------------------ */
+
+    public Person findPerson(String firstName, String lastName) {
+        return snapshot.findPerson(firstName, lastName);
+    }
+
+    public List<Person> findPersonsByAddress(String address) {
+        return snapshot.findPersonsByAddress(address);
+    }
+
+    public List<Person> findPersonsByLastName(String lastName) {
+        return snapshot.findPersonsByLastName(lastName);
+    }
+
+    public List<Resident> findResidentsByAddress(String address) {
+        return snapshot.findResidentsByAddress(address);
+    }
+
+    public List<Resident> findResidentsByLastName(String lastName) {
+        return snapshot.findResidentsByLastName(lastName);
+    }
+
+    /**
+     * @return adresses desservies par la caserne (ensemble vide si inconnue)
+     */
+    public Set<String> findAddressesByStation(String station) {
+        return snapshot.findAddressesByStation(station);
+    }
+
+    /**
+     * @return premier mapping enregistré pour l’adresse, ou {@code null}
+     */
+    public Firestation findFirestation(String address) {
+        return snapshot.findFirestation(address);
+    }
+
+    public MedicalRecord findMedicalRecord(String firstName, String lastName) {
+        return snapshot.findMedicalRecord(firstName, lastName);
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Mises à jour (nouvelle version publiée) */
+    /* ------------------------------------------------------------------ */
+
+    public synchronized void addPerson(Person person) {
+        write(b -> b.addPerson(person));
+        record(Mutation.of(Mutation.Type.ADD_PERSON, person));
+    }
+
+    /**
+     * Met à jour adresse, ville, code postal, téléphone et e-mail de la
+     * personne identifiée par le couple prénom / nom.
+     *
+     * @return la personne modifiée, ou {@code null} si introuvable
+     */
+    public synchronized Person updatePerson(Person updated) {
+        Person stored = write(b -> b.updatePerson(updated));
+        if (stored != null) {
+            record(Mutation.of(Mutation.Type.UPDATE_PERSON, stored));
+        }
+        return stored;
+    }
+
+    /**
+     * Supprime toutes les personnes portant ce prénom et ce nom.
+     *
+     * @return {@code true} si au moins une personne a été supprimée
+     */
+    public synchronized boolean deletePerson(String firstName, String lastName) {
+        if (snapshot.findPerson(firstName, lastName) == null) {
+            return false;
+        }
+        write(b -> b.deletePerson(firstName, lastName));
+        record(Mutation.deleteByName(Mutation.Type.DELETE_PERSON, firstName, lastName));
+        return true;
+    }
+
+    public synchronized void addFirestation(Firestation mapping) {
+        write(b -> b.addFirestation(mapping));
+        record(Mutation.of(Mutation.Type.ADD_FIRESTATION, mapping));
+    }
+
+    /**
+     * Modifie le numéro de caserne du premier mapping de l’adresse.
+     *
+     * @return le mapping modifié, ou {@code null} si l’adresse est inconnue
+     */
+    public synchronized Firestation updateFirestation(String address, String station) {
+        if (snapshot.findFirestation(address) == null) {
+            return null;
+        }
+        Firestation stored = write(b -> b.updateFirestation(address, station));
+        record(Mutation.of(Mutation.Type.UPDATE_FIRESTATION, stored));
+        return stored;
+    }
+
+    /**
+     * Supprime tous les mappings de l’adresse.
+     *
+     * @return {@code true} si au moins un mapping a été supprimé
+     */
+    public synchronized boolean deleteFirestation(String address) {
+        if (snapshot.findFirestation(address) == null) {
+            return false;
+        }
+        write(b -> b.deleteFirestation(address));
+        record(Mutation.deleteByAddress(address));
+        return true;
+    }
+
+    /**
+     * Change de caserne un ensemble d’adresses en une seule version :
+     * index caserne → adresses et agrégats de couverture mis à jour
+     * adresse par adresse, sans recalcul global.
+     *
+     * @param fromStation caserne quittée ; si {@code null}, le premier
+     *                    mapping de chaque adresse est modifié (comme
+     *                    {@link #updateFirestation})
+     * @param addresses   adresses à déplacer ; si {@code null}, toutes
+     *                    celles de {@code fromStation}
+     * @return les mappings modifiés (les adresses sans mapping
+     *         correspondant sont ignorées)
+     */
+    public synchronized List<Firestation> reassignFirestations(String fromStation, Collection<String> addresses,
+                                                               String station) {
+        DataSnapshot data = snapshot;
+        Collection<String> candidates = addresses != null ? addresses : data.findAddressesByStation(fromStation);
+        List<String> targets = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        Set<String> served = fromStation == null ? Set.of() : data.findAddressesByStation(fromStation);
+        for (String address : candidates) {
+            Firestation first = data.findFirestation(address);
+            if (first == null || !seen.add(first.getAddress().toLowerCase(Locale.ROOT))) {
+                continue;
+            }
+            if (fromStation == null || served.contains(first.getAddress())) {
+                targets.add(first.getAddress());
+            }
+        }
+        if (targets.isEmpty()) {
+            return List.of();
+        }
+        List<Firestation> moved = write(b -> {
+            List<Firestation> all = new ArrayList<>();
+            for (String address : targets) {
+                if (fromStation == null) {
+                    all.add(b.updateFirestation(address, station));
+                } else {
+                    all.addAll(b.reassignFirestation(address, fromStation, station));
+                }
+            }
+            return all;
+        });
+        for (String address : targets) {
+            record(fromStation == null
+                    ? Mutation.of(Mutation.Type.UPDATE_FIRESTATION, new Firestation(address, station))
+                    : Mutation.reassign(address, fromStation, station));
+        }
+        return moved;
+    }
+
+    public synchronized void addMedicalRecord(MedicalRecord record) {
+        write(b -> b.addMedicalRecord(record));
+        record(Mutation.of(Mutation.Type.ADD_MEDICAL_RECORD, record));
+    }
+
+    /**
+     * Met à jour date de naissance, médicaments et allergies du dossier
+     * identifié par le couple prénom / nom.
+     *
+     * @return le dossier modifié, ou {@code null} si introuvable
+     */
+    public synchronized MedicalRecord updateMedicalRecord(MedicalRecord updated) {
+        if (snapshot.findMedicalRecord(updated.getFirstName(), updated.getLastName()) == null) {
+            return null;
+        }
+        MedicalRecord stored = write(b -> b.updateMedicalRecord(updated));
+        record(Mutation.of(Mutation.Type.UPDATE_MEDICAL_RECORD, stored));
+        return stored;
+    }
+
+    /**
+     * Supprime tous les dossiers portant ce prénom et ce nom.
+     *
+     * @return {@code true} si au moins un dossier a été supprimé
+     */
+    public synchronized boolean deleteMedicalRecord(String firstName, String lastName) {
+        if (snapshot.findMedicalRecord(firstName, lastName) == null) {
+            return false;
+        }
+        write(b -> b.deleteMedicalRecord(firstName, lastName));
+        record(Mutation.deleteByName(Mutation.Type.DELETE_MEDICAL_RECORD, firstName, lastName));
+        return true;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Imports en masse (une version par lot) */
+    /* ------------------------------------------------------------------ */
+
+    /**
+     * Ajoute en une seule version les personnes dont le couple prénom / nom
+     * est encore inconnu, y compris des lignes précédentes du lot.
+     *
+     * @return pour chaque personne, {@code true} si elle a été ajoutée
+     */
+    public synchronized boolean[] addPersonsIfAbsent(List<Person> persons) {
+        return addAllIfAbsent(persons,
+                p -> snapshot.findPerson(p.getFirstName(), p.getLastName()) != null,
+                (b, p) -> {
+                    if (b.containsPerson(p.getFirstName(), p.getLastName())) {
+                        return false;
+                    }
+                    b.addPerson(p);
+                    return true;
+                },
+                Mutation.Type.ADD_PERSON);
+    }
+
+    /**
+     * Ajoute en une seule version les mappings dont l’adresse n’est pas
+     * encore desservie, y compris par une ligne précédente du lot.
+     *
+     * @return pour chaque mapping, {@code true} s’il a été ajouté
+     */
+    public synchronized boolean[] addFirestationsIfAbsent(List<Firestation> mappings) {
+        return addAllIfAbsent(mappings,
+                f -> snapshot.findFirestation(f.getAddress()) != null,
+                (b, f) -> {
+                    if (b.containsFirestation(f.getAddress())) {
+                        return false;
+                    }
+                    b.addFirestation(f);
+                    return true;
+                },
+                Mutation.Type.ADD_FIRESTATION);
+    }
+
+    /**
+     * Ajoute en une seule version les dossiers dont le couple prénom / nom
+     * est encore inconnu, y compris des lignes précédentes du lot.
+     *
+     * @return pour chaque dossier, {@code true} s’il a été ajouté
+     */
+    public synchronized boolean[] addMedicalRecordsIfAbsent(List<MedicalRecord> records) {
+        return addAllIfAbsent(records,
+                r -> snapshot.findMedicalRecord(r.getFirstName(), r.getLastName()) != null,
+                (b, r) -> {
+                    if (b.containsMedicalRecord(r.getFirstName(), r.getLastName())) {
+                        return false;
+                    }
+                    b.addMedicalRecord(r);
+                    return true;
+                },
+                Mutation.Type.ADD_MEDICAL_RECORD);
+    }
+
+    /**
+     * Applique les ajouts d’un lot sur une seule nouvelle version. Un lot
+     * entièrement déjà connu ne publie rien (et ne déclenche donc pas de
+     * sauvegarde).
+     */
+    private <T> boolean[] addAllIfAbsent(List<T> rows, Predicate<T> known,
+                                         BiPredicate<DataSnapshot.Builder, T> addIfAbsent,
+                                         Mutation.Type type) {
+        boolean[] added = new boolean[rows.size()];
+        if (rows.stream().allMatch(known)) {
+            return added;
+        }
+        write(b -> {
+            for (int i = 0; i < rows.size(); i++) {
+                added[i] = addIfAbsent.test(b, rows.get(i));
+            }
+            return null;
+        });
+        for (int i = 0; i < rows.size(); i++) {
+            if (added[i]) {
+                record(Mutation.of(type, rows.get(i)));
+            }
+        }
+        return added;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Lot atomique (une version, tout ou rien) */
+    /* ------------------------------------------------------------------ */
+
+    /**
+     * Applique les mutations sur une seule nouvelle version, ou aucune.
+     *
+     * Chaque mutation est d’abord vérifiée contre l’état laissé par les
+     * précédentes (un ajout exige une clé absente, une mise à jour ou une
+     * suppression une clé présente) ; rien n’est écrit tant que toutes ne
+     * sont pas applicables, si bien qu’aucun état intermédiaire n’est
+     * jamais visible.
+     *
+     * @return indice de la première mutation inapplicable (rien n’est
+     *         appliqué), ou {@code -1} si tout le lot a été appliqué
+     */
+    public synchronized int applyAll(List<Mutation> mutations) {
+        int rejected = firstInapplicable(mutations);
+        if (rejected >= 0 || mutations.isEmpty()) {
+            return rejected;
+        }
+        write(b -> {
+            mutations.forEach(m -> apply(b, m));
+            return null;
+        });
+        mutations.forEach(this::record);
+        return -1;
+    }
+
+    /** Simule la présence des clés au fil du lot, sans rien modifier. */
+    private int firstInapplicable(List<Mutation> mutations) {
+        DataSnapshot data = snapshot;
+        Map<String, Boolean> present = new HashMap<>();
+        for (int i = 0; i < mutations.size(); i++) {
+            Mutation m = mutations.get(i);
+            String key;
+            boolean stored;
+            switch (m.getType()) {
+                case ADD_PERSON, UPDATE_PERSON, DELETE_PERSON -> {
+                    key = batchKey("person", m.field("firstName"), m.field("lastName"));
+                    stored = data.findPerson(m.field("firstName"), m.field("lastName")) != null;
+                }
+                case ADD_MEDICAL_RECORD, UPDATE_MEDICAL_RECORD, DELETE_MEDICAL_RECORD -> {
+                    key = batchKey("medicalRecord", m.field("firstName"), m.field("lastName"));
+                    stored = data.findMedicalRecord(m.field("firstName"), m.field("lastName")) != null;
+                }
+                default -> {
+                    key = batchKey("firestation", m.field("address"), "");
+                    stored = data.findFirestation(m.field("address")) != null;
+                }
+            }
+            boolean exists = present.getOrDefault(key, stored);
+            boolean adds = m.getType().name().startsWith("ADD_");
+            if (adds == exists) {
+                return i;
+            }
+            if (adds) {
+                present.put(key, true);
+            } else if (m.getType().name().startsWith("DELETE_")) {
+                present.put(key, false);
+            }
+        }
+        return -1;
+    }
+
+    private static String batchKey(String kind, String first, String second) {
+        return kind + '|' + String.valueOf(first).toLowerCase(Locale.ROOT)
+                + '|' + String.valueOf(second).toLowerCase(Locale.ROOT);
+    }
+
+    /** Applique une mutation déjà vérifiée. */
+    private static void apply(DataSnapshot.Builder b, Mutation m) {
+        switch (m.getType()) {
+            case ADD_PERSON -> b.addPerson(m.dataAs(Person.class));
+            case UPDATE_PERSON -> b.updatePerson(m.dataAs(Person.class));
+            case DELETE_PERSON -> b.deletePerson(m.field("firstName"), m.field("lastName"));
+            case ADD_FIRESTATION -> b.addFirestation(m.dataAs(Firestation.class));
+            case UPDATE_FIRESTATION -> {
+                Firestation f = m.dataAs(Firestation.class);
+                b.updateFirestation(f.getAddress(), f.getStation());
+            }
+            case DELETE_FIRESTATION -> b.deleteFirestation(m.field("address"));
+            // Adresse vérifiée ; un mapping déjà hors de la caserne source reste inchangé, comme au rejeu
+            case REASSIGN_FIRESTATION -> b.reassignFirestation(m.field("address"), m.field("fromStation"),
+                    m.field("station"));
+            case ADD_MEDICAL_RECORD -> b.addMedicalRecord(m.dataAs(MedicalRecord.class));
+            case UPDATE_MEDICAL_RECORD -> b.updateMedicalRecord(m.dataAs(MedicalRecord.class));
+            case DELETE_MEDICAL_RECORD -> b.deleteMedicalRecord(m.field("firstName"), m.field("lastName"));
+        }
+    }
+
+    /**
+     * Seuil « enfant » d’une date : premier jour de naissance d’un habitant
+     * d’au plus {@link StationCoverage#CHILD_MAX_AGE} ans. Le premier
+     * snapshot le porte déjà : les agrégats chargés sont justes sans
+     * attendre la bascule de minuit.
+     */
+    static int childBirthDayThreshold(LocalDate today) {
+        return Math.toIntExact(today.minusYears(StationCoverage.CHILD_MAX_AGE + 1).toEpochDay()) + 1;
+    }
+
+    /**
+     * Fixe le jour de naissance à partir duquel les agrégats des casernes
+     * comptent un habitant comme enfant, et recompte si le seuil change
+     * (bascule de minuit).
+     */
+    public synchronized void updateChildBirthDayThreshold(int threshold) {
+        if (snapshot.getChildBirthDayThreshold() != threshold) {
+            write(b -> {
+                b.setChildBirthDayThreshold(threshold);
+                return null;
+            });
+        }
     }
 }
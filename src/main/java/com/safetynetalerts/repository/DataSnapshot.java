@@ -0,0 +1,867 @@
+package com.safetynetalerts.repository;
+
+import com.safetynetalerts.model.Firestation;
+import com.safetynetalerts.model.MedicalRecord;
+import com.safetynetalerts.model.Person;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Version immuable de l’ensemble des données et de leurs index.
+ *
+ * Le {@link DataRepository} publie chaque version par une unique écriture
+ * volatile ; un lecteur qui a obtenu un snapshot l’interroge sans verrou
+ * et voit un état cohérent (personnes, casernes et dossiers de la même
+ * version), même si des écritures ont lieu entre-temps. Les structures
+ * ({@link SnapshotList}, {@link SnapshotIndex}) partagent avec la version
+ * précédente tout ce qu’une écriture ne touche pas. Une entité publiée
+ * n’est plus modifiée : une mise à jour la remplace par une nouvelle
+ * instance dans la version suivante.
+ *
+ * Les clés textuelles des index sont normalisées en minuscules : les
+ * recherches restent insensibles à la casse.
+ */
+public final class DataSnapshot {
+
+    private final long version;
+
+    private final SnapshotList<Person> persons;
+    private final SnapshotList<Firestation> firestations;
+    private final SnapshotList<MedicalRecord> medicalRecords;
+
+    private final SnapshotIndex<Resident> residentsByAddress;
+    private final SnapshotIndex<Resident> residentsByLastName;
+    private final SnapshotIndex<Resident> residentsByName;
+
+    /** Station → adresses desservies (ordre d’insertion conservé). */
+    private final SnapshotIndex<String> addressesByStation;
+    /** Adresse → mappings (une adresse peut être desservie par plusieurs casernes). */
+    private final SnapshotIndex<Firestation> firestationsByAddress;
+
+    private final SnapshotIndex<MedicalRecord> medicalRecordsByName;
+
+    /** Ville (minuscules) → e-mails de ses habitants, comptés (non modifiable). */
+    private final Map<String, SnapshotBag> emailsByCity;
+
+    /** Caserne → agrégats de couverture (non modifiable). */
+    private final Map<String, StationCoverage> coverage;
+    /** Jour de naissance à partir duquel un habitant est compté comme enfant. */
+    private final int childBirthDayThreshold;
+
+    /** Personnes et dossiers triés par nom, construits à la première page demandée. */
+    private volatile NameOrder<Person> personOrder;
+    private volatile NameOrder<MedicalRecord> medicalRecordOrder;
+    /** Écritures depuis l’ordre d’une version précédente, fusionnées à la première page. */
+    private volatile NameOrder.Changes<Person> personOrderChanges;
+    private volatile NameOrder.Changes<MedicalRecord> medicalRecordOrderChanges;
+
+    /** Habitants triés par date de naissance, tenus à jour à chaque écriture. */
+    private final BirthdateIndex birthdates;
+    /** Idem, limité aux adresses d’une caserne (clé : numéro de caserne ; non modifiable). */
+    private final Map<String, BirthdateIndex> birthdatesByStation;
+
+    private DataSnapshot(long version,
+            SnapshotList<Person> persons,
+            SnapshotList<Firestation> firestations,
+            SnapshotList<MedicalRecord> medicalRecords,
+            SnapshotIndex<Resident> residentsByAddress,
+            SnapshotIndex<Resident> residentsByLastName,
+            SnapshotIndex<Resident> residentsByName,
+            SnapshotIndex<String> addressesByStation,
+            SnapshotIndex<Firestation> firestationsByAddress,
+            SnapshotIndex<MedicalRecord> medicalRecordsByName,
+            Map<String, SnapshotBag> emailsByCity,
+            Map<String, StationCoverage> coverage,
+            BirthdateIndex birthdates,
+            Map<String, BirthdateIndex> birthdatesByStation,
+            int childBirthDayThreshold,
+            NameOrder.Changes<Person> personOrderChanges,
+            NameOrder.Changes<MedicalRecord> medicalRecordOrderChanges) {
+        this.version = version;
+        this.persons = persons;
+        this.firestations = firestations;
+        this.medicalRecords = medicalRecords;
+        this.residentsByAddress = residentsByAddress;
+        this.residentsByLastName = residentsByLastName;
+        this.residentsByName = residentsByName;
+        this.addressesByStation = addressesByStation;
+        this.firestationsByAddress = firestationsByAddress;
+        this.medicalRecordsByName = medicalRecordsByName;
+        this.emailsByCity = emailsByCity;
+        this.coverage = coverage;
+        this.birthdates = birthdates;
+        this.birthdatesByStation = birthdatesByStation;
+        this.childBirthDayThreshold = childBirthDayThreshold;
+        if (personOrderChanges != null) {
+            this.personOrder = personOrderChanges.unchanged();
+            this.personOrderChanges = personOrderChanges.pending();
+        }
+        if (medicalRecordOrderChanges != null) {
+            this.medicalRecordOrder = medicalRecordOrderChanges.unchanged();
+            this.medicalRecordOrderChanges = medicalRecordOrderChanges.pending();
+        }
+    }
+
+    /** Snapshot vide : point de départ d’un chargement complet. */
+    static DataSnapshot empty(long version, int childBirthDayThreshold) {
+        return new DataSnapshot(version, SnapshotList.empty(), SnapshotList.empty(), SnapshotList.empty(),
+                SnapshotIndex.empty(), SnapshotIndex.empty(), SnapshotIndex.empty(), SnapshotIndex.empty(),
+                SnapshotIndex.empty(), SnapshotIndex.empty(), Map.of(), Map.of(), BirthdateIndex.EMPTY, Map.of(),
+                childBirthDayThreshold, null, null);
+    }
+
+    /** Numéro de version, incrémenté à chaque publication. */
+    public long getVersion() {
+        return version;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Collections (lecture seule) */
+    /* ------------------------------------------------------------------ */
+
+    public List<Person> getPersons() {
+        return persons;
+    }
+
+    public List<Firestation> getFirestations() {
+        return firestations;
+    }
+
+    public List<MedicalRecord> getMedicalRecords() {
+        return medicalRecords;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Recherches indexées */
+    /* ------------------------------------------------------------------ */
+
+    public Person findPerson(String firstName, String lastName) {
+        Resident resident = residentsByName.first(nameKey(firstName, lastName));
+        return resident == null ? null : resident.getPerson();
+    }
+
+    public List<Person> findPersonsByAddress(String address) {
+        return personsOf(residentsByAddress.get(key(address)));
+    }
+
+    public List<Person> findPersonsByLastName(String lastName) {
+        return personsOf(residentsByLastName.get(key(lastName)));
+    }
+
+    /**
+     * Annuaire tenu à jour à chaque écriture de personne : un e-mail reste
+     * présent tant qu’un habitant de la ville le porte. La liste est
+     * partagée par tous les lecteurs de cette version.
+     *
+     * @return e-mails distincts des habitants de la ville (ordre quelconque)
+     */
+    public List<String> findDistinctEmailsByCity(String city) {
+        return emailsByCity.getOrDefault(key(city), SnapshotBag.empty()).values();
+    }
+
+    /**
+     * Parcourt l’annuaire de la ville sans construire de liste.
+     *
+     * @return nombre d’e-mails distincts parcourus
+     */
+    public int forEachDistinctEmailByCity(String city, Consumer<String> action) {
+        SnapshotBag emails = emailsByCity.getOrDefault(key(city), SnapshotBag.empty());
+        emails.forEach(action);
+        return emails.distinct();
+    }
+
+    public List<Resident> findResidentsByAddress(String address) {
+        return residentsByAddress.get(key(address));
+    }
+
+    public List<Resident> findResidentsByLastName(String lastName) {
+        return residentsByLastName.get(key(lastName));
+    }
+
+    /**
+     * @return adresses desservies par la caserne (ensemble vide si inconnue)
+     */
+    public Set<String> findAddressesByStation(String station) {
+        return new LinkedHashSet<>(addressesByStation.get(station == null ? "" : station));
+    }
+
+    /**
+     * @return premier mapping enregistré pour l’adresse, ou {@code null}
+     */
+    public Firestation findFirestation(String address) {
+        return firestationsByAddress.first(key(address));
+    }
+
+    public MedicalRecord findMedicalRecord(String firstName, String lastName) {
+        return medicalRecordsByName.first(nameKey(firstName, lastName));
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Pagination par nom (curseur = nom et prénom du dernier élément) */
+    /* ------------------------------------------------------------------ */
+
+    /**
+     * @return personnes suivant (nom, prénom) dans l’ordre des noms, depuis
+     *         le début si {@code lastName} est {@code null}
+     */
+    public Page<Person> findPersonsAfter(String lastName, String firstName, int limit) {
+        NameOrder<Person> order = personOrder;
+        if (order == null) {
+            // Construction idempotente : une course ne fait que la dupliquer
+            NameOrder.Changes<Person> changes = personOrderChanges;
+            order = changes != null ? changes.apply()
+                    : NameOrder.of(persons, Person::getLastName, Person::getFirstName);
+            personOrder = order;
+            personOrderChanges = null;
+        }
+        return order.after(lastName, firstName, limit);
+    }
+
+    /**
+     * @return dossiers suivant (nom, prénom) dans l’ordre des noms, depuis
+     *         le début si {@code lastName} est {@code null}
+     */
+    public Page<MedicalRecord> findMedicalRecordsAfter(String lastName, String firstName, int limit) {
+        NameOrder<MedicalRecord> order = medicalRecordOrder;
+        if (order == null) {
+            NameOrder.Changes<MedicalRecord> changes = medicalRecordOrderChanges;
+            order = changes != null ? changes.apply()
+                    : NameOrder.of(medicalRecords, MedicalRecord::getLastName, MedicalRecord::getFirstName);
+            medicalRecordOrder = order;
+            medicalRecordOrderChanges = null;
+        }
+        return order.after(lastName, firstName, limit);
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Couverture des casernes (agrégats tenus à jour) */
+    /* ------------------------------------------------------------------ */
+
+    /**
+     * @return agrégats de la caserne (tous à zéro si elle est inconnue)
+     */
+    public StationCoverage getStationCoverage(String station) {
+        return coverage.getOrDefault(stationKey(station), StationCoverage.EMPTY);
+    }
+
+    /**
+     * @return agrégats de toutes les casernes desservant au moins une adresse
+     */
+    public Map<String, StationCoverage> getStationCoverages() {
+        return coverage;
+    }
+
+    /**
+     * Seuil des comptes « enfants » des agrégats : habitants nés ce jour
+     * epoch ou après.
+     */
+    public int getChildBirthDayThreshold() {
+        return childBirthDayThreshold;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Recherches par date de naissance (jours epoch, bornes incluses) */
+    /* ------------------------------------------------------------------ */
+
+    /**
+     * @return habitants nés entre les deux dates, du plus âgé au plus jeune
+     */
+    public List<Resident> findResidentsByBirthRange(int fromDay, int toDay) {
+        return birthdates.find(fromDay, toDay);
+    }
+
+    /**
+     * @return habitants des adresses desservies par la caserne, nés entre
+     *         les deux dates, du plus âgé au plus jeune
+     */
+    public List<Resident> findStationResidentsByBirthRange(String station, int fromDay, int toDay) {
+        return birthdatesByStation.getOrDefault(stationKey(station), BirthdateIndex.EMPTY).find(fromDay, toDay);
+    }
+
+    /**
+     * Une adresse ne compte que quelques habitants : ils sont filtrés
+     * directement, sans index dédié.
+     *
+     * @return habitants de l’adresse nés entre les deux dates, du plus âgé
+     *         au plus jeune
+     */
+    public List<Resident> findAddressResidentsByBirthRange(String address, int fromDay, int toDay) {
+        List<Resident> result = new ArrayList<>();
+        for (Resident r : residentsByAddress.get(key(address))) {
+            if (r.hasBirthDate() && r.getBirthEpochDay() >= fromDay && r.getBirthEpochDay() <= toDay) {
+                result.add(r);
+            }
+        }
+        result.sort(Comparator.comparingInt(Resident::getBirthEpochDay));
+        return result;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Construction de la version suivante */
+    /* ------------------------------------------------------------------ */
+
+    Builder toBuilder(StringPool stringPool) {
+        return new Builder(this, stringPool);
+    }
+
+    /**
+     * Applique des modifications à partir d’une version publiée. Réservé à
+     * l’écrivain du repository : un builder n’est pas thread-safe et ne
+     * sert qu’une fois.
+     */
+    static final class Builder {
+
+        private final long version;
+        private final StringPool stringPool;
+
+        private final SnapshotList.Builder<Person> persons;
+        private final SnapshotList.Builder<Firestation> firestations;
+        private final SnapshotList.Builder<MedicalRecord> medicalRecords;
+        private final SnapshotIndex.Builder<Resident> residentsByAddress;
+        private final SnapshotIndex.Builder<Resident> residentsByLastName;
+        private final SnapshotIndex.Builder<Resident> residentsByName;
+        private final SnapshotIndex.Builder<String> addressesByStation;
+        private final SnapshotIndex.Builder<Firestation> firestationsByAddress;
+        private final SnapshotIndex.Builder<MedicalRecord> medicalRecordsByName;
+        private final NameOrder.Changes<Person> personOrder;
+        private final NameOrder.Changes<MedicalRecord> medicalRecordOrder;
+
+        private final Map<String, SnapshotBag> baseEmailsByCity;
+        /** Annuaires des villes touchées par ce builder. */
+        private final Map<String, SnapshotBag.Builder> emailsByCity = new HashMap<>();
+        private final Map<String, StationCoverage> baseCoverage;
+        private final BirthdateIndex.Builder birthdates;
+        private final Map<String, BirthdateIndex.Builder> birthdatesByStation = new HashMap<>();
+        private final Map<String, BirthdateIndex> baseBirthdatesByStation;
+        /** Agrégats des casernes touchées par ce builder. */
+        private final Map<String, StationCoverage.Builder> coverage = new HashMap<>();
+        private int childBirthDayThreshold;
+
+        /** Portée des modifications, diffusée après publication. */
+        private boolean globalChange;
+        private final Set<String> changedAddresses = new HashSet<>();
+        private final Set<String> changedStations = new HashSet<>();
+        private final Set<String> changedCities = new HashSet<>();
+        private final Set<String> changedLastNames = new HashSet<>();
+
+        private Builder(DataSnapshot base, StringPool stringPool) {
+            this.version = base.version + 1;
+            this.stringPool = stringPool;
+            this.persons = base.persons.toBuilder();
+            this.firestations = base.firestations.toBuilder();
+            this.medicalRecords = base.medicalRecords.toBuilder();
+            this.residentsByAddress = base.residentsByAddress.toBuilder();
+            this.residentsByLastName = base.residentsByLastName.toBuilder();
+            this.residentsByName = base.residentsByName.toBuilder();
+            this.addressesByStation = base.addressesByStation.toBuilder();
+            this.firestationsByAddress = base.firestationsByAddress.toBuilder();
+            this.medicalRecordsByName = base.medicalRecordsByName.toBuilder();
+            this.personOrder = NameOrder.Changes.after(base.personOrder, base.personOrderChanges);
+            this.medicalRecordOrder = NameOrder.Changes.after(base.medicalRecordOrder,
+                    base.medicalRecordOrderChanges);
+            this.baseEmailsByCity = base.emailsByCity;
+            this.baseCoverage = base.coverage;
+            this.birthdates = base.birthdates.toBuilder();
+            this.baseBirthdatesByStation = base.birthdatesByStation;
+            this.childBirthDayThreshold = base.childBirthDayThreshold;
+        }
+
+        DataSnapshot build() {
+            return new DataSnapshot(version, persons.build(), firestations.build(), medicalRecords.build(),
+                    residentsByAddress.build(), residentsByLastName.build(), residentsByName.build(),
+                    addressesByStation.build(), firestationsByAddress.build(), medicalRecordsByName.build(),
+                    buildEmailsByCity(), buildCoverage(), birthdates.build(), buildBirthdatesByStation(),
+                    childBirthDayThreshold, personOrder, medicalRecordOrder);
+        }
+
+        /** Portée des modifications appliquées par ce builder. */
+        DataChange changes() {
+            return new DataChange(version, globalChange, changedAddresses, changedStations, changedCities,
+                    changedLastNames);
+        }
+
+        /** Signale que toutes les données sont concernées (rechargement). */
+        void touchAll() {
+            globalChange = true;
+        }
+
+        private Map<String, SnapshotBag> buildEmailsByCity() {
+            if (emailsByCity.isEmpty()) {
+                return baseEmailsByCity;
+            }
+            Map<String, SnapshotBag> next = new HashMap<>(baseEmailsByCity);
+            emailsByCity.forEach((city, emails) -> {
+                if (emails.isEmpty()) {
+                    next.remove(city);
+                } else {
+                    next.put(city, emails.build());
+                }
+            });
+            return Collections.unmodifiableMap(next);
+        }
+
+        private Map<String, BirthdateIndex> buildBirthdatesByStation() {
+            if (birthdatesByStation.isEmpty()) {
+                return baseBirthdatesByStation;
+            }
+            Map<String, BirthdateIndex> next = new HashMap<>(baseBirthdatesByStation);
+            birthdatesByStation.forEach((station, index) -> next.put(station, index.build()));
+            return Collections.unmodifiableMap(next);
+        }
+
+        private Map<String, StationCoverage> buildCoverage() {
+            if (coverage.isEmpty()) {
+                return baseCoverage;
+            }
+            Map<String, StationCoverage> next = new HashMap<>(baseCoverage);
+            coverage.forEach((station, aggregates) -> {
+                if (aggregates.isEmpty() && addressesByStation.get(station).isEmpty()) {
+                    next.remove(station);
+                } else {
+                    next.put(station, aggregates.build());
+                }
+            });
+            return Collections.unmodifiableMap(next);
+        }
+
+        /* -------------------------------------------------------------- */
+        /* Personnes */
+        /* -------------------------------------------------------------- */
+
+        /** Une personne porte-t-elle déjà ce prénom et ce nom dans cette version ? */
+        boolean containsPerson(String firstName, String lastName) {
+            return residentsByName.first(nameKey(firstName, lastName)) != null;
+        }
+
+        /**
+         * Ajoute la personne. L’instance reçue est stockée telle quelle
+         * (valeurs répétées partagées) : l’appelant ne doit plus la modifier.
+         *
+         * @return l’instance stockée
+         */
+        Person addPerson(Person person) {
+            person.setAddress(stringPool.intern(person.getAddress()));
+            person.setCity(stringPool.intern(person.getCity()));
+            person.setZip(stringPool.intern(person.getZip()));
+            persons.add(person);
+            personOrder.add(person);
+            indexResident(new Resident(person, medicalRecordOf(person), stationOf(person.getAddress())));
+            return person;
+        }
+
+        /**
+         * Met à jour adresse, ville, code postal, téléphone et e-mail de la
+         * personne identifiée par le couple prénom / nom.
+         *
+         * @return la nouvelle instance, ou {@code null} si introuvable
+         */
+        Person updatePerson(Person updated) {
+            Resident resident = residentsByName.first(nameKey(updated.getFirstName(), updated.getLastName()));
+            if (resident == null) {
+                return null;
+            }
+            Person existing = resident.getPerson();
+            Person stored = store(existing.getFirstName(), existing.getLastName(), updated);
+            persons.replace(existing, stored);
+            personOrder.remove(existing);
+            personOrder.add(stored);
+            unindexResident(resident);
+            indexResident(new Resident(stored, resident.getMedicalRecord(), stationOf(stored.getAddress())));
+            return stored;
+        }
+
+        /** Supprime toutes les personnes portant ce prénom et ce nom. */
+        boolean deletePerson(String firstName, String lastName) {
+            List<Resident> matches = residentsByName.get(nameKey(firstName, lastName));
+            if (matches.isEmpty()) {
+                return false;
+            }
+            for (Resident r : new ArrayList<>(matches)) {
+                persons.remove(r.getPerson());
+                personOrder.remove(r.getPerson());
+                unindexResident(r);
+            }
+            return true;
+        }
+
+        /** Nouvelle instance possédée par le snapshot, valeurs répétées partagées. */
+        private Person store(String firstName, String lastName, Person values) {
+            return new Person(firstName, lastName,
+                    stringPool.intern(values.getAddress()),
+                    stringPool.intern(values.getCity()),
+                    stringPool.intern(values.getZip()),
+                    values.getPhone(),
+                    values.getEmail());
+        }
+
+        private void indexResident(Resident r) {
+            Person p = r.getPerson();
+            touch(p);
+            for (String station : stationsOf(p.getAddress())) {
+                coverage(station).add(r, childBirthDayThreshold);
+                birthdates(station).add(r);
+            }
+            birthdates.add(r);
+            emails(p.getCity()).add(p.getEmail());
+            residentsByAddress.add(key(p.getAddress()), r);
+            residentsByLastName.add(key(p.getLastName()), r);
+            residentsByName.add(nameKey(p.getFirstName(), p.getLastName()), r);
+        }
+
+        private void unindexResident(Resident r) {
+            Person p = r.getPerson();
+            touch(p);
+            for (String station : stationsOf(p.getAddress())) {
+                coverage(station).remove(r, childBirthDayThreshold);
+                birthdates(station).remove(r);
+            }
+            birthdates.remove(r);
+            emails(p.getCity()).remove(p.getEmail());
+            residentsByAddress.remove(key(p.getAddress()), r);
+            residentsByLastName.remove(key(p.getLastName()), r);
+            residentsByName.remove(nameKey(p.getFirstName(), p.getLastName()), r);
+        }
+
+        /** Remplace un habitant dans tous les index qui le portent. */
+        private void replaceResident(Resident previous, Resident resident) {
+            Person p = previous.getPerson();
+            touch(p);
+            boolean birthChanged = previous.getBirthEpochDay() != resident.getBirthEpochDay();
+            for (String station : stationsOf(p.getAddress())) {
+                if (birthChanged) {
+                    coverage(station).remove(previous, childBirthDayThreshold);
+                    coverage(station).add(resident, childBirthDayThreshold);
+                }
+                birthdates(station).replace(previous, resident);
+            }
+            birthdates.replace(previous, resident);
+            residentsByAddress.replace(key(p.getAddress()), previous, resident);
+            residentsByLastName.replace(key(p.getLastName()), previous, resident);
+            residentsByName.replace(nameKey(p.getFirstName(), p.getLastName()), previous, resident);
+        }
+
+        /** Note l’adresse, la caserne, la ville et le nom de la personne comme modifiés. */
+        private void touch(Person p) {
+            if (globalChange) {
+                return;
+            }
+            changedAddresses.add(key(p.getAddress()));
+            changedStations.addAll(stationsOf(p.getAddress()));
+            changedCities.add(key(p.getCity()));
+            changedLastNames.add(key(p.getLastName()));
+        }
+
+        /* -------------------------------------------------------------- */
+        /* Casernes */
+        /* -------------------------------------------------------------- */
+
+        /** L’adresse a-t-elle déjà un mapping dans cette version ? */
+        boolean containsFirestation(String address) {
+            return firestationsByAddress.first(key(address)) != null;
+        }
+
+        Firestation addFirestation(Firestation mapping) {
+            mapping.setAddress(stringPool.intern(mapping.getAddress()));
+            mapping.setStation(stringPool.intern(mapping.getStation()));
+            Firestation stored = mapping;
+            Set<String> before = stationsOf(stored.getAddress());
+            firestations.add(stored);
+            firestationsByAddress.add(key(stored.getAddress()), stored);
+            addressesByStation.addIfAbsent(stationKey(stored.getStation()), stored.getAddress());
+            refreshCoverage(stored.getAddress(), before);
+            refreshStation(stored.getAddress());
+            coverage(stationKey(stored.getStation()));
+            return stored;
+        }
+
+        /**
+         * Modifie le numéro de caserne du premier mapping de l’adresse.
+         *
+         * @return le nouveau mapping, ou {@code null} si l’adresse est inconnue
+         */
+        Firestation updateFirestation(String address, String station) {
+            Firestation existing = firestationsByAddress.first(key(address));
+            if (existing == null) {
+                return null;
+            }
+            Firestation stored = new Firestation(existing.getAddress(), stringPool.intern(station));
+            Set<String> before = stationsOf(address);
+            firestations.replace(existing, stored);
+            firestationsByAddress.replace(key(address), existing, stored);
+            String from = stationKey(existing.getStation());
+            if (!stationsOf(address).contains(from)) {
+                // Aucun autre mapping de l’adresse ne pointe encore vers l’ancienne caserne
+                addressesByStation.remove(from, existing.getAddress());
+            }
+            addressesByStation.addIfAbsent(stationKey(stored.getStation()), stored.getAddress());
+            refreshCoverage(address, before);
+            refreshStation(address);
+            coverage(stationKey(stored.getStation()));
+            return stored;
+        }
+
+        /**
+         * Passe à {@code station} les mappings de l’adresse rattachés à
+         * {@code fromStation} (les autres mappings de l’adresse sont
+         * conservés).
+         *
+         * @return les mappings modifiés (vide si l’adresse n’en a aucun
+         *         pour {@code fromStation})
+         */
+        List<Firestation> reassignFirestation(String address, String fromStation, String station) {
+            String from = stationKey(fromStation);
+            List<Firestation> matches = new ArrayList<>();
+            for (Firestation f : firestationsByAddress.get(key(address))) {
+                if (stationKey(f.getStation()).equals(from)) {
+                    matches.add(f);
+                }
+            }
+            if (matches.isEmpty()) {
+                return matches;
+            }
+            Set<String> before = stationsOf(address);
+            String to = stringPool.intern(station);
+            List<Firestation> moved = new ArrayList<>(matches.size());
+            for (Firestation existing : matches) {
+                Firestation stored = new Firestation(existing.getAddress(), to);
+                firestations.replace(existing, stored);
+                firestationsByAddress.replace(key(address), existing, stored);
+                moved.add(stored);
+            }
+            addressesByStation.remove(from, matches.get(0).getAddress());
+            addressesByStation.addIfAbsent(stationKey(to), moved.get(0).getAddress());
+            refreshCoverage(address, before);
+            refreshStation(address);
+            coverage(stationKey(to));
+            return moved;
+        }
+
+        /** Supprime tous les mappings de l’adresse. */
+        boolean deleteFirestation(String address) {
+            Set<String> before = stationsOf(address);
+            List<Firestation> mappings = firestationsByAddress.removeAll(key(address));
+            if (mappings.isEmpty()) {
+                return false;
+            }
+            for (Firestation f : mappings) {
+                firestations.remove(f);
+                addressesByStation.remove(stationKey(f.getStation()), f.getAddress());
+            }
+            refreshCoverage(address, before);
+            refreshStation(address);
+            return true;
+        }
+
+        /** Rejoint les habitants de l’adresse à leur (nouvelle) caserne. */
+        private void refreshStation(String address) {
+            String station = stationOf(address);
+            for (Resident r : new ArrayList<>(residentsByAddress.get(key(address)))) {
+                if (!Objects.equals(r.getStation(), station)) {
+                    replaceResident(r, r.withStation(station));
+                }
+            }
+        }
+
+        /**
+         * Reporte sur les agrégats et les index par date de naissance un
+         * changement des casernes desservant l’adresse : ses habitants
+         * quittent les casernes qui ne la desservent plus et rejoignent les
+         * nouvelles. Appelé avant {@link #refreshStation}, qui remplace
+         * ensuite les habitants dans les casernes desservant l’adresse.
+         */
+        private void refreshCoverage(String address, Set<String> before) {
+            Set<String> after = stationsOf(address);
+            changedAddresses.add(key(address));
+            changedStations.addAll(before);
+            changedStations.addAll(after);
+            List<Resident> residents = residentsByAddress.get(key(address));
+            for (String station : before) {
+                if (!after.contains(station)) {
+                    residents.forEach(r -> {
+                        coverage(station).remove(r, childBirthDayThreshold);
+                        birthdates(station).remove(r);
+                    });
+                }
+            }
+            for (String station : after) {
+                if (!before.contains(station)) {
+                    residents.forEach(r -> {
+                        coverage(station).add(r, childBirthDayThreshold);
+                        birthdates(station).add(r);
+                    });
+                }
+            }
+        }
+
+        /** Casernes (clés) desservant l’adresse, sans doublon. */
+        private Set<String> stationsOf(String address) {
+            List<Firestation> mappings = firestationsByAddress.get(key(address));
+            if (mappings.isEmpty()) {
+                return Set.of();
+            }
+            Set<String> stations = new LinkedHashSet<>();
+            mappings.forEach(f -> stations.add(stationKey(f.getStation())));
+            return stations;
+        }
+
+        private SnapshotBag.Builder emails(String city) {
+            return emailsByCity.computeIfAbsent(key(city),
+                    c -> baseEmailsByCity.getOrDefault(c, SnapshotBag.empty()).toBuilder());
+        }
+
+        private StationCoverage.Builder coverage(String station) {
+            return coverage.computeIfAbsent(station,
+                    s -> baseCoverage.getOrDefault(s, StationCoverage.EMPTY).toBuilder());
+        }
+
+        private BirthdateIndex.Builder birthdates(String station) {
+            return birthdatesByStation.computeIfAbsent(station,
+                    s -> baseBirthdatesByStation.getOrDefault(s, BirthdateIndex.EMPTY).toBuilder());
+        }
+
+        /**
+         * Change le seuil des comptes « enfants » et recompte les habitants
+         * nés à partir de ce jour. Le recompte suit les mappings de chaque
+         * adresse ({@link #stationsOf}), comme les mises à jour
+         * incrémentales : les deux ne peuvent pas diverger.
+         */
+        void setChildBirthDayThreshold(int threshold) {
+            childBirthDayThreshold = threshold;
+            // Les âges ont avancé : toutes les réponses datées sont concernées
+            globalChange = true;
+            Map<String, Integer> children = new HashMap<>();
+            firestationsByAddress.forEach((address, mappings) -> {
+                int count = 0;
+                for (Resident r : residentsByAddress.get(address)) {
+                    if (r.hasBirthDate() && r.getBirthEpochDay() >= threshold) {
+                        count++;
+                    }
+                }
+                Set<String> stations = new HashSet<>();
+                mappings.forEach(f -> stations.add(stationKey(f.getStation())));
+                for (String station : stations) {
+                    children.merge(station, count, Integer::sum);
+                }
+            });
+            Set<String> stations = new HashSet<>(baseCoverage.keySet());
+            stations.addAll(coverage.keySet());
+            for (String station : stations) {
+                coverage(station).setChildren(children.getOrDefault(station, 0));
+            }
+        }
+
+        private String stationOf(String address) {
+            Firestation mapping = firestationsByAddress.first(key(address));
+            return mapping == null ? null : mapping.getStation();
+        }
+
+        /* -------------------------------------------------------------- */
+        /* Dossiers médicaux */
+        /* -------------------------------------------------------------- */
+
+        /** Un dossier porte-t-il déjà ce prénom et ce nom dans cette version ? */
+        boolean containsMedicalRecord(String firstName, String lastName) {
+            return medicalRecordsByName.first(nameKey(firstName, lastName)) != null;
+        }
+
+        MedicalRecord addMedicalRecord(MedicalRecord record) {
+            record.setMedications(stringPool.intern(record.getMedications()));
+            record.setAllergies(stringPool.intern(record.getAllergies()));
+            MedicalRecord stored = record;
+            medicalRecords.add(stored);
+            medicalRecordOrder.add(stored);
+            medicalRecordsByName.add(nameKey(stored.getFirstName(), stored.getLastName()), stored);
+            refreshMedicalRecord(stored.getFirstName(), stored.getLastName());
+            return stored;
+        }
+
+        /**
+         * Met à jour date de naissance, médicaments et allergies du dossier
+         * identifié par le couple prénom / nom.
+         *
+         * @return le nouveau dossier, ou {@code null} si introuvable
+         */
+        MedicalRecord updateMedicalRecord(MedicalRecord updated) {
+            String name = nameKey(updated.getFirstName(), updated.getLastName());
+            MedicalRecord existing = medicalRecordsByName.first(name);
+            if (existing == null) {
+                return null;
+            }
+            MedicalRecord stored = store(existing.getFirstName(), existing.getLastName(), updated);
+            medicalRecords.replace(existing, stored);
+            medicalRecordOrder.remove(existing);
+            medicalRecordOrder.add(stored);
+            medicalRecordsByName.replace(name, existing, stored);
+            refreshMedicalRecord(stored.getFirstName(), stored.getLastName());
+            return stored;
+        }
+
+        /** Supprime tous les dossiers portant ce prénom et ce nom. */
+        boolean deleteMedicalRecord(String firstName, String lastName) {
+            List<MedicalRecord> matches = medicalRecordsByName.removeAll(nameKey(firstName, lastName));
+            if (matches.isEmpty()) {
+                return false;
+            }
+            for (MedicalRecord m : matches) {
+                medicalRecords.remove(m);
+                medicalRecordOrder.remove(m);
+            }
+            refreshMedicalRecord(firstName, lastName);
+            return true;
+        }
+
+        private MedicalRecord store(String firstName, String lastName, MedicalRecord values) {
+            return new MedicalRecord(firstName, lastName, values.getBirthdate(),
+                    stringPool.intern(values.getMedications()),
+                    stringPool.intern(values.getAllergies()));
+        }
+
+        /** Rejoint les habitants portant ce nom à leur (nouveau) dossier médical. */
+        private void refreshMedicalRecord(String firstName, String lastName) {
+            MedicalRecord record = medicalRecordsByName.first(nameKey(firstName, lastName));
+            for (Resident r : new ArrayList<>(residentsByName.get(nameKey(firstName, lastName)))) {
+                if (r.getMedicalRecord() != record) {
+                    replaceResident(r, r.withMedicalRecord(record));
+                }
+            }
+        }
+
+        private MedicalRecord medicalRecordOf(Person p) {
+            return medicalRecordsByName.first(nameKey(p.getFirstName(), p.getLastName()));
+        }
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Outils */
+    /* ------------------------------------------------------------------ */
+
+    private static List<Person> personsOf(List<Resident> bucket) {
+        List<Person> result = new ArrayList<>(bucket.size());
+        bucket.forEach(r -> result.add(r.getPerson()));
+        return result;
+    }
+
+    private static String key(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    /** Les numéros de caserne sont comparés tels quels (sensibles à la casse). */
+    private static String stationKey(String station) {
+        return station == null ? "" : station;
+    }
+
+    private static String nameKey(String firstName, String lastName) {
+        return key(firstName) + '|' + key(lastName);
+    }
+}
@@ -0,0 +1,59 @@
+package com.safetynetalerts.repository;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynetalerts.model.Firestation;
+import com.safetynetalerts.model.MedicalRecord;
+import com.safetynetalerts.model.Person;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Lecteur « streaming » du fichier data.json.
+ *
+ * Le document est parcouru jeton par jeton : chaque élément des tableaux
+ * {@code persons}, {@code firestations} et {@code medicalrecords} est
+ * désérialisé puis transmis immédiatement au consommateur, sans jamais
+ * construire d’arbre {@code JsonNode} du document complet.
+ */
+class JsonDataReader {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * Lit le flux et transmet chaque entité, dans l’ordre du fichier.
+     * Les champs racine inconnus sont ignorés.
+     */
+    void read(InputStream in,
+            Consumer<Person> personConsumer,
+            Consumer<Firestation> firestationConsumer,
+            Consumer<MedicalRecord> medicalRecordConsumer) throws IOException {
+        try (JsonParser parser = mapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Objet JSON racine attendu");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "persons" -> readArray(parser, Person.class, personConsumer);
+                    case "firestations" -> readArray(parser, Firestation.class, firestationConsumer);
+                    case "medicalrecords" -> readArray(parser, MedicalRecord.class, medicalRecordConsumer);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private <T> void readArray(JsonParser parser, Class<T> type, Consumer<T> consumer) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new IOException("Tableau attendu pour " + type.getSimpleName());
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            consumer.accept(mapper.readValue(parser, type));
+        }
+    }
+}
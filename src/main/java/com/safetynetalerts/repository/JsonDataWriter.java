@@ -0,0 +1,111 @@
+package com.safetynetalerts.repository;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.safetynetalerts.model.Firestation;
+import com.safetynetalerts.model.MedicalRecord;
+import com.safetynetalerts.model.Person;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+/**
+ * Écrivain « streaming » du fichier data.json.
+ *
+ * Les entités sont sérialisées une à une par un {@link JsonGenerator} vers
+ * un fichier temporaire bufferisé, qui remplace ensuite l’original par un
+ * renommage atomique : la mémoire utilisée ne dépend pas de la taille du
+ * jeu de données et un arrêt brutal ne laisse jamais un fichier tronqué.
+ */
+class JsonDataWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** Sans vidage après chaque entité : seul le buffer plein déclenche une écriture. */
+    private final ObjectMapper mapper = new ObjectMapper()
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    /**
+     * @param prettyPrint indentation identique à l’historique
+     *                    ({@code writerWithDefaultPrettyPrinter}) ; à
+     *                    désactiver pour les gros volumes
+     */
+    void write(Path target,
+            Collection<Person> persons,
+            Collection<Firestation> firestations,
+            Collection<MedicalRecord> medicalRecords,
+            boolean prettyPrint) throws IOException {
+        Path temp = createTemp(target);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+                try (JsonGenerator gen = mapper.getFactory().createGenerator(out)) {
+                    // Le canal doit rester ouvert pour le force() final
+                    gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    if (prettyPrint) {
+                        gen.setPrettyPrinter(new DefaultPrettyPrinter());
+                    }
+                    gen.writeStartObject();
+                    writeArray(gen, "persons", persons);
+                    writeArray(gen, "firestations", firestations);
+                    writeArray(gen, "medicalrecords", medicalRecords);
+                    gen.writeEndObject();
+                }
+                out.flush();
+                channel.force(true);
+            }
+            replace(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void writeArray(JsonGenerator gen, String field, Collection<?> entities) throws IOException {
+        gen.writeArrayFieldStart(field);
+        for (Object entity : entities) {
+            mapper.writeValue(gen, entity);
+        }
+        gen.writeEndArray();
+    }
+
+    /**
+     * Crée le fichier temporaire voisin de {@code target} ({@code <nom>.tmp}),
+     * avec les permissions de {@code target} s’il existe (celles par défaut
+     * sinon) : le renommage ne doit pas les restreindre. Les écritures d’une
+     * même cible sont sérialisées par l’appelant.
+     */
+    static Path createTemp(Path target) throws IOException {
+        Path temp = target.toAbsolutePath().resolveSibling(target.getFileName() + ".tmp");
+        Files.deleteIfExists(temp);
+        Files.createFile(temp);
+        if (Files.exists(target)) {
+            try {
+                Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(target));
+            } catch (UnsupportedOperationException e) {
+                // Système de fichiers non POSIX : permissions héritées du répertoire
+            }
+        }
+        return temp;
+    }
+
+    /** Remplace {@code target} par {@code temp}, atomiquement si le système le permet. */
+    static void replace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
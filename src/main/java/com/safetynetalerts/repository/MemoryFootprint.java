@@ -0,0 +1,39 @@
+package com.safetynetalerts.repository;
+
+/**
+ * Effet du {@link StringPool} sur les données actuellement en mémoire.
+ */
+public class MemoryFootprint {
+
+    private final int internedValues;
+    private final long sharedReferences;
+    private final long estimatedBytesSaved;
+
+    MemoryFootprint(int internedValues, long sharedReferences, long estimatedBytesSaved) {
+        this.internedValues = internedValues;
+        this.sharedReferences = sharedReferences;
+        this.estimatedBytesSaved = estimatedBytesSaved;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Accesseurs */
+    /* ------------------------------------------------------------------ */
+
+    /**
+     * Valeurs du dictionnaire depuis le dernier rechargement : majorant des
+     * valeurs distinctes en usage, le dictionnaire n’évinçant rien.
+     */
+    public int getInternedValues() {
+        return internedValues;
+    }
+
+    /** Champs pointant vers une valeur du dictionnaire. */
+    public long getSharedReferences() {
+        return sharedReferences;
+    }
+
+    /** Heap qu’occuperaient les copies évitées (estimation). */
+    public long getEstimatedBytesSaved() {
+        return estimatedBytesSaved;
+    }
+}
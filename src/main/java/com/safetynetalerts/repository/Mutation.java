@@ -0,0 +1,101 @@
+package com.safetynetalerts.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Map;
+
+/**
+ * Enregistrement unitaire d’une modification du jeu de données, tel
+ * qu’écrit (une ligne JSON par mutation) dans le journal.
+ *
+ * Le contenu est figé en {@link JsonNode} au moment de la mutation : une
+ * modification ultérieure de l’entité en mémoire n’altère donc pas
+ * l’enregistrement en attente d’écriture.
+ */
+public class Mutation {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** Nature de la modification. */
+    public enum Type {
+        ADD_PERSON, UPDATE_PERSON, DELETE_PERSON,
+        ADD_FIRESTATION, UPDATE_FIRESTATION, DELETE_FIRESTATION, REASSIGN_FIRESTATION,
+        ADD_MEDICAL_RECORD, UPDATE_MEDICAL_RECORD, DELETE_MEDICAL_RECORD
+    }
+
+    private Type type;
+    private JsonNode data;
+
+    /** Constructeur par défaut (Jackson). */
+    public Mutation() {
+    }
+
+    public Mutation(Type type, JsonNode data) {
+        this.type = type;
+        this.data = data;
+    }
+
+    /**
+     * Construit une mutation portant une entité (ajout / mise à jour).
+     */
+    public static Mutation of(Type type, Object entity) {
+        return new Mutation(type, MAPPER.valueToTree(entity));
+    }
+
+    /**
+     * Construit une mutation de suppression identifiée par prénom + nom.
+     */
+    public static Mutation deleteByName(Type type, String firstName, String lastName) {
+        return of(type, Map.of("firstName", firstName, "lastName", lastName));
+    }
+
+    /**
+     * Construit une mutation de suppression de mapping par adresse.
+     */
+    public static Mutation deleteByAddress(String address) {
+        return of(Type.DELETE_FIRESTATION, Map.of("address", address));
+    }
+
+    /**
+     * Construit une mutation de changement de caserne des mappings d’une
+     * adresse rattachés à {@code fromStation}.
+     */
+    public static Mutation reassign(String address, String fromStation, String station) {
+        return of(Type.REASSIGN_FIRESTATION, Map.of("address", address, "fromStation", fromStation,
+                "station", station));
+    }
+
+    /**
+     * Convertit le contenu de la mutation vers le type d’entité attendu.
+     */
+    public <T> T dataAs(Class<T> entityType) {
+        return MAPPER.convertValue(data, entityType);
+    }
+
+    /** Lit un champ texte du contenu (suppressions). */
+    public String field(String name) {
+        JsonNode value = data.get(name);
+        return value == null ? null : value.asText();
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Accesseurs / Mutateurs */
+    /* ------------------------------------------------------------------ */
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public JsonNode getData() {
+        return data;
+    }
+
+    public void setData(JsonNode data) {
+        this.data = data;
+    }
+}
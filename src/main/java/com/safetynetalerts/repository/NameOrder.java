@@ -0,0 +1,248 @@
+package com.safetynetalerts.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Entités triées par nom puis prénom (insensible à la casse) : ordre
+ * stable pour la pagination par curseur.
+ *
+ * Le curseur est le nom de la dernière entité servie ; la page suivante
+ * commence au premier nom strictement supérieur, dans la version courante.
+ * Une écriture entre deux pages ne décale donc ni ne répète rien. Les
+ * homonymes ne sont jamais séparés : une page peut dépasser la limite pour
+ * les inclure tous.
+ *
+ * Une version ne retrie pas tout : elle reprend l’ordre de la précédente
+ * et y fusionne les entités ajoutées ou retirées depuis ({@link Changes}).
+ */
+final class NameOrder<T> {
+
+    private final String[] keys;
+    private final Object[] items;
+    private final List<T> sorted;
+    private final Function<T, String> lastName;
+    private final Function<T, String> firstName;
+
+    @SuppressWarnings("unchecked")
+    private NameOrder(String[] keys, Object[] items, Function<T, String> lastName, Function<T, String> firstName) {
+        this.keys = keys;
+        this.items = items;
+        this.sorted = (List<T>) Collections.unmodifiableList(Arrays.asList(items));
+        this.lastName = lastName;
+        this.firstName = firstName;
+    }
+
+    static <T> NameOrder<T> of(List<T> source, Function<T, String> lastName, Function<T, String> firstName) {
+        @SuppressWarnings("unchecked")
+        T[] items = (T[]) source.toArray();
+        String[] itemKeys = new String[items.length];
+        Integer[] order = new Integer[items.length];
+        for (int i = 0; i < items.length; i++) {
+            itemKeys[i] = sortKey(lastName.apply(items[i]), firstName.apply(items[i]));
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> itemKeys[i]));
+        String[] keys = new String[items.length];
+        Object[] sorted = new Object[items.length];
+        for (int i = 0; i < order.length; i++) {
+            keys[i] = itemKeys[order[i]];
+            sorted[i] = items[order[i]];
+        }
+        return new NameOrder<>(keys, sorted, lastName, firstName);
+    }
+
+    /**
+     * Ordre de la version suivante : fusion en un passage, sans nouveau tri
+     * des entités déjà classées.
+     */
+    private NameOrder<T> patched(List<String> removedKeys, List<T> removed, List<String> addedKeys, List<T> added) {
+        boolean[] skip = new boolean[keys.length];
+        int skipped = 0;
+        for (int r = 0; r < removed.size(); r++) {
+            String key = removedKeys.get(r);
+            for (int i = lowerBound(key); i < keys.length && keys[i].equals(key); i++) {
+                if (items[i] == removed.get(r) && !skip[i]) {
+                    skip[i] = true;
+                    skipped++;
+                    break;
+                }
+            }
+        }
+        Integer[] order = new Integer[added.size()];
+        for (int j = 0; j < order.length; j++) {
+            order[j] = j;
+        }
+        Arrays.sort(order, Comparator.comparing(addedKeys::get));
+
+        int size = keys.length - skipped + order.length;
+        String[] nextKeys = new String[size];
+        Object[] nextItems = new Object[size];
+        int n = 0;
+        int j = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (skip[i]) {
+                continue;
+            }
+            // Ajouts après les homonymes déjà présents
+            while (j < order.length && addedKeys.get(order[j]).compareTo(keys[i]) < 0) {
+                nextKeys[n] = addedKeys.get(order[j]);
+                nextItems[n++] = added.get(order[j++]);
+            }
+            nextKeys[n] = keys[i];
+            nextItems[n++] = items[i];
+        }
+        while (j < order.length) {
+            nextKeys[n] = addedKeys.get(order[j]);
+            nextItems[n++] = added.get(order[j++]);
+        }
+        return new NameOrder<>(nextKeys, nextItems, lastName, firstName);
+    }
+
+    /**
+     * @param lastName  nom de la dernière entité déjà servie ({@code null} :
+     *                  depuis le début)
+     * @param firstName prénom de la dernière entité déjà servie
+     * @param limit     nombre d’entités voulues
+     */
+    Page<T> after(String lastName, String firstName, int limit) {
+        int from = lastName == null ? 0 : upperBound(sortKey(lastName, firstName));
+        int to = (int) Math.min((long) from + Math.max(limit, 1), keys.length);
+        while (to < keys.length && to > from && keys[to].equals(keys[to - 1])) {
+            to++;
+        }
+        return new Page<>(sorted.subList(from, to), to < keys.length);
+    }
+
+    /** Premier indice dont la clé est supérieure ou égale. */
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Premier indice dont la clé est strictement supérieure. */
+    private int upperBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Nom puis prénom ; le séparateur est inférieur à tout caractère. */
+    private static String sortKey(String lastName, String firstName) {
+        return lower(lastName) + '\u0000' + lower(firstName);
+    }
+
+    private static String lower(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Entités ajoutées et retirées depuis un ordre déjà construit, tenues
+     * par le builder d’un snapshot. Sans ordre de départ (jamais demandé),
+     * ou au-delà de {@value #MAX_CHANGES} changements, rien n’est suivi :
+     * l’ordre sera trié à la première page demandée.
+     */
+    static final class Changes<T> {
+
+        private static final int MAX_CHANGES = 256;
+
+        private static final Changes<?> UNTRACKED = new Changes<>(null);
+
+        private final NameOrder<T> base;
+        private final List<String> addedKeys = new ArrayList<>();
+        private final List<T> added = new ArrayList<>();
+        private final List<String> removedKeys = new ArrayList<>();
+        private final List<T> removed = new ArrayList<>();
+
+        private Changes(NameOrder<T> base) {
+            this.base = base;
+        }
+
+        /**
+         * @param order   ordre de la version de départ, s’il a été construit
+         * @param pending changements encore en attente dans cette version
+         */
+        @SuppressWarnings("unchecked")
+        static <T> Changes<T> after(NameOrder<T> order, Changes<T> pending) {
+            if (order != null) {
+                return new Changes<>(order);
+            }
+            if (pending == null || !pending.isTracked()) {
+                return (Changes<T>) UNTRACKED;
+            }
+            Changes<T> next = new Changes<>(pending.base);
+            next.addedKeys.addAll(pending.addedKeys);
+            next.added.addAll(pending.added);
+            next.removedKeys.addAll(pending.removedKeys);
+            next.removed.addAll(pending.removed);
+            return next;
+        }
+
+        /** Clé lue à l’ajout ou au retrait : l’entité n’est plus relue ensuite. */
+        void add(T entity) {
+            if (isTracked()) {
+                addedKeys.add(base.keyOf(entity));
+                added.add(entity);
+            }
+        }
+
+        void remove(T entity) {
+            if (!isTracked()) {
+                return;
+            }
+            for (int i = 0; i < added.size(); i++) {
+                if (added.get(i) == entity) {
+                    addedKeys.remove(i);
+                    added.remove(i);
+                    return;
+                }
+            }
+            removedKeys.add(base.keyOf(entity));
+            removed.add(entity);
+        }
+
+        private boolean isTracked() {
+            return base != null && added.size() + removed.size() <= MAX_CHANGES;
+        }
+
+        /** Ordre de départ, tel quel si rien n’a changé ; sinon {@code null}. */
+        NameOrder<T> unchanged() {
+            return base != null && added.isEmpty() && removed.isEmpty() ? base : null;
+        }
+
+        /** Changements à fusionner plus tard ; {@code null} si non suivis. */
+        Changes<T> pending() {
+            return isTracked() && unchanged() == null ? this : null;
+        }
+
+        NameOrder<T> apply() {
+            return base.patched(removedKeys, removed, addedKeys, added);
+        }
+    }
+
+    private String keyOf(T entity) {
+        return sortKey(lastName.apply(entity), firstName.apply(entity));
+    }
+}
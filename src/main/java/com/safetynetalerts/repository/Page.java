@@ -0,0 +1,27 @@
+package com.safetynetalerts.repository;
+
+import java.util.List;
+
+/**
+ * Tranche d’une liste ordonnée et indication d’une suite éventuelle.
+ */
+public final class Page<T> {
+
+    private final List<T> items;
+    private final boolean more;
+
+    Page(List<T> items, boolean more) {
+        this.items = items;
+        this.more = more;
+    }
+
+    /** Éléments de la page (non modifiable). */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /** {@code true} s’il reste des éléments après cette page. */
+    public boolean hasMore() {
+        return more;
+    }
+}
@@ -0,0 +1,70 @@
+package com.safetynetalerts.repository;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compteurs de persistance : nombre d’écritures, taille des lots
+ * (sauvegardes regroupées en une seule écriture) et latence d’écriture.
+ */
+public class PersistenceMetrics {
+
+    private long flushCount;
+    private long savesFlushed;
+    private int lastBatchSize;
+    private int maxBatchSize;
+    private long lastFlushNanos;
+    private long maxFlushNanos;
+    private long totalFlushNanos;
+
+    synchronized void record(int batchSize, long elapsedNanos) {
+        flushCount++;
+        savesFlushed += batchSize;
+        lastBatchSize = batchSize;
+        maxBatchSize = Math.max(maxBatchSize, batchSize);
+        lastFlushNanos = elapsedNanos;
+        maxFlushNanos = Math.max(maxFlushNanos, elapsedNanos);
+        totalFlushNanos += elapsedNanos;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Accesseurs */
+    /* ------------------------------------------------------------------ */
+
+    /** Nombre d’écritures physiques effectuées. */
+    public synchronized long getFlushCount() {
+        return flushCount;
+    }
+
+    /** Nombre de sauvegardes demandées et prises en compte par ces écritures. */
+    public synchronized long getSavesFlushed() {
+        return savesFlushed;
+    }
+
+    public synchronized int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public synchronized int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public synchronized double getAverageBatchSize() {
+        return flushCount == 0 ? 0 : (double) savesFlushed / flushCount;
+    }
+
+    public synchronized double getLastFlushMillis() {
+        return toMillis(lastFlushNanos);
+    }
+
+    public synchronized double getMaxFlushMillis() {
+        return toMillis(maxFlushNanos);
+    }
+
+    public synchronized double getAverageFlushMillis() {
+        return flushCount == 0 ? 0 : toMillis(totalFlushNanos / flushCount);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,17 @@
+package com.safetynetalerts.repository;
+
+/**
+ * Stratégie de persistance du {@link DataRepository}
+ * (propriété {@code data.persistence.mode}).
+ */
+public enum PersistenceMode {
+
+    /** Réécriture complète du fichier JSON à chaque sauvegarde. */
+    SNAPSHOT,
+
+    /**
+     * Ajout des mutations dans un journal ; le fichier JSON n’est réécrit
+     * que lors des compactions périodiques.
+     */
+    JOURNAL
+}
@@ -0,0 +1,104 @@
+package com.safetynetalerts.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Écrivain d’arrière-plan à validation groupée (« group commit »).
+ *
+ * Chaque sauvegarde demandée marque simplement l’état comme modifié ; un
+ * thread unique effectue une seule écriture pour toutes les sauvegardes
+ * accumulées, soit à intervalle régulier, soit dès que le nombre de
+ * sauvegardes en attente atteint la taille de lot configurée.
+ */
+class PersistenceWriter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PersistenceWriter.class);
+
+    private final Runnable flushAction;
+    private final int batchSize;
+    private final PersistenceMetrics metrics;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "data-persistence-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** Sauvegardes demandées depuis la dernière écriture. */
+    private int dirty;
+    /** Complété à la fin de la prochaine écriture. */
+    private CompletableFuture<Void> nextFlush = new CompletableFuture<>();
+
+    PersistenceWriter(Runnable flushAction, long intervalMillis, int batchSize, PersistenceMetrics metrics) {
+        this.flushAction = flushAction;
+        this.batchSize = batchSize;
+        this.metrics = metrics;
+        executor.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Enregistre une sauvegarde à effectuer.
+     *
+     * @return futur complété une fois l’état courant écrit sur disque
+     */
+    synchronized CompletableFuture<Void> markDirty() {
+        dirty++;
+        CompletableFuture<Void> flushed = nextFlush;
+        if (dirty == batchSize) {
+            executor.execute(this::flush);
+        }
+        return flushed;
+    }
+
+    /** Écrit, en une fois, toutes les sauvegardes en attente. */
+    private void flush() {
+        int batch;
+        CompletableFuture<Void> flushed;
+        synchronized (this) {
+            if (dirty == 0) {
+                return;
+            }
+            batch = dirty;
+            flushed = nextFlush;
+            dirty = 0;
+            nextFlush = new CompletableFuture<>();
+        }
+        long start = System.nanoTime();
+        RuntimeException failure = null;
+        try {
+            flushAction.run();
+        } catch (RuntimeException e) {
+            LOG.error("Échec de l’écriture groupée ({} sauvegarde(s))", batch, e);
+            synchronized (this) {
+                // Toujours à écrire : nouvelle tentative au prochain passage
+                dirty += batch;
+            }
+            failure = e;
+        }
+        // Mesures enregistrées avant de réveiller les appelants
+        metrics.record(batch, System.nanoTime() - start);
+        if (failure == null) {
+            flushed.complete(null);
+        } else {
+            flushed.completeExceptionally(failure);
+        }
+    }
+
+    /** Arrête le thread d’écriture après une dernière écriture. */
+    void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                LOG.warn("Écrivain de persistance non arrêté dans les temps");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+}
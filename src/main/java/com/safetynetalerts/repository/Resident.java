@@ -0,0 +1,105 @@
+package com.safetynetalerts.repository;
+
+import com.safetynetalerts.model.MedicalRecord;
+import com.safetynetalerts.model.Person;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Vue « habitant » pré-jointe : une personne, son dossier médical, sa date
+ * de naissance déjà parsée et la caserne qui dessert son adresse.
+ *
+ * La date de naissance est conservée en jour epoch ({@code int}) : le
+ * calcul d’âge par requête se fait sans parsing ni allocation.
+ *
+ * Les instances sont créées par {@link DataRepository} à chaque ajout /
+ * modification / suppression ; les services n’ont donc plus à refaire la
+ * jointure Person ⇄ MedicalRecord à chaque requête. Une instance est
+ * immuable : un changement de dossier ou de caserne produit un nouvel
+ * habitant dans la version suivante du {@link DataSnapshot}.
+ */
+public class Resident {
+
+    private static final DateTimeFormatter BIRTHDATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
+    /** Jour epoch d’un habitant sans date de naissance exploitable. */
+    public static final int NO_BIRTHDATE = Integer.MIN_VALUE;
+
+    private final Person person;
+    private final MedicalRecord medicalRecord;
+    private final int birthEpochDay;
+    private final String station;
+
+    Resident(Person person, MedicalRecord medicalRecord, String station) {
+        this(person, medicalRecord,
+                medicalRecord == null ? NO_BIRTHDATE : parseBirthdate(medicalRecord.getBirthdate()), station);
+    }
+
+    private Resident(Person person, MedicalRecord medicalRecord, int birthEpochDay, String station) {
+        this.person = person;
+        this.medicalRecord = medicalRecord;
+        this.birthEpochDay = birthEpochDay;
+        this.station = station;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Accesseurs */
+    /* ------------------------------------------------------------------ */
+
+    public Person getPerson() {
+        return person;
+    }
+
+    /** Dossier médical associé, ou {@code null} s’il n’existe pas. */
+    public MedicalRecord getMedicalRecord() {
+        return medicalRecord;
+    }
+
+    /** {@code false} sans dossier (ou avec une date illisible). */
+    public boolean hasBirthDate() {
+        return birthEpochDay != NO_BIRTHDATE;
+    }
+
+    /** Date de naissance en jour epoch, ou {@link #NO_BIRTHDATE}. */
+    public int getBirthEpochDay() {
+        return birthEpochDay;
+    }
+
+    /** Date de naissance, ou {@code null} sans dossier (ou date illisible). */
+    public LocalDate getBirthDate() {
+        return hasBirthDate() ? LocalDate.ofEpochDay(birthEpochDay) : null;
+    }
+
+    /** Numéro de caserne desservant l’adresse, ou {@code null}. */
+    public String getStation() {
+        return station;
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Copies modifiées (réservées au repository) */
+    /* ------------------------------------------------------------------ */
+
+    Resident withPerson(Person person) {
+        return new Resident(person, medicalRecord, birthEpochDay, station);
+    }
+
+    Resident withMedicalRecord(MedicalRecord medicalRecord) {
+        return new Resident(person, medicalRecord, station);
+    }
+
+    Resident withStation(String station) {
+        return new Resident(person, medicalRecord, birthEpochDay, station);
+    }
+
+    private static int parseBirthdate(String birthdate) {
+        try {
+            return birthdate == null
+                    ? NO_BIRTHDATE
+                    : Math.toIntExact(LocalDate.parse(birthdate, BIRTHDATE_FORMAT).toEpochDay());
+        } catch (DateTimeParseException e) {
+            return NO_BIRTHDATE;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.safetynetalerts.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Multiensemble immuable de chaînes (valeur → nombre d’occurrences), à
+ * partage structurel.
+ *
+ * Sert d’ensemble à compteur de références : une valeur reste présente
+ * tant qu’une occurrence au moins n’a pas été retirée. Les valeurs sont
+ * réparties dans {@value #SEGMENTS} segments ; une modification ne
+ * recopie que le segment touché. Les valeurs {@code null} sont ignorées.
+ */
+final class SnapshotBag {
+
+    private static final int SEGMENTS = 64;
+
+    private static final SnapshotBag EMPTY = new SnapshotBag(new Map<?, ?>[SEGMENTS], 0);
+
+    /** Segments ; {@code null} pour un segment vide. */
+    private final Map<String, Integer>[] segments;
+    private final int distinct;
+    /** Valeurs distinctes, matérialisées à la première lecture. */
+    private volatile List<String> values;
+
+    private SnapshotBag(Map<?, ?>[] segments, int distinct) {
+        @SuppressWarnings("unchecked")
+        Map<String, Integer>[] typed = (Map<String, Integer>[]) segments;
+        this.segments = typed;
+        this.distinct = distinct;
+    }
+
+    static SnapshotBag empty() {
+        return EMPTY;
+    }
+
+    /** Nombre de valeurs distinctes. */
+    int distinct() {
+        return distinct;
+    }
+
+    int count(String value) {
+        if (value == null) {
+            return 0;
+        }
+        Map<String, Integer> segment = segments[segmentOf(value)];
+        Integer count = segment == null ? null : segment.get(value);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Valeurs distinctes, dans un ordre quelconque. La liste est construite
+     * une fois par version du multiensemble, puis retournée telle quelle.
+     */
+    List<String> values() {
+        List<String> list = values;
+        if (list == null) {
+            // Construction idempotente : une course ne fait que la dupliquer
+            List<String> all = new ArrayList<>(distinct);
+            forEach(all::add);
+            list = Collections.unmodifiableList(all);
+            values = list;
+        }
+        return list;
+    }
+
+    /** Parcourt chaque valeur distincte une fois. */
+    void forEach(Consumer<String> action) {
+        for (Map<String, Integer> segment : segments) {
+            if (segment != null) {
+                segment.keySet().forEach(action);
+            }
+        }
+    }
+
+    Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    private static int segmentOf(String value) {
+        int h = value.hashCode();
+        return (h ^ (h >>> 16)) & (SEGMENTS - 1);
+    }
+
+    /** Prépare la version suivante ; segments recopiés au premier accès en écriture. */
+    static final class Builder {
+
+        private Map<String, Integer>[] segments;
+        private int distinct;
+        private boolean[] owned;
+
+        private Builder(SnapshotBag base) {
+            this.segments = base.segments;
+            this.distinct = base.distinct;
+        }
+
+        void add(String value) {
+            if (value == null) {
+                return;
+            }
+            if (ownedSegment(value).merge(value, 1, Integer::sum) == 1) {
+                distinct++;
+            }
+        }
+
+        void remove(String value) {
+            if (value == null) {
+                return;
+            }
+            Map<String, Integer> current = segments[segmentOf(value)];
+            if (current == null || !current.containsKey(value)) {
+                return;
+            }
+            if (ownedSegment(value).merge(value, -1, Integer::sum) == 0) {
+                segments[segmentOf(value)].remove(value);
+                distinct--;
+            }
+        }
+
+        boolean isEmpty() {
+            return distinct == 0;
+        }
+
+        SnapshotBag build() {
+            SnapshotBag bag = new SnapshotBag(segments, distinct);
+            owned = null;
+            return bag;
+        }
+
+        private Map<String, Integer> ownedSegment(String value) {
+            int s = segmentOf(value);
+            if (owned == null) {
+                segments = segments.clone();
+                owned = new boolean[SEGMENTS];
+            }
+            if (!owned[s]) {
+                segments[s] = segments[s] == null ? new HashMap<>() : new HashMap<>(segments[s]);
+                owned[s] = true;
+            }
+            return segments[s];
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.safetynetalerts.repository;
+
+import com.safetynetalerts.model.Firestation;
+import com.safetynetalerts.model.MedicalRecord;
+import com.safetynetalerts.model.Person;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Conversion JSON ⇄ {@link BinarySnapshot}, hors application.
+ *
+ * <pre>
+ * java -cp target/SafetyNetAlerts-0.0.1-SNAPSHOT.jar \
+ *     -Dloader.main=com.safetynetalerts.repository.SnapshotConverter \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher \
+ *     to-binary data.json data.json.bin
+ * </pre>
+ * ({@code to-json data.json.bin data.json} pour le sens inverse).
+ */
+public final class SnapshotConverter {
+
+    private SnapshotConverter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage : SnapshotConverter to-binary|to-json <source> <cible>");
+            System.exit(2);
+        }
+        Path source = Path.of(args[1]);
+        Path target = Path.of(args[2]);
+        switch (args[0]) {
+            case "to-binary" -> toBinary(source, target);
+            case "to-json" -> toJson(source, target, true);
+            default -> {
+                System.err.println("Sens de conversion inconnu : " + args[0]);
+                System.exit(2);
+            }
+        }
+    }
+
+    /** Convertit un fichier data.json en snapshot binaire. */
+    public static void toBinary(Path json, Path binary) throws IOException {
+        Content content = new Content();
+        try (InputStream in = Files.newInputStream(json)) {
+            new JsonDataReader().read(in, content.persons::add, content.firestations::add,
+                    content.medicalRecords::add);
+        }
+        new BinarySnapshot().write(binary, content.persons, content.firestations, content.medicalRecords);
+    }
+
+    /** Convertit un snapshot binaire en fichier data.json. */
+    public static void toJson(Path binary, Path json, boolean prettyPrint) throws IOException {
+        Content content = new Content();
+        new BinarySnapshot().read(binary, content.persons::add, content.firestations::add,
+                content.medicalRecords::add);
+        new JsonDataWriter().write(json, content.persons, content.firestations, content.medicalRecords,
+                prettyPrint);
+    }
+
+    private static final class Content {
+        private final List<Person> persons = new ArrayList<>();
+        private final List<Firestation> firestations = new ArrayList<>();
+        private final List<MedicalRecord> medicalRecords = new ArrayList<>();
+    }
+}
@@ -0,0 +1,23 @@
+package com.safetynetalerts.repository;
+
+/**
+ * Format(s) du snapshot écrit par le {@link DataRepository}
+ * (propriété {@code data.snapshot.format}).
+ */
+public enum SnapshotFormat {
+
+    /** Fichier JSON uniquement (comportement historique). */
+    JSON,
+
+    /**
+     * Fichier JSON, format d’échange, doublé d’un {@link BinarySnapshot}
+     * utilisé au démarrage tant qu’il n’est pas plus ancien que le JSON.
+     */
+    JSON_AND_BINARY,
+
+    /**
+     * Snapshot binaire seul ; le JSON n’est plus lu qu’en l’absence de
+     * fichier binaire (première migration).
+     */
+    BINARY
+}
@@ -0,0 +1,196 @@
+package com.safetynetalerts.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Index immuable clé → liste de valeurs, à partage structurel.
+ *
+ * Les clés sont réparties dans {@value #SEGMENTS} segments ; une
+ * modification ne recopie que les segments et les listes qu’elle touche,
+ * le reste est partagé avec la version précédente. Une instance publiée
+ * n’est plus jamais modifiée : elle peut être lue sans verrou.
+ *
+ * @param <V> type des valeurs
+ */
+final class SnapshotIndex<V> {
+
+    private static final int SEGMENTS = 1024;
+
+    private static final SnapshotIndex<?> EMPTY = new SnapshotIndex<>(new Map<?, ?>[SEGMENTS]);
+
+    /** Segments ; {@code null} pour un segment vide. */
+    private final Map<String, List<V>>[] segments;
+
+    private SnapshotIndex(Map<?, ?>[] segments) {
+        @SuppressWarnings("unchecked")
+        Map<String, List<V>>[] typed = (Map<String, List<V>>[]) segments;
+        this.segments = typed;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> SnapshotIndex<V> empty() {
+        return (SnapshotIndex<V>) EMPTY;
+    }
+
+    /** Valeurs de la clé (liste non modifiable, vide si absente). */
+    List<V> get(String key) {
+        Map<String, List<V>> segment = segments[segmentOf(key)];
+        List<V> values = segment == null ? null : segment.get(key);
+        return values == null ? List.of() : Collections.unmodifiableList(values);
+    }
+
+    /** Première valeur de la clé, ou {@code null}. */
+    V first(String key) {
+        Map<String, List<V>> segment = segments[segmentOf(key)];
+        List<V> values = segment == null ? null : segment.get(key);
+        return values == null ? null : values.get(0);
+    }
+
+    void forEach(BiConsumer<String, List<V>> action) {
+        for (Map<String, List<V>> segment : segments) {
+            if (segment != null) {
+                segment.forEach((k, v) -> action.accept(k, Collections.unmodifiableList(v)));
+            }
+        }
+    }
+
+    Builder<V> toBuilder() {
+        return new Builder<>(this);
+    }
+
+    private static int segmentOf(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (SEGMENTS - 1);
+    }
+
+    /**
+     * Prépare la version suivante. Segments et listes sont recopiés au
+     * premier accès en écriture puis modifiés sur place : une série de
+     * modifications (chargement complet) ne paie chaque copie qu’une fois.
+     */
+    static final class Builder<V> {
+
+        private Map<String, List<V>>[] segments;
+        private boolean[] ownedSegments;
+        private final Set<List<V>> ownedLists = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private Builder(SnapshotIndex<V> base) {
+            this.segments = base.segments;
+        }
+
+        List<V> get(String key) {
+            Map<String, List<V>> segment = segments[segmentOf(key)];
+            List<V> values = segment == null ? null : segment.get(key);
+            return values == null ? List.of() : Collections.unmodifiableList(values);
+        }
+
+        V first(String key) {
+            Map<String, List<V>> segment = segments[segmentOf(key)];
+            List<V> values = segment == null ? null : segment.get(key);
+            return values == null ? null : values.get(0);
+        }
+
+        /** Parcourt les clés et valeurs de cette version en préparation. */
+        void forEach(BiConsumer<String, List<V>> action) {
+            for (Map<String, List<V>> segment : segments) {
+                if (segment != null) {
+                    segment.forEach((k, v) -> action.accept(k, Collections.unmodifiableList(v)));
+                }
+            }
+        }
+
+        void add(String key, V value) {
+            ownedList(key, true).add(value);
+        }
+
+        /** Ajoute la valeur si elle n’est pas déjà présente (égalité {@code equals}). */
+        void addIfAbsent(String key, V value) {
+            List<V> values = get(key);
+            if (!values.contains(value)) {
+                add(key, value);
+            }
+        }
+
+        /** Retire la valeur (même instance, ou {@code equals} pour les chaînes). */
+        void remove(String key, V value) {
+            if (get(key).isEmpty()) {
+                return;
+            }
+            List<V> values = ownedList(key, false);
+            for (int i = 0; i < values.size(); i++) {
+                if (same(values.get(i), value)) {
+                    values.remove(i);
+                    break;
+                }
+            }
+            if (values.isEmpty()) {
+                ownedSegment(key).remove(key);
+            }
+        }
+
+        /** Remplace l’instance {@code previous} par {@code value} dans la liste. */
+        void replace(String key, V previous, V value) {
+            if (get(key).isEmpty()) {
+                return;
+            }
+            List<V> values = ownedList(key, false);
+            for (int i = 0; i < values.size(); i++) {
+                if (values.get(i) == previous) {
+                    values.set(i, value);
+                }
+            }
+        }
+
+        /** Retire toute la clé et renvoie ses valeurs. */
+        List<V> removeAll(String key) {
+            List<V> values = get(key);
+            if (!values.isEmpty()) {
+                ownedSegment(key).remove(key);
+            }
+            return values;
+        }
+
+        SnapshotIndex<V> build() {
+            SnapshotIndex<V> index = new SnapshotIndex<>(segments);
+            // Tout ce qui vient d’être publié redevient partagé
+            ownedSegments = null;
+            ownedLists.clear();
+            return index;
+        }
+
+        private List<V> ownedList(String key, boolean create) {
+            Map<String, List<V>> segment = ownedSegment(key);
+            List<V> values = segment.get(key);
+            if (values == null || !ownedLists.contains(values)) {
+                values = values == null ? new ArrayList<>(create ? 1 : 0) : new ArrayList<>(values);
+                ownedLists.add(values);
+                segment.put(key, values);
+            }
+            return values;
+        }
+
+        private Map<String, List<V>> ownedSegment(String key) {
+            int s = segmentOf(key);
+            if (ownedSegments == null) {
+                segments = segments.clone();
+                ownedSegments = new boolean[SEGMENTS];
+            }
+            if (!ownedSegments[s]) {
+                segments[s] = segments[s] == null ? new HashMap<>() : new HashMap<>(segments[s]);
+                ownedSegments[s] = true;
+            }
+            return segments[s];
+        }
+
+        private static boolean same(Object a, Object b) {
+            return a == b || (a instanceof String && a.equals(b));
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.safetynetalerts.repository;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Liste immuable découpée en blocs, à partage structurel.
+ *
+ * Un ajout ne recopie que le dernier bloc, une suppression ou un
+ * remplacement que le bloc concerné ; les autres blocs sont partagés avec
+ * la version précédente. L’ordre d’insertion est conservé.
+ *
+ * L’accès par position parcourt les blocs : la liste est faite pour être
+ * itérée (volontairement pas {@code RandomAccess}).
+ *
+ * Un élément ne change jamais de bloc. Les versions d’une même lignée
+ * partagent un index instance → bloc, tenu à jour par les constructeurs
+ * (un seul à la fois, sous le moniteur du repository) : une suppression ou
+ * un remplacement ne parcourt que le bloc concerné.
+ *
+ * @param <T> type des éléments
+ */
+final class SnapshotList<T> extends AbstractList<T> {
+
+    private static final int CHUNK = 1024;
+
+    private static final SnapshotList<?> EMPTY = new SnapshotList<>(new Object[0][], new int[0], 0, null);
+
+    private final Object[][] chunks;
+    /** Nombre d’éléments utiles de chaque bloc (un bloc peut être plus grand). */
+    private final int[] lengths;
+    private final int size;
+    /** Bloc de chaque instance, partagé par la lignée ; {@code null} pour la liste vide commune. */
+    private final IdentityHashMap<Object, Integer> chunkOf;
+
+    private SnapshotList(Object[][] chunks, int[] lengths, int size, IdentityHashMap<Object, Integer> chunkOf) {
+        this.chunks = chunks;
+        this.lengths = lengths;
+        this.size = size;
+        this.chunkOf = chunkOf;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> SnapshotList<T> empty() {
+        return (SnapshotList<T>) EMPTY;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        for (int c = 0; c < chunks.length; c++) {
+            if (index < lengths[c]) {
+                return (T) chunks[c][index];
+            }
+            index -= lengths[c];
+        }
+        throw new IndexOutOfBoundsException(index);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private int chunk;
+            private int offset;
+
+            @Override
+            public boolean hasNext() {
+                while (chunk < chunks.length && offset >= lengths[chunk]) {
+                    chunk++;
+                    offset = 0;
+                }
+                return chunk < chunks.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return (T) chunks[chunk][offset++];
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super T> action) {
+        for (int c = 0; c < chunks.length; c++) {
+            for (int i = 0; i < lengths[c]; i++) {
+                action.accept((T) chunks[c][i]);
+            }
+        }
+    }
+
+    Builder<T> toBuilder() {
+        return new Builder<>(this);
+    }
+
+    /** Prépare la version suivante ; blocs recopiés au premier accès en écriture. */
+    static final class Builder<T> {
+
+        private Object[][] chunks;
+        private int[] lengths;
+        private int size;
+        private boolean[] owned;
+        private final IdentityHashMap<Object, Integer> chunkOf;
+        /** Position dans son bloc de la dernière instance trouvée par {@link #locate}. */
+        private int offset;
+
+        private Builder(SnapshotList<T> base) {
+            this.chunks = base.chunks;
+            this.lengths = base.lengths;
+            this.size = base.size;
+            this.chunkOf = base.chunkOf != null ? base.chunkOf : new IdentityHashMap<>();
+        }
+
+        int size() {
+            return size;
+        }
+
+        void add(T element) {
+            own();
+            int last = chunks.length - 1;
+            if (last < 0 || lengths[last] == CHUNK) {
+                chunks = Arrays.copyOf(chunks, chunks.length + 1);
+                lengths = Arrays.copyOf(lengths, lengths.length + 1);
+                owned = Arrays.copyOf(owned, owned.length + 1);
+                last++;
+                chunks[last] = new Object[16];
+                owned[last] = true;
+            } else if (!owned[last] || lengths[last] == chunks[last].length) {
+                chunks[last] = Arrays.copyOf(chunks[last], Math.min(CHUNK, Math.max(16, lengths[last] * 2)));
+                owned[last] = true;
+            }
+            chunks[last][lengths[last]++] = element;
+            chunkOf.put(element, last);
+            size++;
+        }
+
+        /** Retire l’instance ; {@code false} si absente. */
+        boolean remove(T element) {
+            int c = locate(element);
+            if (c < 0) {
+                return false;
+            }
+            Object[] chunk = ownChunk(c);
+            System.arraycopy(chunk, offset + 1, chunk, offset, lengths[c] - offset - 1);
+            chunk[--lengths[c]] = null;
+            chunkOf.remove(element);
+            size--;
+            return true;
+        }
+
+        /** Remplace l’instance {@code previous}, à la même position. */
+        boolean replace(T previous, T element) {
+            int c = locate(previous);
+            if (c < 0) {
+                return false;
+            }
+            ownChunk(c)[offset] = element;
+            chunkOf.remove(previous);
+            chunkOf.put(element, c);
+            return true;
+        }
+
+        SnapshotList<T> build() {
+            SnapshotList<T> list = new SnapshotList<>(chunks, lengths, size, chunkOf);
+            owned = null;
+            return list;
+        }
+
+        /**
+         * Bloc contenant l’instance (sa position dans le bloc est rangée dans
+         * {@link #offset}), ou -1 si absente. L’index n’est qu’une indication :
+         * un constructeur abandonné a pu le modifier sans publier sa version,
+         * auquel cas on se rabat sur un parcours complet.
+         */
+        private int locate(Object element) {
+            Integer hint = chunkOf.get(element);
+            if (hint != null && hint < chunks.length && findIn(hint, element)) {
+                return hint;
+            }
+            for (int c = 0; c < chunks.length; c++) {
+                if (findIn(c, element)) {
+                    return c;
+                }
+            }
+            return -1;
+        }
+
+        private boolean findIn(int c, Object element) {
+            for (int i = 0; i < lengths[c]; i++) {
+                if (chunks[c][i] == element) {
+                    offset = i;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private Object[] ownChunk(int c) {
+            own();
+            if (!owned[c]) {
+                chunks[c] = chunks[c].clone();
+                owned[c] = true;
+            }
+            return chunks[c];
+        }
+
+        /** Recopie les tableaux de tête, partagés avec la version publiée. */
+        private void own() {
+            if (owned == null) {
+                chunks = chunks.clone();
+                lengths = lengths.clone();
+                owned = new boolean[chunks.length];
+            }
+        }
+    }
+}
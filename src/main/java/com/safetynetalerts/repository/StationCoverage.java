@@ -0,0 +1,118 @@
+package com.safetynetalerts.repository;
+
+import java.util.List;
+
+/**
+ * Agrégats d’une caserne : habitants des adresses desservies, adultes,
+ * enfants et téléphones distincts.
+ *
+ * Tenus à jour par {@link DataSnapshot.Builder} à chaque changement de
+ * personne, de dossier médical ou de mapping ; les lire ne coûte rien.
+ * Le partage adultes / enfants se fait par rapport à une date de naissance
+ * seuil ({@link DataSnapshot#getChildBirthDayThreshold()}), fixée au
+ * chargement puis recalculée par la bascule de minuit. Un habitant sans date de naissance n’est compté ni
+ * comme adulte ni comme enfant.
+ */
+public final class StationCoverage {
+
+    /** Âge jusqu’auquel un habitant est compté comme enfant. */
+    public static final int CHILD_MAX_AGE = 18;
+
+    static final StationCoverage EMPTY = new StationCoverage(0, 0, 0, SnapshotBag.empty());
+
+    private final int residents;
+    private final int dated;
+    private final int children;
+    private final SnapshotBag phones;
+
+    private StationCoverage(int residents, int dated, int children, SnapshotBag phones) {
+        this.residents = residents;
+        this.dated = dated;
+        this.children = children;
+        this.phones = phones;
+    }
+
+    public int getResidents() {
+        return residents;
+    }
+
+    public int getAdults() {
+        return dated - children;
+    }
+
+    public int getChildren() {
+        return children;
+    }
+
+    public int getDistinctPhones() {
+        return phones.distinct();
+    }
+
+    /**
+     * Téléphones distincts des habitants couverts. Un numéro partagé par
+     * plusieurs habitants reste présent tant que l’un d’eux est couvert.
+     * Liste construite une fois par version, puis retournée telle quelle.
+     */
+    public List<String> getPhones() {
+        return phones.values();
+    }
+
+    SnapshotBag phones() {
+        return phones;
+    }
+
+    Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    /** Agrégats en cours de modification. */
+    static final class Builder {
+
+        private int residents;
+        private int dated;
+        private int children;
+        private final SnapshotBag.Builder phones;
+
+        private Builder(StationCoverage base) {
+            this.residents = base.residents;
+            this.dated = base.dated;
+            this.children = base.children;
+            this.phones = base.phones.toBuilder();
+        }
+
+        void add(Resident r, int childBirthDayThreshold) {
+            residents++;
+            if (r.hasBirthDate()) {
+                dated++;
+                if (r.getBirthEpochDay() >= childBirthDayThreshold) {
+                    children++;
+                }
+            }
+            phones.add(r.getPerson().getPhone());
+        }
+
+        void remove(Resident r, int childBirthDayThreshold) {
+            residents--;
+            if (r.hasBirthDate()) {
+                dated--;
+                if (r.getBirthEpochDay() >= childBirthDayThreshold) {
+                    children--;
+                }
+            }
+            phones.remove(r.getPerson().getPhone());
+        }
+
+        /** Recompte les enfants pour un nouveau seuil (bascule de minuit). */
+        void setChildren(int children) {
+            this.children = children;
+        }
+
+        boolean isEmpty() {
+            return residents == 0;
+        }
+
+        StationCoverage build() {
+            return new StationCoverage(residents, dated, children, phones.build());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.safetynetalerts.repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionnaire de chaînes partagées.
+ *
+ * Les champs à faible cardinalité (ville, code postal, adresse, caserne,
+ * médicaments, allergies) arrivent de Jackson sous forme d’une instance
+ * {@link String} distincte par ligne ; ils sont remplacés ici par une
+ * instance unique par valeur. Contrairement à {@link String#intern()}, le
+ * dictionnaire est propre au repository et vidé à chaque rechargement.
+ *
+ * Rien n’est évincé entre deux rechargements : une valeur qui n’est plus
+ * portée par aucune entité (personne supprimée, adresse modifiée) reste
+ * dans le dictionnaire. Sa taille est donc un majorant des valeurs
+ * distinctes en usage.
+ *
+ * Alimenté par l’écrivain (moniteur du repository) ; seule la taille est
+ * lue ailleurs, sans verrou.
+ */
+class StringPool {
+
+    private final Map<String, String> values = new HashMap<>();
+    private volatile int size;
+
+    /** Instance partagée égale à {@code value} ({@code null} inchangé). */
+    String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String shared = values.putIfAbsent(value, value);
+        if (shared == null) {
+            size = values.size();
+            return value;
+        }
+        return shared;
+    }
+
+    /** Copie modifiable de la liste, éléments partagés. */
+    List<String> intern(List<String> list) {
+        if (list == null) {
+            return null;
+        }
+        List<String> result = new ArrayList<>(list.size());
+        for (String value : list) {
+            result.add(intern(value));
+        }
+        return result;
+    }
+
+    /** Valeurs entrées depuis le dernier rechargement (majorant, voir la classe). */
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        values.clear();
+        size = 0;
+    }
+
+    /**
+     * Taille approximative d’une chaîne sur une JVM 64 bits à pointeurs
+     * compressés : objet String (24 octets) + tableau (16 octets d’en-tête
+     * + contenu, 1 octet par caractère Latin-1, 2 sinon), aligné sur 8.
+     */
+    static long sizeOf(String value) {
+        int bytes = value.length();
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                bytes = value.length() * 2;
+                break;
+            }
+        }
+        return 24 + ((16 + bytes + 7) & ~7L);
+    }
+}
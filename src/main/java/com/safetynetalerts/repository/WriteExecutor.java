@@ -0,0 +1,190 @@
+package com.safetynetalerts.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * File de commandes d’écriture appliquées par un thread unique.
+ *
+ * Les threads de requête déposent leurs commandes dans une file bornée
+ * (attente si elle est pleine) ; le thread écrivain les applique dans
+ * l’ordre d’arrivée, sans concurrence entre écritures. Toutes les
+ * commandes déjà en file au moment où l’écrivain se libère forment un lot,
+ * suivi d’une seule action de fin de lot (la sauvegarde) avant de rendre
+ * la main aux appelants.
+ *
+ * Le thread est démarré à la première commande.
+ */
+class WriteExecutor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WriteExecutor.class);
+
+    private static final long STOP_CHECK_MILLIS = 200;
+
+    private final BlockingQueue<Command<?>> queue;
+    private final int maxBatch;
+    private final Runnable afterBatch;
+
+    private volatile Thread thread;
+    private volatile boolean stopped;
+
+    /**
+     * @param capacity   nombre maximal de commandes en attente
+     * @param maxBatch   nombre maximal de commandes par lot
+     * @param afterBatch action exécutée par l’écrivain après chaque lot
+     */
+    WriteExecutor(int capacity, int maxBatch, Runnable afterBatch) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatch = maxBatch;
+        this.afterBatch = afterBatch;
+    }
+
+    /**
+     * Fait appliquer la commande par l’écrivain et attend son résultat.
+     * Une commande soumise depuis l’écrivain lui-même est exécutée sur
+     * place (pas d’interblocage).
+     *
+     * @throws RuntimeException l’exception levée par la commande
+     */
+    <T> T execute(Supplier<T> action) {
+        if (Thread.currentThread() == thread) {
+            return action.get();
+        }
+        Command<T> command = new Command<>(action);
+        enqueue(command);
+        try {
+            return command.done.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /** Commandes en attente d’application. */
+    int pending() {
+        return queue.size();
+    }
+
+    private void enqueue(Command<?> command) {
+        start();
+        boolean interrupted = false;
+        try {
+            while (true) {
+                if (stopped) {
+                    throw new IllegalStateException("Écrivain arrêté : écriture refusée");
+                }
+                try {
+                    queue.put(command);
+                    return;
+                } catch (InterruptedException e) {
+                    // La commande doit être déposée : on réessaie, l’interruption est restituée
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private synchronized void start() {
+        if (thread == null && !stopped) {
+            thread = new Thread(this::run, "data-writer");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private void run() {
+        List<Command<?>> batch = new ArrayList<>(maxBatch);
+        while (!stopped || !queue.isEmpty()) {
+            try {
+                // Attente bornée plutôt qu’interruption : une sauvegarde en
+                // cours ne doit pas être interrompue par l’arrêt
+                Command<?> first = queue.poll(STOP_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, maxBatch - 1);
+            for (Command<?> command : batch) {
+                command.apply();
+            }
+            try {
+                afterBatch.run();
+            } catch (RuntimeException e) {
+                LOG.error("Échec de l’action de fin de lot ({} commande(s))", batch.size(), e);
+            }
+            batch.forEach(Command::complete);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Applique les commandes restantes puis arrête l’écrivain.
+     */
+    void shutdown() {
+        Thread t;
+        synchronized (this) {
+            stopped = true;
+            t = thread;
+        }
+        if (t != null) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Déposées pendant l’arrêt : jamais appliquées
+        List<Command<?>> rejected = new ArrayList<>();
+        queue.drainTo(rejected);
+        rejected.forEach(c -> c.done.completeExceptionally(
+                new IllegalStateException("Écrivain arrêté : écriture refusée")));
+    }
+
+    /** Commande en file et son résultat, publié après la fin du lot. */
+    private static final class Command<T> {
+
+        private final Supplier<T> action;
+        private final CompletableFuture<T> done = new CompletableFuture<>();
+        private T result;
+        private RuntimeException failure;
+
+        Command(Supplier<T> action) {
+            this.action = action;
+        }
+
+        void apply() {
+            try {
+                result = action.get();
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+
+        void complete() {
+            if (failure != null) {
+                done.completeExceptionally(failure);
+            } else {
+                done.complete(result);
+            }
+        }
+    }
+}
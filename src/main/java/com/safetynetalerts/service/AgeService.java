@@ -0,0 +1,138 @@
+package com.safetynetalerts.service;
+
+import com.safetynetalerts.repository.Resident;
+import com.safetynetalerts.repository.StationCoverage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.Period;
+
+/**
+ * Calcul d’âge partagé par les services.
+ *
+ * La date du jour n’est lue qu’une fois par jour : à minuit, la bascule
+ * planifiée ({@link FirestationService#rolloverCoverage()}) la remplace,
+ * avec le tableau des jours epoch « aujourd’hui moins k ans ». L’âge
+ * d’une date de naissance (jour epoch, voir
+ * {@link Resident#getBirthEpochDay()}) est alors le plus grand k dont la
+ * borne est postérieure ou égale à la naissance : une recherche
+ * dichotomique dans un tableau d’{@code int}, sans horloge ni allocation.
+ * Le résultat est celui de {@code Period.between(naissance, aujourdhui).getYears()}.
+ */
+@Service
+public class AgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgeService.class);
+
+    /** Âge maximal tabulé ; au-delà (ou naissance future), calcul par Period. */
+    private static final int MAX_TABULATED_AGE = 150;
+
+    /** Âge jusqu’auquel un habitant est compté comme enfant. */
+    public static final int CHILD_MAX_AGE = StationCoverage.CHILD_MAX_AGE;
+
+    private final Clock clock;
+    private volatile Today today;
+
+    public AgeService() {
+        this(Clock.systemDefaultZone());
+    }
+
+    AgeService(Clock clock) {
+        this.clock = clock;
+        this.today = new Today(LocalDate.now(clock));
+    }
+
+    /**
+     * Bascule sur la date du jour (appelée à minuit).
+     */
+    public void refresh() {
+        Today next = new Today(LocalDate.now(clock));
+        today = next;
+        logger.debug("Date de référence des âges : {}", next.date);
+    }
+
+    /** Date de référence des calculs d’âge. */
+    public LocalDate today() {
+        return today.date;
+    }
+
+    /**
+     * @return âge de l’habitant ; à n’appeler que si
+     *         {@link Resident#hasBirthDate()}
+     */
+    public int ageOf(Resident resident) {
+        return ageOf(resident.getBirthEpochDay());
+    }
+
+    /**
+     * @param birthEpochDay date de naissance en jour epoch
+     * @return nombre d’années révolues à la date de référence
+     */
+    public int ageOf(int birthEpochDay) {
+        Today t = today;
+        int[] bounds = t.bounds;
+        if (birthEpochDay > bounds[0] || birthEpochDay < bounds[MAX_TABULATED_AGE]) {
+            return Period.between(LocalDate.ofEpochDay(birthEpochDay), t.date).getYears();
+        }
+        // bounds décroissant : plus grand k tel que bounds[k] >= naissance
+        int low = 0;
+        int high = MAX_TABULATED_AGE;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (bounds[mid] >= birthEpochDay) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param maxAge âge maximal ; au-delà de {@value #MAX_TABULATED_AGE} ans
+     *               (« sans limite »), ramené à {@value #MAX_TABULATED_AGE}
+     * @return premier jour de naissance d’un habitant âgé d’au plus
+     *         {@code maxAge} ans (né le lendemain de ses {@code maxAge + 1} ans)
+     */
+    public int earliestBirthDay(int maxAge) {
+        // Borné avant le + 1 : Integer.MAX_VALUE déborderait
+        return yearsAgo(Math.min(maxAge, MAX_TABULATED_AGE) + 1) + 1;
+    }
+
+    /**
+     * @return dernier jour de naissance d’un habitant âgé d’au moins
+     *         {@code minAge} ans
+     */
+    public int latestBirthDay(int minAge) {
+        return yearsAgo(minAge);
+    }
+
+    /** Jour epoch de la date de référence moins {@code years} ans. */
+    private int yearsAgo(int years) {
+        Today t = today;
+        if (years >= 0 && years <= MAX_TABULATED_AGE) {
+            return t.bounds[years];
+        }
+        // Hors table : borné pour rester dans les limites de LocalDate
+        long day = t.date.minusYears(Math.max(-10_000, Math.min(10_000, years))).toEpochDay();
+        return (int) Math.max(Integer.MIN_VALUE + 1L, Math.min(Integer.MAX_VALUE - 1L, day));
+    }
+
+    /** Date du jour et bornes annuelles précalculées. */
+    private static final class Today {
+
+        private final LocalDate date;
+        /** bounds[k] = jour epoch de (date - k ans). */
+        private final int[] bounds = new int[MAX_TABULATED_AGE + 1];
+
+        Today(LocalDate date) {
+            this.date = date;
+            for (int k = 0; k <= MAX_TABULATED_AGE; k++) {
+                bounds[k] = Math.toIntExact(date.minusYears(k).toEpochDay());
+            }
+        }
+    }
+}
@@ -5,26 +5,70 @@ import com.safetynetalerts.model.Firestation;
 import com.safetynetalerts.model.MedicalRecord;
 import com.safetynetalerts.model.Person;
 import com.safetynetalerts.repository.DataRepository;
+import com.safetynetalerts.repository.DataSnapshot;
+import com.safetynetalerts.repository.Resident;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
-import java.time.Period;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
 
 @Service
 public class AlertService {
 
     private static final Logger logger = LoggerFactory.getLogger(AlertService.class);
 
+    /** Adresses traitées d’un bloc par une tâche de /flood/stations parallèle. */
+    private static final int FLOOD_LEAF_SIZE = 256;
+
     private final DataRepository dataRepository;
-    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+    private final AgeService ageService;
+    private final ResponseCache responseCache;
+    /** Nombre d’adresses à partir duquel /flood/stations est parallélisé. */
+    private final int floodParallelThreshold;
+    private final ForkJoinPool floodPool;
+
+    /** Service hors contexte Spring : seuil par défaut, un thread par cœur. */
+    public AlertService(DataRepository dataRepository, AgeService ageService, ResponseCache responseCache) {
+        this(dataRepository, ageService, responseCache, 2000, 0);
+    }
 
-    public AlertService(DataRepository dataRepository) {
+    /**
+     * @param floodParallelThreshold nombre d’adresses à partir duquel
+     *                               /flood/stations est calculé en parallèle
+     * @param floodParallelism       threads du pool dédié (0 : un par cœur ;
+     *                               avec un seul thread, toujours séquentiel)
+     */
+    @Autowired
+    public AlertService(DataRepository dataRepository, AgeService ageService, ResponseCache responseCache,
+            @Value("${alerts.flood.parallel-threshold:2000}") int floodParallelThreshold,
+            @Value("${alerts.flood.parallelism:0}") int floodParallelism) {
         this.dataRepository = dataRepository;
+        this.ageService = ageService;
+        this.responseCache = responseCache;
+        int threads = floodParallelism > 0 ? floodParallelism : Runtime.getRuntime().availableProcessors();
+        // Un seul thread : le découpage ne ferait qu’ajouter son coût
+        this.floodParallelThreshold = threads > 1 ? floodParallelThreshold : Integer.MAX_VALUE;
+        // Pool dédié : un calcul de crue n’occupe pas le pool commun
+        this.floodPool = new ForkJoinPool(threads,
+                pool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("flood-worker-" + thread.getPoolIndex());
+                    return thread;
+                },
+                null, false);
+    }
+
+    @PreDestroy
+    public void close() {
+        floodPool.shutdown();
     }
 
     /**
@@ -34,38 +78,46 @@ public class AlertService {
      * S'il n'y a pas d'enfant => liste vide (ou chaîne vide).
      */
     public List<ChildAlertDTO> getChildAlert(String address) {
-        // 1) Trouver toutes les personnes à cette adresse
-        List<Person> personsAtAddress = dataRepository.getPersons().stream()
-                .filter(p -> p.getAddress().equalsIgnoreCase(address))
-                .collect(Collectors.toList());
-
-        // 2) Séparer enfants / adultes
-        List<Person> children = new ArrayList<>();
-        for (Person p : personsAtAddress) {
-            MedicalRecord mr = findMedicalRecord(p.getFirstName(), p.getLastName());
-            if (mr != null) {
-                int age = calculateAge(mr.getBirthdate());
-                if (age <= 18) {
-                    children.add(p);
-                }
-            }
-        }
+        return responseCache.get(childAlertKey(address),
+                List.of(ResponseCache.addressTag(address)), () -> childAlert(address));
+    }
 
-        // 3) Construire la liste ChildAlertDTO pour chaque enfant
+    /**
+     * @return ETag de /childAlert pour cette adresse, obtenu sans calculer
+     *         la réponse
+     */
+    public String getChildAlertETag(String address) {
+        return ResponseCache.etag(childAlertKey(address), dataRepository.getChangeVersions().ofAddress(address));
+    }
+
+    private static String childAlertKey(String address) {
+        return "childAlert|" + ResponseCache.normalize(address);
+    }
+
+    private List<ChildAlertDTO> childAlert(String address) {
+        DataSnapshot data = dataRepository.snapshot();
+
+        // 1) Trouver tous les habitants (pré-joints à leur dossier) à cette adresse,
+        // et parmi eux les enfants, par tranche de dates de naissance
+        List<Resident> residentsAtAddress = data.findResidentsByAddress(address);
+        List<Resident> children = data.findAddressResidentsByBirthRange(address,
+                ageService.earliestBirthDay(AgeService.CHILD_MAX_AGE), Integer.MAX_VALUE);
+
+        // 2) Pour chaque enfant, construire le ChildAlertDTO
         List<ChildAlertDTO> result = new ArrayList<>();
-        for (Person child : children) {
-            MedicalRecord childMr = findMedicalRecord(child.getFirstName(), child.getLastName());
-            int childAge = calculateAge(childMr.getBirthdate());
+        for (Resident child : children) {
+            int childAge = ageService.ageOf(child);
 
             // Liste des autres membres du foyer (adulte ou enfant), sauf l'enfant lui-même
             List<String> otherHouseMembers = new ArrayList<>();
-            for (Person p : personsAtAddress) {
-                if (!p.equals(child)) {
-                    otherHouseMembers.add(p.getFirstName() + " " + p.getLastName());
+            for (Resident r : residentsAtAddress) {
+                if (r != child) {
+                    otherHouseMembers.add(r.getPerson().getFirstName() + " " + r.getPerson().getLastName());
                 }
             }
 
-            ChildAlertDTO dto = new ChildAlertDTO(child.getFirstName(), child.getLastName(),
+            Person p = child.getPerson();
+            ChildAlertDTO dto = new ChildAlertDTO(p.getFirstName(), p.getLastName(),
                     childAge, otherHouseMembers);
             result.add(dto);
         }
@@ -80,20 +132,16 @@ public class AlertService {
      * station.
      */
     public List<String> getPhoneAlert(String stationNumber) {
-        // 1) Trouver les adresses desservies par cette station
-        List<String> addresses = dataRepository.getFirestations().stream()
-                .filter(f -> f.getStation().equals(stationNumber))
-                .map(Firestation::getAddress)
-                .collect(Collectors.toList());
-
-        // 2) Récupérer les personnes vivant à ces adresses, extraire leurs numéros
-        Set<String> phoneNumbers = dataRepository.getPersons().stream()
-                .filter(p -> addresses.contains(p.getAddress()))
-                .map(Person::getPhone)
-                .collect(Collectors.toSet()); // set pour éviter doublons
+        return responseCache.get("phoneAlert|" + stationNumber,
+                List.of(ResponseCache.stationTag(stationNumber)), () -> phoneAlert(stationNumber));
+    }
+
+    private List<String> phoneAlert(String stationNumber) {
+        // Ensemble des numéros tenu à jour à chaque écriture (sans doublons)
+        List<String> phoneNumbers = dataRepository.snapshot().getStationCoverage(stationNumber).getPhones();
 
         logger.debug("phoneAlert for station={} => {} phone numbers", stationNumber, phoneNumbers.size());
-        return new ArrayList<>(phoneNumbers);
+        return phoneNumbers;
     }
 
     /**
@@ -103,21 +151,64 @@ public class AlertService {
      * Pour chaque habitant: nom, téléphone, âge, médicaments, allergies.
      */
     public FireDTO getFire(String address) {
+        return responseCache.get(fireKey(address), List.of(ResponseCache.addressTag(address)), () -> fire(address));
+    }
+
+    /**
+     * @return réponse de {@link #getFire(String)} déjà sérialisée
+     */
+    public EncodedResponse getFireJson(String address) {
+        return responseCache.getEncoded(fireKey(address), List.of(ResponseCache.addressTag(address)),
+                () -> fire(address));
+    }
+
+    /**
+     * Variante multi-adresses de /fire (incendie touchant un îlot) : chaque
+     * adresse n’est résolue qu’une fois (adresses répétées ou de casse
+     * différente comprises), en partageant les réponses en cache de /fire.
+     * Chaque réponse est calculée sur la version lue par le cache, comme
+     * pour /fire : une écriture concurrente n’y laisse pas de réponse
+     * périmée.
+     *
+     * @return réponse de /fire par adresse, dans l’ordre de la demande
+     */
+    public Map<String, FireDTO> getFires(List<String> addresses) {
+        Map<String, FireDTO> byKey = new HashMap<>();
+        Map<String, FireDTO> result = new LinkedHashMap<>();
+        for (String address : addresses) {
+            FireDTO fire = byKey.computeIfAbsent(ResponseCache.normalize(address), k ->
+                    responseCache.get(fireKey(address), List.of(ResponseCache.addressTag(address)),
+                            () -> fire(address)));
+            result.putIfAbsent(address, fire);
+        }
+        logger.debug("fire for {} address(es) => {} distinct", addresses.size(), byKey.size());
+        return result;
+    }
+
+    private static String fireKey(String address) {
+        return "fire|" + ResponseCache.normalize(address);
+    }
+
+    private FireDTO fire(String address) {
+        // Station et habitants lus dans la même version des données
+        return fire(dataRepository.snapshot(), address);
+    }
+
+    private FireDTO fire(DataSnapshot data, String address) {
         // 1) Trouver la stationNumber associée à cette adresse (il peut y avoir
         // plusieurs mappings, on en prend un)
-        String stationNumber = findStationNumberByAddress(address);
+        String stationNumber = findStationNumberByAddress(data, address);
 
-        // 2) Récupérer les personnes vivant à cette adresse
-        List<Person> personsAtAddress = dataRepository.getPersons().stream()
-                .filter(p -> p.getAddress().equalsIgnoreCase(address))
-                .collect(Collectors.toList());
+        // 2) Récupérer les habitants (pré-joints) vivant à cette adresse
+        List<Resident> residentsAtAddress = data.findResidentsByAddress(address);
 
         // 3) Construire la liste FirePersonDTO
         List<FirePersonDTO> personDTOs = new ArrayList<>();
-        for (Person p : personsAtAddress) {
-            MedicalRecord mr = findMedicalRecord(p.getFirstName(), p.getLastName());
-            if (mr != null) {
-                int age = calculateAge(mr.getBirthdate());
+        for (Resident r : residentsAtAddress) {
+            Person p = r.getPerson();
+            MedicalRecord mr = r.getMedicalRecord();
+            if (mr != null && r.hasBirthDate()) {
+                int age = ageService.ageOf(r);
                 FirePersonDTO fpd = new FirePersonDTO(
                         p.getFirstName(),
                         p.getLastName(),
@@ -139,25 +230,74 @@ public class AlertService {
      * Chaque occupant: nom, téléphone, âge, meds, allergies
      */
     public List<HouseholdDTO> getFloodStations(List<String> stationNumbers) {
+        return responseCache.get(floodKey(stationNumbers), floodTags(stationNumbers),
+                () -> floodStations(stationNumbers));
+    }
+
+    /**
+     * @return réponse de {@link #getFloodStations(List)} déjà sérialisée
+     */
+    public EncodedResponse getFloodStationsJson(List<String> stationNumbers) {
+        return responseCache.getEncoded(floodKey(stationNumbers), floodTags(stationNumbers),
+                () -> floodStations(stationNumbers));
+    }
+
+    /**
+     * @return ETag de /flood/stations pour ces casernes : il change dès
+     *         que l’une d’elles est modifiée
+     */
+    public String getFloodStationsETag(List<String> stationNumbers) {
+        long version = 0;
+        for (String station : stationNumbers) {
+            version = Math.max(version, dataRepository.getChangeVersions().ofStation(station));
+        }
+        return ResponseCache.etag(floodKey(stationNumbers), version);
+    }
+
+    private static String floodKey(List<String> stationNumbers) {
+        return "flood|" + String.join(",", stationNumbers);
+    }
+
+    private static List<String> floodTags(List<String> stationNumbers) {
+        List<String> tags = new ArrayList<>(stationNumbers.size());
+        stationNumbers.forEach(s -> tags.add(ResponseCache.stationTag(s)));
+        return tags;
+    }
+
+    private List<HouseholdDTO> floodStations(List<String> stationNumbers) {
+        // Une seule version des données pour toutes les adresses
+        DataSnapshot data = dataRepository.snapshot();
+
         // 1) Trouver toutes les adresses desservies par ces stations
-        Set<String> addresses = dataRepository.getFirestations().stream()
-                .filter(f -> stationNumbers.contains(f.getStation()))
-                .map(Firestation::getAddress)
-                .collect(Collectors.toSet());
+        Set<String> addresses = new LinkedHashSet<>();
+        for (String stationNumber : stationNumbers) {
+            addresses.addAll(data.findAddressesByStation(stationNumber));
+        }
 
-        // 2) Pour chaque adresse, lister les occupants
-        List<HouseholdDTO> result = new ArrayList<>();
+        // 2) Pour chaque adresse, lister les occupants ; au-delà du seuil,
+        // les adresses sont réparties sur le pool dédié
+        List<String> ordered = new ArrayList<>(addresses);
+        List<HouseholdDTO> result = ordered.size() >= floodParallelThreshold
+                ? floodPool.invoke(new HouseholdTask(data, ordered, 0, ordered.size()))
+                : households(data, ordered, 0, ordered.size());
 
-        for (String address : addresses) {
-            List<Person> personsAtAddress = dataRepository.getPersons().stream()
-                    .filter(p -> p.getAddress().equalsIgnoreCase(address))
-                    .collect(Collectors.toList());
+        logger.debug("floodStations for stations={} => {} households", stationNumbers, result.size());
+        return result;
+    }
+
+    /** Foyers des adresses {@code [from, to)}, dans l’ordre des adresses. */
+    private List<HouseholdDTO> households(DataSnapshot data, List<String> addresses, int from, int to) {
+        List<HouseholdDTO> result = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            String address = addresses.get(i);
+            List<Resident> residentsAtAddress = data.findResidentsByAddress(address);
 
             List<OccupantDTO> occupants = new ArrayList<>();
-            for (Person p : personsAtAddress) {
-                MedicalRecord mr = findMedicalRecord(p.getFirstName(), p.getLastName());
-                if (mr != null) {
-                    int age = calculateAge(mr.getBirthdate());
+            for (Resident r : residentsAtAddress) {
+                Person p = r.getPerson();
+                MedicalRecord mr = r.getMedicalRecord();
+                if (mr != null && r.hasBirthDate()) {
+                    int age = ageService.ageOf(r);
                     OccupantDTO odto = new OccupantDTO(
                             p.getFirstName(),
                             p.getLastName(),
@@ -173,27 +313,66 @@ public class AlertService {
                 result.add(household);
             }
         }
-
-        logger.debug("floodStations for stations={} => {} households", stationNumbers, result.size());
         return result;
     }
 
+    /**
+     * Découpe la plage d’adresses en deux jusqu’à {@value #FLOOD_LEAF_SIZE}
+     * adresses, puis concatène gauche + droite : le résultat est
+     * identique, ordre compris, à celui du calcul séquentiel.
+     */
+    // Sérialisable par héritage (ForkJoinTask) mais jamais sérialisée : elle
+    // ne vit que le temps d’une requête, dans le pool de cette instance
+    @SuppressWarnings("serial")
+    private final class HouseholdTask extends RecursiveTask<List<HouseholdDTO>> {
+
+        private final DataSnapshot data;
+        private final List<String> addresses;
+        private final int from;
+        private final int to;
+
+        HouseholdTask(DataSnapshot data, List<String> addresses, int from, int to) {
+            this.data = data;
+            this.addresses = addresses;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<HouseholdDTO> compute() {
+            if (to - from <= FLOOD_LEAF_SIZE) {
+                return households(data, addresses, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            HouseholdTask left = new HouseholdTask(data, addresses, from, mid);
+            left.fork();
+            List<HouseholdDTO> right = new HouseholdTask(data, addresses, mid, to).compute();
+            List<HouseholdDTO> merged = left.join();
+            merged.addAll(right);
+            return merged;
+        }
+    }
+
     /**
      * GET /personInfo?lastName=<lastName>
      * Retourne nom, adresse, âge, email et antécédents médicaux pour chaque
      * habitant portant ce nom.
      */
     public List<PersonInfoDetailsDTO> getPersonInfo(String lastName) {
+        return responseCache.get("personInfo|" + ResponseCache.normalize(lastName),
+                List.of(ResponseCache.lastNameTag(lastName)), () -> personInfo(lastName));
+    }
+
+    private List<PersonInfoDetailsDTO> personInfo(String lastName) {
         // Trouver toutes les personnes ayant ce lastName
-        List<Person> matchingPersons = dataRepository.getPersons().stream()
-                .filter(p -> p.getLastName().equalsIgnoreCase(lastName))
-                .collect(Collectors.toList());
+        List<Resident> matchingResidents = dataRepository.findResidentsByLastName(lastName);
 
         List<PersonInfoDetailsDTO> result = new ArrayList<>();
-        for (Person p : matchingPersons) {
-            MedicalRecord mr = findMedicalRecord(p.getFirstName(), p.getLastName());
-            if (mr != null) {
-                int age = calculateAge(mr.getBirthdate());
+        for (Resident r : matchingResidents) {
+            Person p = r.getPerson();
+            MedicalRecord mr = r.getMedicalRecord();
+            if (mr != null && r.hasBirthDate()) {
+                int age = ageService.ageOf(r);
                 PersonInfoDetailsDTO dto = new PersonInfoDetailsDTO(
                         p.getFirstName(),
                         p.getLastName(),
@@ -210,43 +389,78 @@ public class AlertService {
         return result;
     }
 
+    /**
+     * GET /residentsByAge?minAge=<a>&maxAge=<b>[&station=<n>][&address=<address>]
+     * Retourne les habitants dont l'âge est compris entre minAge et maxAge
+     * (inclus), du plus âgé au plus jeune. La recherche peut être limitée à
+     * une adresse (prioritaire) ou aux adresses desservies par une caserne.
+     */
+    public List<ResidentAgeDTO> getResidentsByAge(int minAge, int maxAge, String station, String address) {
+        DataSnapshot data = dataRepository.snapshot();
+
+        // Tranche d'âge => intervalle de dates de naissance (recherche dichotomique)
+        int fromDay = ageService.earliestBirthDay(maxAge);
+        int toDay = ageService.latestBirthDay(minAge);
+        List<Resident> residents;
+        if (address != null) {
+            residents = data.findAddressResidentsByBirthRange(address, fromDay, toDay);
+        } else if (station != null) {
+            residents = data.findStationResidentsByBirthRange(station, fromDay, toDay);
+        } else {
+            residents = data.findResidentsByBirthRange(fromDay, toDay);
+        }
+
+        List<ResidentAgeDTO> result = new ArrayList<>(residents.size());
+        for (Resident r : residents) {
+            Person p = r.getPerson();
+            result.add(new ResidentAgeDTO(
+                    p.getFirstName(),
+                    p.getLastName(),
+                    p.getAddress(),
+                    p.getPhone(),
+                    ageService.ageOf(r),
+                    r.getStation()));
+        }
+
+        logger.debug("residentsByAge for ages=[{}, {}], station={}, address={} => {} residents",
+                minAge, maxAge, station, address, result.size());
+        return result;
+    }
+
     /**
      * GET /communityEmail?city=<city>
      * Retourne la liste des e-mails de tous les habitants de la ville.
      */
     public List<String> getCommunityEmail(String city) {
-        // Récupérer toutes les personnes habitant la ville, en extraire les e-mails
-        Set<String> emails = dataRepository.getPersons().stream()
-                .filter(p -> p.getCity().equalsIgnoreCase(city))
-                .map(Person::getEmail)
-                .collect(Collectors.toSet());
+        return responseCache.get("communityEmail|" + ResponseCache.normalize(city),
+                List.of(ResponseCache.cityTag(city)), () -> communityEmail(city));
+    }
+
+    /**
+     * Variante en flux de /communityEmail : parcourt directement l’annuaire
+     * de la ville, sans liste intermédiaire ni passage par le cache.
+     *
+     * @return nombre d’e-mails transmis à {@code action}
+     */
+    public int forEachCommunityEmail(String city, Consumer<String> action) {
+        return dataRepository.snapshot().forEachDistinctEmailByCity(city, action);
+    }
+
+    private List<String> communityEmail(String city) {
+        // Annuaire de la ville tenu à jour à chaque écriture (sans doublons)
+        List<String> emails = dataRepository.snapshot().findDistinctEmailsByCity(city);
 
         logger.debug("communityEmail for city={} => {} emails", city, emails.size());
-        return new ArrayList<>(emails);
+        return emails;
     }
 
     // ----------------------------------------------------------------------
     // Méthodes utilitaires privées
     // ----------------------------------------------------------------------
 
-    private MedicalRecord findMedicalRecord(String firstName, String lastName) {
-        return dataRepository.getMedicalRecords().stream()
-                .filter(m -> m.getFirstName().equalsIgnoreCase(firstName)
-                        && m.getLastName().equalsIgnoreCase(lastName))
-                .findFirst()
-                .orElse(null);
-    }
-
-    private int calculateAge(String birthdate) {
-        LocalDate birthDate = LocalDate.parse(birthdate, dateFormatter);
-        return Period.between(birthDate, LocalDate.now()).getYears();
-    }
-
-    private String findStationNumberByAddress(String address) {
+    private String findStationNumberByAddress(DataSnapshot data, String address) {
         // On peut avoir plusieurs mappings pour la même adresse, on en récupère un
-        Optional<Firestation> fs = dataRepository.getFirestations().stream()
-                .filter(f -> f.getAddress().equalsIgnoreCase(address))
-                .findFirst();
-        return fs.map(Firestation::getStation).orElse("");
+        Firestation fs = data.findFirestation(address);
+        return fs == null ? "" : fs.getStation();
     }
 }
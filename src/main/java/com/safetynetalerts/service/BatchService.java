@@ -0,0 +1,124 @@
+package com.safetynetalerts.service;
+
+import com.safetynetalerts.dto.BatchOperationDTO;
+import com.safetynetalerts.dto.BatchResultDTO;
+import com.safetynetalerts.model.Firestation;
+import com.safetynetalerts.model.MedicalRecord;
+import com.safetynetalerts.model.Person;
+import com.safetynetalerts.repository.DataRepository;
+import com.safetynetalerts.repository.Mutation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lots de modifications hétérogènes (personnes, dossiers, mappings)
+ * appliqués d’un bloc : une seule version publiée et une seule
+ * sauvegarde, ou rien si une opération n’est pas applicable.
+ */
+@Service
+public class BatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchService.class);
+
+    private final DataRepository dataRepository;
+
+    public BatchService(DataRepository dataRepository) {
+        this.dataRepository = dataRepository;
+    }
+
+    /**
+     * Applique le lot dans l’ordre, chaque opération voyant l’effet des
+     * précédentes (ajouter puis modifier la même personne est valide).
+     *
+     * @return résultat appliqué, ou refusé avec l’indice de la première
+     *         opération en conflit (ajout d’un doublon, cible introuvable)
+     * @throws IllegalArgumentException si une opération est mal formée
+     */
+    public BatchResultDTO applyBatch(List<BatchOperationDTO> operations) {
+        List<Mutation> mutations = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            mutations.add(toMutation(i, operations.get(i)));
+        }
+        // Vérification et application d'un bloc par l'écrivain unique
+        return dataRepository.execute(() -> {
+            int failed = dataRepository.applyAll(mutations);
+            BatchResultDTO result = new BatchResultDTO();
+            result.setOperations(operations.size());
+            result.setVersion(dataRepository.snapshot().getVersion());
+            if (failed < 0) {
+                result.setApplied(true);
+                logger.info("Lot de {} opération(s) appliqué (version {})", operations.size(), result.getVersion());
+            } else {
+                result.setFailedIndex(failed);
+                result.setError(conflict(operations.get(failed)));
+                logger.warn("Lot de {} opération(s) refusé : opération {} – {}",
+                        operations.size(), failed, result.getError());
+            }
+            return result;
+        });
+    }
+
+    private static Mutation toMutation(int index, BatchOperationDTO op) {
+        if (op == null || op.getAction() == null) {
+            throw new IllegalArgumentException("Opération " + index + " : action obligatoire");
+        }
+        int targets = (op.getPerson() != null ? 1 : 0) + (op.getMedicalRecord() != null ? 1 : 0)
+                + (op.getFirestation() != null ? 1 : 0);
+        if (targets != 1) {
+            throw new IllegalArgumentException("Opération " + index
+                    + " : une seule entité attendue (person, medicalRecord ou firestation)");
+        }
+        if (op.getPerson() != null) {
+            Person p = op.getPerson();
+            requireName(index, p.getFirstName(), p.getLastName());
+            return switch (op.getAction()) {
+                case ADD -> Mutation.of(Mutation.Type.ADD_PERSON, p);
+                case UPDATE -> Mutation.of(Mutation.Type.UPDATE_PERSON, p);
+                case DELETE -> Mutation.deleteByName(Mutation.Type.DELETE_PERSON, p.getFirstName(), p.getLastName());
+            };
+        }
+        if (op.getMedicalRecord() != null) {
+            MedicalRecord r = op.getMedicalRecord();
+            requireName(index, r.getFirstName(), r.getLastName());
+            return switch (op.getAction()) {
+                case ADD -> Mutation.of(Mutation.Type.ADD_MEDICAL_RECORD, r);
+                case UPDATE -> Mutation.of(Mutation.Type.UPDATE_MEDICAL_RECORD, r);
+                case DELETE -> Mutation.deleteByName(Mutation.Type.DELETE_MEDICAL_RECORD,
+                        r.getFirstName(), r.getLastName());
+            };
+        }
+        Firestation f = op.getFirestation();
+        if (BulkImport.isBlank(f.getAddress())
+                || (op.getAction() != BatchOperationDTO.Action.DELETE && BulkImport.isBlank(f.getStation()))) {
+            throw new IllegalArgumentException("Opération " + index + " : address et station sont obligatoires");
+        }
+        return switch (op.getAction()) {
+            case ADD -> Mutation.of(Mutation.Type.ADD_FIRESTATION, f);
+            case UPDATE -> Mutation.of(Mutation.Type.UPDATE_FIRESTATION, f);
+            case DELETE -> Mutation.deleteByAddress(f.getAddress());
+        };
+    }
+
+    private static void requireName(int index, String firstName, String lastName) {
+        if (BulkImport.isBlank(firstName) || BulkImport.isBlank(lastName)) {
+            throw new IllegalArgumentException("Opération " + index + " : firstName et lastName sont obligatoires");
+        }
+    }
+
+    private static String conflict(BatchOperationDTO op) {
+        String target;
+        if (op.getPerson() != null) {
+            target = "Person " + op.getPerson().getFirstName() + " " + op.getPerson().getLastName();
+        } else if (op.getMedicalRecord() != null) {
+            target = "MedicalRecord " + op.getMedicalRecord().getFirstName() + " "
+                    + op.getMedicalRecord().getLastName();
+        } else {
+            target = "Firestation " + op.getFirestation().getAddress();
+        }
+        return op.getAction() == BatchOperationDTO.Action.ADD ? target + " existe déjà" : target + " introuvable";
+    }
+}
@@ -0,0 +1,128 @@
+package com.safetynetalerts.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.safetynetalerts.dto.ImportResultDTO;
+import com.safetynetalerts.dto.ImportRowDTO;
+import com.safetynetalerts.repository.DataRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Import en masse d’un flux de lignes, par lots.
+ *
+ * Les lignes sont lues au fil du flux (jamais toutes en mémoire) et
+ * regroupées par {@value #BATCH_SIZE} : chaque lot est une seule commande
+ * de l’écrivain unique, donc une seule version publiée et une seule
+ * sauvegarde. Les doublons sont détectés par les index du repository,
+ * y compris entre lignes du même lot.
+ */
+final class BulkImport<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkImport.class);
+
+    /** Lignes appliquées par commande d’écriture (et donc par sauvegarde). */
+    static final int BATCH_SIZE = 1000;
+
+    private final DataRepository dataRepository;
+    private final Function<T, String> validator;
+    private final Function<List<T>, boolean[]> addIfAbsent;
+    private final Function<T, String> describe;
+
+    /**
+     * @param validator   message d’erreur pour une ligne invalide, {@code null} si valide
+     * @param addIfAbsent ajout du lot, appelé par l’écrivain ; {@code true} par ligne ajoutée
+     * @param describe    libellé d’une ligne pour le message de doublon
+     */
+    BulkImport(DataRepository dataRepository, Function<T, String> validator,
+               Function<List<T>, boolean[]> addIfAbsent, Function<T, String> describe) {
+        this.dataRepository = dataRepository;
+        this.validator = validator;
+        this.addIfAbsent = addIfAbsent;
+        this.describe = describe;
+    }
+
+    /**
+     * Lit et applique toutes les lignes. Une ligne mal typée est rejetée
+     * et la lecture continue ; un flux syntaxiquement illisible arrête
+     * l’import (les lots précédents restent appliqués).
+     */
+    ImportResultDTO run(Iterator<T> rows) {
+        ImportResultDTO result = new ImportResultDTO();
+        List<T> batch = new ArrayList<>(BATCH_SIZE);
+        int[] rowNumbers = new int[BATCH_SIZE];
+        int row = 0;
+        while (true) {
+            T item;
+            try {
+                if (!rows.hasNext()) {
+                    break;
+                }
+                row++;
+                item = rows.next();
+            } catch (RuntimeJsonMappingException e) {
+                // Objet JSON complet mais mal typé : la lecture peut reprendre
+                result.setReceived(row);
+                reject(result, row, "Ligne invalide : " + detail(e));
+                continue;
+            } catch (RuntimeException e) {
+                result.setReceived(row);
+                reject(result, row, "Flux illisible : " + detail(e));
+                result.setComplete(false);
+                break;
+            }
+            result.setReceived(row);
+            String error = item == null ? "Ligne vide" : validator.apply(item);
+            if (error != null) {
+                reject(result, row, error);
+                continue;
+            }
+            rowNumbers[batch.size()] = row;
+            batch.add(item);
+            if (batch.size() == BATCH_SIZE) {
+                apply(batch, rowNumbers, result);
+            }
+        }
+        apply(batch, rowNumbers, result);
+        logger.info("Import : {} ligne(s) reçue(s), {} créée(s), {} doublon(s), {} rejetée(s)",
+                result.getReceived(), result.getCreated(), result.getDuplicates(), result.getRejected());
+        return result;
+    }
+
+    private void apply(List<T> batch, int[] rowNumbers, ImportResultDTO result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        boolean[] added = dataRepository.execute(() -> addIfAbsent.apply(batch));
+        for (int i = 0; i < added.length; i++) {
+            if (added[i]) {
+                result.setCreated(result.getCreated() + 1);
+            } else {
+                result.setDuplicates(result.getDuplicates() + 1);
+                result.getRows().add(new ImportRowDTO(rowNumbers[i], ImportRowDTO.Status.DUPLICATE,
+                        describe.apply(batch.get(i)) + " existe déjà"));
+            }
+        }
+        logger.debug("Lot de {} ligne(s) appliqué", batch.size());
+        batch.clear();
+    }
+
+    /** Message d’origine de Jackson, sans la position ni le chemin. */
+    private static String detail(RuntimeException e) {
+        return e.getCause() instanceof JsonProcessingException cause ? cause.getOriginalMessage() : e.getMessage();
+    }
+
+    static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static void reject(ImportResultDTO result, int row, String message) {
+        result.setRejected(result.getRejected() + 1);
+        result.getRows().add(new ImportRowDTO(row, ImportRowDTO.Status.REJECTED, message));
+    }
+}
@@ -0,0 +1,65 @@
+package com.safetynetalerts.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Réponse déjà sérialisée en JSON (UTF-8), prête à être écrite telle
+ * quelle, avec sa variante gzip calculée à la première demande.
+ *
+ * Les tableaux retournés sont partagés entre les requêtes : ils ne doivent
+ * pas être modifiés.
+ */
+public final class EncodedResponse {
+
+    /** En dessous de cette taille, la compression ne vaut pas son coût. */
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    private final byte[] json;
+    private volatile byte[] gzip;
+
+    private EncodedResponse(byte[] json) {
+        this.json = json;
+    }
+
+    /** Sérialise la valeur avec le mapper fourni. */
+    public static EncodedResponse of(ObjectMapper mapper, Object value) {
+        try {
+            return new EncodedResponse(mapper.writeValueAsBytes(value));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sérialisation JSON impossible", e);
+        }
+    }
+
+    /** Corps JSON en UTF-8. */
+    public byte[] getJson() {
+        return json;
+    }
+
+    /** {@code true} si la variante gzip mérite d’être servie. */
+    public boolean isCompressible() {
+        return json.length >= GZIP_MIN_BYTES;
+    }
+
+    /** Corps JSON compressé (gzip), calculé une seule fois. */
+    public byte[] getGzip() {
+        byte[] compressed = gzip;
+        if (compressed == null) {
+            // Calcul idempotent : une course ne fait que le dupliquer
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream zip = new GZIPOutputStream(out)) {
+                zip.write(json);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            compressed = out.toByteArray();
+            gzip = compressed;
+        }
+        return compressed;
+    }
+}
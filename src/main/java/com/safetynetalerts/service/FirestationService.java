@@ -1,20 +1,30 @@
 package com.safetynetalerts.service;
 
 import com.safetynetalerts.dto.FirestationCoverageDTO;
+import com.safetynetalerts.dto.ImportResultDTO;
 import com.safetynetalerts.dto.PersonInfoDTO;
+import com.safetynetalerts.dto.StationCoverageDTO;
+import com.safetynetalerts.dto.StationReassignmentDTO;
+import com.safetynetalerts.dto.StationReassignmentResultDTO;
 import com.safetynetalerts.model.Firestation;
-import com.safetynetalerts.model.MedicalRecord;
 import com.safetynetalerts.model.Person;
 import com.safetynetalerts.repository.DataRepository;
+import com.safetynetalerts.repository.DataSnapshot;
+import com.safetynetalerts.repository.Resident;
+import com.safetynetalerts.repository.StationCoverage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
-import java.time.Period;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,10 +33,13 @@ public class FirestationService {
     private static final Logger logger = LoggerFactory.getLogger(FirestationService.class);
 
     private final DataRepository dataRepository;
-    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+    private final AgeService ageService;
+    private final ResponseCache responseCache;
 
-    public FirestationService(DataRepository dataRepository) {
+    public FirestationService(DataRepository dataRepository, AgeService ageService, ResponseCache responseCache) {
         this.dataRepository = dataRepository;
+        this.ageService = ageService;
+        this.responseCache = responseCache;
     }
 
     /**
@@ -36,23 +49,44 @@ public class FirestationService {
      *         + le nombre d'adultes et d'enfants couverts par cette caserne
      */
     public FirestationCoverageDTO getPersonsCoveredByStation(String stationNumber) {
-        // 1) Récupérer toutes les adresses correspondant à cette station
-        List<Firestation> matchingFirestations = dataRepository.getFirestations().stream()
-                .filter(f -> f.getStation().equals(stationNumber))
-                .collect(Collectors.toList());
+        return responseCache.get("firestation|" + stationNumber,
+                List.of(ResponseCache.stationTag(stationNumber)), () -> personsCoveredByStation(stationNumber));
+    }
 
-        List<String> addresses = matchingFirestations.stream()
-                .map(Firestation::getAddress)
-                .collect(Collectors.toList());
+    /**
+     * @return réponse de {@link #getPersonsCoveredByStation(String)} déjà
+     *         sérialisée
+     */
+    public EncodedResponse getPersonsCoveredByStationJson(String stationNumber) {
+        return responseCache.getEncoded("firestation|" + stationNumber,
+                List.of(ResponseCache.stationTag(stationNumber)), () -> personsCoveredByStation(stationNumber));
+    }
 
-        // 2) Récupérer toutes les personnes habitant à ces adresses
-        List<Person> coveredPersons = dataRepository.getPersons().stream()
-                .filter(p -> addresses.contains(p.getAddress()))
+    /**
+     * @return ETag de /firestation pour cette caserne, obtenu sans calculer
+     *         la réponse
+     */
+    public String getPersonsCoveredByStationETag(String stationNumber) {
+        return ResponseCache.etag("firestation|" + stationNumber,
+                dataRepository.getChangeVersions().ofStation(stationNumber));
+    }
+
+    private FirestationCoverageDTO personsCoveredByStation(String stationNumber) {
+        // Une seule version des données pour toute la requête
+        DataSnapshot data = dataRepository.snapshot();
+
+        // 1) Récupérer toutes les adresses correspondant à cette station
+        Set<String> addresses = data.findAddressesByStation(stationNumber);
+
+        // 2) Récupérer tous les habitants (pré-joints) à ces adresses
+        List<Resident> coveredResidents = addresses.stream()
+                .flatMap(a -> data.findResidentsByAddress(a).stream())
                 .collect(Collectors.toList());
 
         // 3) Construire la liste de PersonInfoDTO
         List<PersonInfoDTO> personsInfo = new ArrayList<>();
-        for (Person person : coveredPersons) {
+        for (Resident resident : coveredResidents) {
+            Person person = resident.getPerson();
             personsInfo.add(new PersonInfoDTO(
                     person.getFirstName(),
                     person.getLastName(),
@@ -60,20 +94,10 @@ public class FirestationService {
                     person.getPhone()));
         }
 
-        // 4) Compter enfants / adultes via birthdate
-        int numberOfChildren = 0;
-        int numberOfAdults = 0;
-        for (Person person : coveredPersons) {
-            MedicalRecord mr = findMedicalRecord(person.getFirstName(), person.getLastName());
-            if (mr != null) {
-                int age = calculateAge(mr.getBirthdate());
-                if (age <= 18) {
-                    numberOfChildren++;
-                } else {
-                    numberOfAdults++;
-                }
-            }
-        }
+        // 4) Compteurs enfants / adultes tenus à jour par le repository
+        StationCoverage counts = data.getStationCoverage(stationNumber);
+        int numberOfChildren = counts.getChildren();
+        int numberOfAdults = counts.getAdults();
 
         FirestationCoverageDTO dto = new FirestationCoverageDTO(personsInfo, numberOfAdults, numberOfChildren);
         logger.debug("Coverage for station {} => {} persons, {} adults, {} children",
@@ -82,25 +106,82 @@ public class FirestationService {
         return dto;
     }
 
+    /**
+     * GET /firestation/coverage?stationNumber={stationNumber}
+     *
+     * @return compteurs de la caserne (habitants, adultes, enfants,
+     *         téléphones distincts), lus tels quels sans parcours
+     */
+    public StationCoverageDTO getStationCoverage(String stationNumber) {
+        return toDto(stationNumber, dataRepository.snapshot().getStationCoverage(stationNumber));
+    }
+
+    /**
+     * GET /firestation/coverage
+     *
+     * @return compteurs de chaque caserne desservant au moins une adresse,
+     *         triés par numéro de caserne
+     */
+    public List<StationCoverageDTO> getAllStationCoverages() {
+        List<StationCoverageDTO> result = new ArrayList<>();
+        dataRepository.snapshot().getStationCoverages().forEach((station, counts) -> result.add(toDto(station, counts)));
+        result.sort(Comparator.comparing(StationCoverageDTO::getStation));
+        return result;
+    }
+
+    /**
+     * Bascule de minuit : nouvelle date de référence des âges, puis
+     * recompte des enfants dans les agrégats des casernes (les habitants
+     * ayant eu 19 ans deviennent adultes).
+     */
+    @Scheduled(cron = "0 0 0 * * *")
+    public void rolloverCoverage() {
+        ageService.refresh();
+        int threshold = ageService.earliestBirthDay(AgeService.CHILD_MAX_AGE);
+        dataRepository.execute(() -> {
+            dataRepository.updateChildBirthDayThreshold(threshold);
+            return null;
+        });
+        logger.info("Coverage counters rolled over to {}", ageService.today());
+    }
+
     /**
      * Ajoute une nouvelle mapping firestation/address
      * (POST /firestation)
      */
     public Firestation addFirestation(Firestation newMapping) {
-        // Vérifier si l'adresse n'existe pas déjà
-        boolean alreadyExists = dataRepository.getFirestations().stream()
-                .anyMatch(f -> f.getAddress().equalsIgnoreCase(newMapping.getAddress()));
-
-        if (!alreadyExists) {
-            dataRepository.getFirestations().add(newMapping);
-            dataRepository.saveData();
-            logger.info("Added new firestation mapping: address={}, station={}",
-                    newMapping.getAddress(), newMapping.getStation());
-            return newMapping;
-        } else {
-            logger.warn("Address {} already mapped to a station. No creation done.", newMapping.getAddress());
-            return null; // ou lever une exception, selon votre choix
-        }
+        // Vérification et ajout appliqués d'un bloc par l'écrivain unique
+        return dataRepository.execute(() -> {
+            // Vérifier si l'adresse n'existe pas déjà
+            boolean alreadyExists = dataRepository.findFirestation(newMapping.getAddress()) != null;
+
+            if (!alreadyExists) {
+                dataRepository.addFirestation(newMapping);
+                logger.info("Added new firestation mapping: address={}, station={}",
+                        newMapping.getAddress(), newMapping.getStation());
+                return newMapping;
+            } else {
+                logger.warn("Address {} already mapped to a station. No creation done.", newMapping.getAddress());
+                return null; // ou lever une exception, selon votre choix
+            }
+        });
+    }
+
+    /**
+     * Import en masse : crée les mappings des adresses encore non
+     * desservies (même règle que {@link #addFirestation}), par lots d’une
+     * sauvegarde chacun.
+     *
+     * @param rows mappings lus au fil du flux
+     * @return bilan par statut et lignes non créées
+     */
+    public ImportResultDTO importFirestations(Iterator<Firestation> rows) {
+        return new BulkImport<Firestation>(dataRepository,
+                f -> BulkImport.isBlank(f.getAddress()) || BulkImport.isBlank(f.getStation())
+                        ? "address et station sont obligatoires" : null,
+                dataRepository::addFirestationsIfAbsent,
+                f -> "Mapping de " + f.getAddress())
+                .run(rows);
     }
 
     /**
@@ -108,18 +189,53 @@ public class FirestationService {
      * (PUT /firestation)
      */
     public Firestation updateFirestation(Firestation updatedMapping) {
-        // Trouver la Firestation par adresse
-        for (Firestation f : dataRepository.getFirestations()) {
-            if (f.getAddress().equalsIgnoreCase(updatedMapping.getAddress())) {
+        return dataRepository.execute(() -> {
+            // Trouver la Firestation par adresse
+            Firestation f = dataRepository.findFirestation(updatedMapping.getAddress());
+            if (f != null) {
                 logger.info("Updating firestation for address={} from station={} to station={}",
                         f.getAddress(), f.getStation(), updatedMapping.getStation());
-                f.setStation(updatedMapping.getStation());
-                dataRepository.saveData();
-                return f;
+                return dataRepository.updateFirestation(f.getAddress(), updatedMapping.getStation());
             }
+            logger.warn("Address {} not found, update not performed.", updatedMapping.getAddress());
+            return null; // ou lever une exception, selon votre choix
+        });
+    }
+
+    /**
+     * Change de caserne un ensemble d’adresses en une seule écriture
+     * (ouverture / fermeture d’une caserne).
+     *
+     * @throws IllegalArgumentException sans caserne cible, ou sans caserne
+     *                                  d’origine ni liste d’adresses
+     */
+    public StationReassignmentResultDTO reassignStation(StationReassignmentDTO request) {
+        if (BulkImport.isBlank(request.getToStation())) {
+            throw new IllegalArgumentException("toStation est obligatoire");
+        }
+        if (BulkImport.isBlank(request.getFromStation()) && request.getAddresses() == null) {
+            throw new IllegalArgumentException("fromStation ou addresses est obligatoire");
         }
-        logger.warn("Address {} not found, update not performed.", updatedMapping.getAddress());
-        return null; // ou lever une exception, selon votre choix
+        String from = BulkImport.isBlank(request.getFromStation()) ? null : request.getFromStation();
+        return dataRepository.execute(() -> {
+            List<Firestation> moved = dataRepository.reassignFirestations(from, request.getAddresses(),
+                    request.getToStation());
+            Set<String> reassigned = new LinkedHashSet<>();
+            moved.forEach(f -> reassigned.add(f.getAddress()));
+            List<String> notFound = new ArrayList<>();
+            if (request.getAddresses() != null) {
+                Set<String> movedKeys = new HashSet<>();
+                reassigned.forEach(a -> movedKeys.add(a.toLowerCase(Locale.ROOT)));
+                for (String address : request.getAddresses()) {
+                    if (address == null || !movedKeys.contains(address.toLowerCase(Locale.ROOT))) {
+                        notFound.add(address);
+                    }
+                }
+            }
+            logger.info("Reassigned {} address(es) from station={} to station={} ({} not found)",
+                    reassigned.size(), from, request.getToStation(), notFound.size());
+            return new StationReassignmentResultDTO(request.getToStation(), new ArrayList<>(reassigned), notFound);
+        });
     }
 
     /**
@@ -127,29 +243,21 @@ public class FirestationService {
      * (DELETE /firestation?address=...)
      */
     public boolean deleteFirestation(String address) {
-        List<Firestation> firestations = dataRepository.getFirestations();
-        boolean removed = firestations.removeIf(f -> f.getAddress().equalsIgnoreCase(address));
-        if (removed) {
-            dataRepository.saveData();
-            logger.info("Deleted firestation mapping for address={}", address);
-        } else {
-            logger.warn("No firestation mapping found for address={}", address);
-        }
-        return removed;
+        return dataRepository.execute(() -> {
+            boolean removed = dataRepository.deleteFirestation(address);
+            if (removed) {
+                logger.info("Deleted firestation mapping for address={}", address);
+            } else {
+                logger.warn("No firestation mapping found for address={}", address);
+            }
+            return removed;
+        });
     }
 
     // Méthodes utilitaires internes
 
-    private MedicalRecord findMedicalRecord(String firstName, String lastName) {
-        return dataRepository.getMedicalRecords().stream()
-                .filter(m -> m.getFirstName().equalsIgnoreCase(firstName)
-                        && m.getLastName().equalsIgnoreCase(lastName))
-                .findFirst()
-                .orElse(null);
-    }
-
-    private int calculateAge(String birthdate) {
-        LocalDate birthDate = LocalDate.parse(birthdate, dateFormatter);
-        return Period.between(birthDate, LocalDate.now()).getYears();
+    private static StationCoverageDTO toDto(String station, StationCoverage counts) {
+        return new StationCoverageDTO(station, counts.getResidents(), counts.getAdults(), counts.getChildren(),
+                counts.getDistinctPhones());
     }
 }
@@ -1,11 +1,15 @@
 package com.safetynetalerts.service;
 
+import com.safetynetalerts.dto.ImportResultDTO;
+import com.safetynetalerts.dto.PageDTO;
 import com.safetynetalerts.model.MedicalRecord;
 import com.safetynetalerts.repository.DataRepository;
+import com.safetynetalerts.repository.Page;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.Iterator;
 import java.util.List;
 
 @Service
@@ -26,16 +30,35 @@ public class MedicalRecordService {
         return dataRepository.getMedicalRecords();
     }
 
+    /**
+     * Page de dossiers médicaux triés par nom puis prénom.
+     *
+     * @param cursor curseur reçu avec la page précédente ({@code null} pour
+     *               la première)
+     * @param limit  nombre de dossiers par page
+     * @throws IllegalArgumentException curseur illisible
+     */
+    public PageDTO<MedicalRecord> getMedicalRecordsPage(String cursor, int limit) {
+        PageCursor after = PageCursor.decode(cursor);
+        Page<MedicalRecord> page = after == null
+                ? dataRepository.snapshot().findMedicalRecordsAfter(null, null, limit)
+                : dataRepository.snapshot().findMedicalRecordsAfter(after.lastName(), after.firstName(), limit);
+        List<MedicalRecord> items = page.getItems();
+        String next = null;
+        if (page.hasMore()) {
+            MedicalRecord last = items.get(items.size() - 1);
+            next = PageCursor.encode(last.getLastName(), last.getFirstName());
+        }
+        logger.debug("Page de {} dossier(s), suite : {}", items.size(), page.hasMore());
+        return new PageDTO<>(items, next);
+    }
+
     /**
      * Retrouve un MedicalRecord par (firstName, lastName).
      * Renvoie null si non trouvé.
      */
     public MedicalRecord getMedicalRecordByName(String firstName, String lastName) {
-        return dataRepository.getMedicalRecords().stream()
-                .filter(m -> m.getFirstName().equalsIgnoreCase(firstName)
-                        && m.getLastName().equalsIgnoreCase(lastName))
-                .findFirst()
-                .orElse(null);
+        return dataRepository.findMedicalRecord(firstName, lastName);
     }
 
     /**
@@ -44,21 +67,38 @@ public class MedicalRecordService {
      * exception.
      */
     public MedicalRecord addMedicalRecord(MedicalRecord newRecord) {
-        boolean exists = dataRepository.getMedicalRecords().stream()
-                .anyMatch(m -> m.getFirstName().equalsIgnoreCase(newRecord.getFirstName())
-                        && m.getLastName().equalsIgnoreCase(newRecord.getLastName()));
-        if (exists) {
-            logger.warn("MedicalRecord for {} {} already exists. No creation performed.",
-                    newRecord.getFirstName(), newRecord.getLastName());
-            return null; // ou lever une exception
-        }
+        // Vérification et ajout appliqués d'un bloc par l'écrivain unique
+        return dataRepository.execute(() -> {
+            boolean exists = dataRepository.findMedicalRecord(newRecord.getFirstName(), newRecord.getLastName()) != null;
+            if (exists) {
+                logger.warn("MedicalRecord for {} {} already exists. No creation performed.",
+                        newRecord.getFirstName(), newRecord.getLastName());
+                return null; // ou lever une exception
+            }
 
-        dataRepository.getMedicalRecords().add(newRecord);
-        dataRepository.saveData();
-        logger.info("Added new medical record for {} {}. Birthdate={}, medications={}, allergies={}",
-                newRecord.getFirstName(), newRecord.getLastName(),
-                newRecord.getBirthdate(), newRecord.getMedications(), newRecord.getAllergies());
-        return newRecord;
+            dataRepository.addMedicalRecord(newRecord);
+            logger.info("Added new medical record for {} {}. Birthdate={}, medications={}, allergies={}",
+                    newRecord.getFirstName(), newRecord.getLastName(),
+                    newRecord.getBirthdate(), newRecord.getMedications(), newRecord.getAllergies());
+            return newRecord;
+        });
+    }
+
+    /**
+     * Import en masse : crée les dossiers encore inconnus (même règle de
+     * doublon que {@link #addMedicalRecord}), par lots d’une sauvegarde
+     * chacun.
+     *
+     * @param rows dossiers lus au fil du flux
+     * @return bilan par statut et lignes non créées
+     */
+    public ImportResultDTO importMedicalRecords(Iterator<MedicalRecord> rows) {
+        return new BulkImport<MedicalRecord>(dataRepository,
+                r -> BulkImport.isBlank(r.getFirstName()) || BulkImport.isBlank(r.getLastName())
+                        ? "firstName et lastName sont obligatoires" : null,
+                dataRepository::addMedicalRecordsIfAbsent,
+                r -> "Dossier de " + r.getFirstName() + " " + r.getLastName())
+                .run(rows);
     }
 
     /**
@@ -67,22 +107,17 @@ public class MedicalRecordService {
      * la birthdate, la liste de medications et la liste d'allergies.
      */
     public MedicalRecord updateMedicalRecord(MedicalRecord updatedRecord) {
-        for (MedicalRecord mr : dataRepository.getMedicalRecords()) {
-            if (mr.getFirstName().equalsIgnoreCase(updatedRecord.getFirstName())
-                    && mr.getLastName().equalsIgnoreCase(updatedRecord.getLastName())) {
-
+        return dataRepository.execute(() -> {
+            MedicalRecord mr = dataRepository.updateMedicalRecord(updatedRecord);
+            if (mr != null) {
                 logger.info("Updating medical record for {} {}",
                         mr.getFirstName(), mr.getLastName());
-                mr.setBirthdate(updatedRecord.getBirthdate());
-                mr.setMedications(updatedRecord.getMedications());
-                mr.setAllergies(updatedRecord.getAllergies());
-                dataRepository.saveData();
                 return mr;
             }
-        }
-        logger.warn("MedicalRecord for {} {} not found. Update not performed.",
-                updatedRecord.getFirstName(), updatedRecord.getLastName());
-        return null;
+            logger.warn("MedicalRecord for {} {} not found. Update not performed.",
+                    updatedRecord.getFirstName(), updatedRecord.getLastName());
+            return null;
+        });
     }
 
     /**
@@ -90,15 +125,14 @@ public class MedicalRecordService {
      * Renvoie true si la suppression a eu lieu, false sinon.
      */
     public boolean deleteMedicalRecord(String firstName, String lastName) {
-        List<MedicalRecord> medicalRecords = dataRepository.getMedicalRecords();
-        boolean removed = medicalRecords.removeIf(m -> m.getFirstName().equalsIgnoreCase(firstName)
-                && m.getLastName().equalsIgnoreCase(lastName));
-        if (removed) {
-            dataRepository.saveData();
-            logger.info("Deleted medical record for {} {}", firstName, lastName);
-        } else {
-            logger.warn("No medical record found for {} {}. No deletion performed.", firstName, lastName);
-        }
-        return removed;
+        return dataRepository.execute(() -> {
+            boolean removed = dataRepository.deleteMedicalRecord(firstName, lastName);
+            if (removed) {
+                logger.info("Deleted medical record for {} {}", firstName, lastName);
+            } else {
+                logger.warn("No medical record found for {} {}. No deletion performed.", firstName, lastName);
+            }
+            return removed;
+        });
     }
 }
@@ -0,0 +1,75 @@
+package com.safetynetalerts.service;
+
+import com.safetynetalerts.dto.CacheStatsDTO;
+import com.safetynetalerts.dto.MemoryFootprintDTO;
+import com.safetynetalerts.dto.PersistenceStatsDTO;
+import com.safetynetalerts.repository.DataRepository;
+import com.safetynetalerts.repository.MemoryFootprint;
+import com.safetynetalerts.repository.PersistenceMetrics;
+import org.springframework.stereotype.Service;
+
+@Service
+public class MonitoringService {
+
+    private final DataRepository dataRepository;
+    private final ResponseCache responseCache;
+
+    public MonitoringService(DataRepository dataRepository, ResponseCache responseCache) {
+        this.dataRepository = dataRepository;
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * GET /monitoring/persistence
+     * Retourne le mode de persistance et les métriques d'écriture.
+     */
+    public PersistenceStatsDTO getPersistenceStats() {
+        PersistenceMetrics metrics = dataRepository.getPersistenceMetrics();
+        PersistenceStatsDTO dto = new PersistenceStatsDTO();
+        dto.setMode(dataRepository.getPersistenceMode().name());
+        dto.setAsync(dataRepository.isAsyncPersistence());
+        dto.setFlushCount(metrics.getFlushCount());
+        dto.setSavesFlushed(metrics.getSavesFlushed());
+        dto.setLastBatchSize(metrics.getLastBatchSize());
+        dto.setMaxBatchSize(metrics.getMaxBatchSize());
+        dto.setAverageBatchSize(metrics.getAverageBatchSize());
+        dto.setLastFlushMillis(metrics.getLastFlushMillis());
+        dto.setMaxFlushMillis(metrics.getMaxFlushMillis());
+        dto.setAverageFlushMillis(metrics.getAverageFlushMillis());
+        return dto;
+    }
+
+    /**
+     * GET /monitoring/memory
+     * Retourne l'occupation du heap et le gain du partage des chaînes.
+     */
+    public MemoryFootprintDTO getMemoryFootprint() {
+        MemoryFootprint footprint = dataRepository.getMemoryFootprint();
+        Runtime runtime = Runtime.getRuntime();
+        MemoryFootprintDTO dto = new MemoryFootprintDTO();
+        dto.setHeapUsedBytes(runtime.totalMemory() - runtime.freeMemory());
+        dto.setHeapMaxBytes(runtime.maxMemory());
+        dto.setInternedValues(footprint.getInternedValues());
+        dto.setSharedReferences(footprint.getSharedReferences());
+        dto.setEstimatedBytesSaved(footprint.getEstimatedBytesSaved());
+        return dto;
+    }
+
+    /**
+     * GET /monitoring/cache
+     * Retourne les compteurs du cache des réponses.
+     */
+    public CacheStatsDTO getCacheStats() {
+        CacheStatsDTO dto = new CacheStatsDTO();
+        long hits = responseCache.getHits();
+        long misses = responseCache.getMisses();
+        dto.setHits(hits);
+        dto.setMisses(misses);
+        dto.setHitRatio(hits + misses == 0 ? 0 : (double) hits / (hits + misses));
+        dto.setEvictions(responseCache.getEvictions());
+        dto.setInvalidations(responseCache.getInvalidations());
+        dto.setSize(responseCache.size());
+        dto.setMaxEntries(responseCache.getMaxEntries());
+        return dto;
+    }
+}
@@ -0,0 +1,50 @@
+package com.safetynetalerts.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Curseur opaque de pagination : nom et prénom du dernier élément servi,
+ * encodés en Base64 (URL).
+ */
+final class PageCursor {
+
+    private static final char SEPARATOR = '\n';
+
+    private final String lastName;
+    private final String firstName;
+
+    private PageCursor(String lastName, String firstName) {
+        this.lastName = lastName;
+        this.firstName = firstName;
+    }
+
+    static String encode(String lastName, String firstName) {
+        String raw = (lastName == null ? "" : lastName) + SEPARATOR + (firstName == null ? "" : firstName);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return curseur décodé ; {@code null} pour la première page
+     * @throws IllegalArgumentException curseur illisible
+     */
+    static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int separator = raw.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Curseur invalide : " + cursor);
+        }
+        return new PageCursor(raw.substring(0, separator), raw.substring(separator + 1));
+    }
+
+    String lastName() {
+        return lastName;
+    }
+
+    String firstName() {
+        return firstName;
+    }
+}
@@ -1,13 +1,16 @@
 package com.safetynetalerts.service;
 
+import com.safetynetalerts.dto.ImportResultDTO;
+import com.safetynetalerts.dto.PageDTO;
 import com.safetynetalerts.model.Person;
 import com.safetynetalerts.repository.DataRepository;
+import com.safetynetalerts.repository.Page;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
 
 @Service
 public class PersonService {
@@ -27,16 +30,35 @@ public class PersonService {
         return dataRepository.getPersons();
     }
 
+    /**
+     * Page de personnes triées par nom puis prénom.
+     *
+     * @param cursor curseur reçu avec la page précédente ({@code null} pour
+     *               la première)
+     * @param limit  nombre de personnes par page
+     * @throws IllegalArgumentException curseur illisible
+     */
+    public PageDTO<Person> getPersonsPage(String cursor, int limit) {
+        PageCursor after = PageCursor.decode(cursor);
+        Page<Person> page = after == null
+                ? dataRepository.snapshot().findPersonsAfter(null, null, limit)
+                : dataRepository.snapshot().findPersonsAfter(after.lastName(), after.firstName(), limit);
+        List<Person> items = page.getItems();
+        String next = null;
+        if (page.hasMore()) {
+            Person last = items.get(items.size() - 1);
+            next = PageCursor.encode(last.getLastName(), last.getFirstName());
+        }
+        logger.debug("Page de {} personne(s), suite : {}", items.size(), page.hasMore());
+        return new PageDTO<>(items, next);
+    }
+
     /**
      * Retrouve une Person par son prénom et nom
      * Renvoie null si non trouvée
      */
     public Person getPersonByName(String firstName, String lastName) {
-        Optional<Person> personOpt = dataRepository.getPersons().stream()
-                .filter(p -> p.getFirstName().equalsIgnoreCase(firstName)
-                        && p.getLastName().equalsIgnoreCase(lastName))
-                .findFirst();
-        return personOpt.orElse(null);
+        return dataRepository.findPerson(firstName, lastName);
     }
 
     /**
@@ -44,26 +66,42 @@ public class PersonService {
      * avec le même firstName & lastName
      */
     public Person addPerson(Person newPerson) {
-        boolean exists = dataRepository.getPersons().stream()
-                .anyMatch(p -> p.getFirstName().equalsIgnoreCase(newPerson.getFirstName())
-                        && p.getLastName().equalsIgnoreCase(newPerson.getLastName()));
-        if (exists) {
-            logger.warn("Person {} {} already exists. No creation performed.",
-                    newPerson.getFirstName(), newPerson.getLastName());
-            return null; // ou lever une exception en cas de duplication
-        }
+        // Vérification et ajout appliqués d'un bloc par l'écrivain unique
+        return dataRepository.execute(() -> {
+            boolean exists = dataRepository.findPerson(newPerson.getFirstName(), newPerson.getLastName()) != null;
+            if (exists) {
+                logger.warn("Person {} {} already exists. No creation performed.",
+                        newPerson.getFirstName(), newPerson.getLastName());
+                return null; // ou lever une exception en cas de duplication
+            }
 
-        dataRepository.getPersons().add(newPerson);
-        dataRepository.saveData();
-        logger.info("Added person: firstName={}, lastName={}, address={}, city={}, zip={}, phone={}, email={}",
-                newPerson.getFirstName(),
-                newPerson.getLastName(),
-                newPerson.getAddress(),
-                newPerson.getCity(),
-                newPerson.getZip(),
-                newPerson.getPhone(),
-                newPerson.getEmail());
-        return newPerson;
+            dataRepository.addPerson(newPerson);
+            logger.info("Added person: firstName={}, lastName={}, address={}, city={}, zip={}, phone={}, email={}",
+                    newPerson.getFirstName(),
+                    newPerson.getLastName(),
+                    newPerson.getAddress(),
+                    newPerson.getCity(),
+                    newPerson.getZip(),
+                    newPerson.getPhone(),
+                    newPerson.getEmail());
+            return newPerson;
+        });
+    }
+
+    /**
+     * Import en masse : crée les personnes encore inconnues (même règle
+     * de doublon que {@link #addPerson}), par lots d’une sauvegarde chacun.
+     *
+     * @param rows personnes lues au fil du flux
+     * @return bilan par statut et lignes non créées
+     */
+    public ImportResultDTO importPersons(Iterator<Person> rows) {
+        return new BulkImport<Person>(dataRepository,
+                p -> BulkImport.isBlank(p.getFirstName()) || BulkImport.isBlank(p.getLastName())
+                        ? "firstName et lastName sont obligatoires" : null,
+                dataRepository::addPersonsIfAbsent,
+                p -> p.getFirstName() + " " + p.getLastName())
+                .run(rows);
     }
 
     /**
@@ -72,23 +110,16 @@ public class PersonService {
      * On modifie les autres champs si la Person est trouvée.
      */
     public Person updatePerson(Person updated) {
-        for (Person p : dataRepository.getPersons()) {
-            if (p.getFirstName().equalsIgnoreCase(updated.getFirstName())
-                    && p.getLastName().equalsIgnoreCase(updated.getLastName())) {
-
+        return dataRepository.execute(() -> {
+            Person p = dataRepository.updatePerson(updated);
+            if (p != null) {
                 logger.info("Updating person: {} {}", p.getFirstName(), p.getLastName());
-                p.setAddress(updated.getAddress());
-                p.setCity(updated.getCity());
-                p.setZip(updated.getZip());
-                p.setPhone(updated.getPhone());
-                p.setEmail(updated.getEmail());
-                dataRepository.saveData();
                 return p;
             }
-        }
-        logger.warn("Person {} {} not found. Update not performed.",
-                updated.getFirstName(), updated.getLastName());
-        return null;
+            logger.warn("Person {} {} not found. Update not performed.",
+                    updated.getFirstName(), updated.getLastName());
+            return null;
+        });
     }
 
     /**
@@ -97,15 +128,14 @@ public class PersonService {
      * trouvée.
      */
     public boolean deletePerson(String firstName, String lastName) {
-        List<Person> persons = dataRepository.getPersons();
-        boolean removed = persons.removeIf(p -> p.getFirstName().equalsIgnoreCase(firstName)
-                && p.getLastName().equalsIgnoreCase(lastName));
-        if (removed) {
-            dataRepository.saveData();
-            logger.info("Deleted person: firstName={}, lastName={}", firstName, lastName);
-        } else {
-            logger.warn("Person {} {} not found. No deletion performed.", firstName, lastName);
-        }
-        return removed;
+        return dataRepository.execute(() -> {
+            boolean removed = dataRepository.deletePerson(firstName, lastName);
+            if (removed) {
+                logger.info("Deleted person: firstName={}, lastName={}", firstName, lastName);
+            } else {
+                logger.warn("Person {} {} not found. No deletion performed.", firstName, lastName);
+            }
+            return removed;
+        });
     }
 }
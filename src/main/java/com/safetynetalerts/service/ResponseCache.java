@@ -0,0 +1,263 @@
+package com.safetynetalerts.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynetalerts.repository.DataChange;
+import com.safetynetalerts.repository.DataRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Cache des réponses des endpoints de lecture, indexé par endpoint et
+ * paramètres.
+ *
+ * Chaque réponse est étiquetée par les données dont elle dépend (adresse,
+ * caserne, ville, nom de famille). Abonné aux écritures du
+ * {@link DataRepository}, le cache n’évince que les réponses dont une
+ * étiquette a changé (par exemple /fire?address=X quand un habitant de X
+ * change) ; un changement global le vide. Le nombre d’entrées est borné,
+ * les moins récemment lues étant évincées en premier (LRU).
+ *
+ * Une réponse calculée pendant qu’une écriture était diffusée n’est pas
+ * conservée : elle pourrait provenir de la version précédente.
+ */
+@Service
+public final class ResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+
+    /** Identifiant aléatoire de ce démarrage, préfixe des ETags. */
+    static final String BOOT_EPOCH = Long.toHexString(new SecureRandom().nextLong());
+
+    private final int maxEntries;
+    private final ObjectMapper mapper;
+
+    /** Entrées dans l’ordre des accès (la plus ancienne en tête). */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /** Étiquette → clés des entrées qui en dépendent. */
+    private final Map<String, Set<String>> keysByTag = new HashMap<>();
+    /** Nombre d’écritures reçues : une réponse calculée entre-temps n’est pas stockée. */
+    private long changes;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    @Autowired
+    public ResponseCache(DataRepository dataRepository,
+            @Value("${cache.responses.max-entries:10000}") int maxEntries,
+            ObjectMapper mapper) {
+        this.maxEntries = maxEntries;
+        this.mapper = mapper;
+        dataRepository.addChangeListener(this::invalidate);
+    }
+
+    /** Cache hors contexte Spring, avec un mapper par défaut. */
+    public ResponseCache(DataRepository dataRepository, int maxEntries) {
+        this(dataRepository, maxEntries, new ObjectMapper());
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Étiquettes */
+    /* ------------------------------------------------------------------ */
+
+    public static String addressTag(String address) {
+        return "address:" + normalize(address);
+    }
+
+    public static String stationTag(String station) {
+        return "station:" + station;
+    }
+
+    public static String cityTag(String city) {
+        return "city:" + normalize(city);
+    }
+
+    public static String lastNameTag(String lastName) {
+        return "lastName:" + normalize(lastName);
+    }
+
+    /**
+     * ETag fort d’une réponse : la clé (endpoint et paramètres) et la
+     * dernière version ayant modifié ses données suffisent à l’identifier,
+     * sans la calculer. Les versions repartant de zéro à chaque démarrage
+     * (et data.json pouvant avoir été modifié entre-temps), l’identifiant
+     * du démarrage en fait partie : un ETag d’un lancement précédent ne
+     * correspond jamais.
+     */
+    public static String etag(String key, long version) {
+        return "\"" + BOOT_EPOCH + "-" + Long.toHexString(version) + "-"
+                + Integer.toHexString(key.hashCode()) + "\"";
+    }
+
+    /** Paramètre textuel insensible à la casse, comme les recherches du repository. */
+    public static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Lecture */
+    /* ------------------------------------------------------------------ */
+
+    /**
+     * @param key    endpoint et paramètres normalisés
+     * @param tags   étiquettes des données dont dépend la réponse
+     * @param loader calcul de la réponse en cas d’absence
+     * @return la réponse en cache, sinon celle calculée (à ne pas modifier :
+     *         elle est partagée entre les requêtes)
+     */
+    public <T> T get(String key, Collection<String> tags, Supplier<T> loader) {
+        if (maxEntries <= 0) {
+            return loader.get();
+        }
+        long seen;
+        synchronized (this) {
+            Entry cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                @SuppressWarnings("unchecked")
+                T value = (T) cached.value;
+                return value;
+            }
+            misses++;
+            seen = changes;
+        }
+        T value = loader.get();
+        synchronized (this) {
+            if (changes == seen && !entries.containsKey(key)) {
+                store(key, tags, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Variante sérialisée : le JSON (et sa version gzip) est conservé pour
+     * être réécrit tel quel, sans repasser par Jackson. Même invalidation
+     * que les réponses objets.
+     *
+     * @param loader calcul de la réponse à sérialiser en cas d’absence
+     */
+    public EncodedResponse getEncoded(String key, Collection<String> tags, Supplier<?> loader) {
+        return get("json:" + key, tags, () -> EncodedResponse.of(mapper, loader.get()));
+    }
+
+    private void store(String key, Collection<String> tags, Object value) {
+        List<String> copy = List.copyOf(tags);
+        entries.put(key, new Entry(value, copy));
+        for (String tag : copy) {
+            keysByTag.computeIfAbsent(tag, t -> new HashSet<>()).add(key);
+        }
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries) {
+            Map.Entry<String, Entry> evicted = eldest.next();
+            eldest.remove();
+            unlink(evicted.getKey(), evicted.getValue());
+            evictions++;
+        }
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Invalidation */
+    /* ------------------------------------------------------------------ */
+
+    /** Évince les réponses touchées par l’écriture. */
+    synchronized void invalidate(DataChange change) {
+        changes++;
+        if (entries.isEmpty()) {
+            return;
+        }
+        if (change.isGlobal()) {
+            invalidations += entries.size();
+            entries.clear();
+            keysByTag.clear();
+            logger.debug("Cache des réponses vidé (version {})", change.getVersion());
+            return;
+        }
+        int before = entries.size();
+        change.getAddresses().forEach(a -> evictTag(addressTag(a)));
+        change.getStations().forEach(s -> evictTag(stationTag(s)));
+        change.getCities().forEach(c -> evictTag(cityTag(c)));
+        change.getLastNames().forEach(n -> evictTag(lastNameTag(n)));
+        invalidations += before - entries.size();
+    }
+
+    private void evictTag(String tag) {
+        Set<String> keys = keysByTag.remove(tag);
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            Entry entry = entries.remove(key);
+            if (entry != null) {
+                unlink(key, entry);
+            }
+        }
+    }
+
+    private void unlink(String key, Entry entry) {
+        for (String tag : entry.tags) {
+            Set<String> keys = keysByTag.get(tag);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                keysByTag.remove(tag);
+            }
+        }
+    }
+
+    /* ------------------------------------------------------------------ */
+    /* Métriques */
+    /* ------------------------------------------------------------------ */
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /** Entrées évincées pour rester sous {@code cache.responses.max-entries}. */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /** Entrées retirées suite à une écriture. */
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /** Réponse et étiquettes dont elle dépend. */
+    private static final class Entry {
+
+        private final Object value;
+        private final List<String> tags;
+
+        Entry(Object value, List<String> tags) {
+            this.value = value;
+            this.tags = tags;
+        }
+    }
+}
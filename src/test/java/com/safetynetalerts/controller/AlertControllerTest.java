@@ -1,18 +1,29 @@
 package com.safetynetalerts.controller;
 
 import com.safetynetalerts.dto.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.safetynetalerts.service.AlertService;
+import com.safetynetalerts.service.EncodedResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.json.JsonCompareMode;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -22,6 +33,9 @@ public class AlertControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ObjectMapper mapper;
+
     @MockitoBean
     private AlertService alertService;
 
@@ -51,6 +65,22 @@ public class AlertControllerTest {
                 .andExpect(jsonPath("$[0].firstName", is("Roger")));
     }
 
+    @Test
+    void childAlert_answersNotModifiedForCurrentETag() throws Exception {
+        Mockito.when(alertService.getChildAlertETag("1509 Culver St")).thenReturn("\"2a-1\"");
+        Mockito.when(alertService.getChildAlert("1509 Culver St")).thenReturn(List.of(child));
+
+        mockMvc.perform(get("/childAlert").param("address", "1509 Culver St"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2a-1\""));
+        mockMvc.perform(get("/childAlert").param("address", "1509 Culver St")
+                .header("If-None-Match", "\"2a-1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        Mockito.verify(alertService, Mockito.times(1)).getChildAlert("1509 Culver St");
+    }
+
     @Test
     void phoneAlert_returnsPhones() throws Exception {
         Mockito.when(alertService.getPhoneAlert("1"))
@@ -63,7 +93,7 @@ public class AlertControllerTest {
 
     @Test
     void fire_returnsStationAndOccupants() throws Exception {
-        Mockito.when(alertService.getFire("1509 Culver St")).thenReturn(fireDto);
+        Mockito.when(alertService.getFireJson("1509 Culver St")).thenReturn(EncodedResponse.of(mapper, fireDto));
 
         mockMvc.perform(get("/fire").param("address", "1509 Culver St"))
                 .andExpect(status().isOk())
@@ -71,10 +101,23 @@ public class AlertControllerTest {
                 .andExpect(jsonPath("$.persons", hasSize(1)));
     }
 
+    @Test
+    void fires_returnsOneEntryPerAddress() throws Exception {
+        Mockito.when(alertService.getFires(List.of("1509 Culver St", "29 15th St")))
+                .thenReturn(Map.of("1509 Culver St", fireDto, "29 15th St", new FireDTO("2", List.of())));
+
+        mockMvc.perform(get("/fire/addresses")
+                .param("addresses", "1509 Culver St")
+                .param("addresses", "29 15th St"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['1509 Culver St'].persons", hasSize(1)))
+                .andExpect(jsonPath("$['29 15th St'].stationNumber", is("2")));
+    }
+
     @Test
     void floodStations_returnsHouseholds() throws Exception {
-        Mockito.when(alertService.getFloodStations(List.of("1")))
-                .thenReturn(List.of(household));
+        Mockito.when(alertService.getFloodStationsJson(List.of("1")))
+                .thenReturn(EncodedResponse.of(mapper, List.of(household)));
 
         mockMvc.perform(get("/flood/stations").param("stations", "1"))
                 .andExpect(status().isOk())
@@ -82,6 +125,53 @@ public class AlertControllerTest {
                 .andExpect(jsonPath("$[0].address", is("1509 Culver St")));
     }
 
+    @Test
+    void floodStations_servesGzipToAcceptingClients() throws Exception {
+        List<HouseholdDTO> households = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            households.add(new HouseholdDTO(i + " Culver St", household.getOccupants()));
+        }
+        EncodedResponse encoded = EncodedResponse.of(mapper, households);
+        Mockito.when(alertService.getFloodStationsJson(List.of("1", "2"))).thenReturn(encoded);
+
+        byte[] body = mockMvc.perform(get("/flood/stations").param("stations", "1,2")
+                .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertThat(in.readAllBytes()).isEqualTo(encoded.getJson());
+        }
+    }
+
+    @Test
+    void floodStations_tagsGzipVariantWithItsOwnETag() throws Exception {
+        List<HouseholdDTO> households = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            households.add(new HouseholdDTO(i + " Culver St", household.getOccupants()));
+        }
+        Mockito.when(alertService.getFloodStationsETag(List.of("1"))).thenReturn("\"7-3\"");
+        Mockito.when(alertService.getFloodStationsJson(List.of("1"))).thenReturn(EncodedResponse.of(mapper, households));
+
+        mockMvc.perform(get("/flood/stations").param("stations", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"7-3\""))
+                .andExpect(header().string("Vary", "Accept-Encoding"));
+        mockMvc.perform(get("/flood/stations").param("stations", "1").header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"7-3-gz\""))
+                .andExpect(header().string("Content-Encoding", "gzip"));
+
+        // Le validateur de la variante non compressée ne vaut pas pour le corps gzip
+        mockMvc.perform(get("/flood/stations").param("stations", "1").header("Accept-Encoding", "gzip")
+                .header("If-None-Match", "\"7-3\""))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/flood/stations").param("stations", "1").header("Accept-Encoding", "gzip")
+                .header("If-None-Match", "\"7-3-gz\""))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     void personInfo_returnsPersons() throws Exception {
         Mockito.when(alertService.getPersonInfo("Boyd"))
@@ -92,6 +182,23 @@ public class AlertControllerTest {
                 .andExpect(jsonPath("$[0].email", is("john@mail.com")));
     }
 
+    @Test
+    void residentsByAge_passesRangeAndStation() throws Exception {
+        Mockito.when(alertService.getResidentsByAge(65, Integer.MAX_VALUE, "3", null))
+                .thenReturn(List.of(new ResidentAgeDTO("Eric", "Cadigan", "951 LoneTree Rd", "841-874-7458", 80, "3")));
+
+        mockMvc.perform(get("/residentsByAge").param("minAge", "65").param("station", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].age", is(80)));
+    }
+
+    @Test
+    void residentsByAge_rejectsInvertedRange() throws Exception {
+        mockMvc.perform(get("/residentsByAge").param("minAge", "65").param("maxAge", "18"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void communityEmail_returnsEmails() throws Exception {
         Mockito.when(alertService.getCommunityEmail("Culver"))
@@ -101,4 +208,25 @@ public class AlertControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(2)));
     }
+
+    @Test
+    void communityEmail_streamsJsonArrayInChunks() throws Exception {
+        List<String> emails = List.of("john@mail.com", "roger@mail.com", "jane@mail.com");
+        Mockito.when(alertService.forEachCommunityEmail(Mockito.eq("Culver"), Mockito.any()))
+                .thenAnswer(invocation -> {
+                    Consumer<String> action = invocation.getArgument(1);
+                    emails.forEach(action);
+                    return emails.size();
+                });
+
+        MvcResult pending = mockMvc.perform(get("/communityEmail")
+                .param("city", "Culver").param("stream", "true").param("chunkSize", "2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[\"john@mail.com\",\"roger@mail.com\",\"jane@mail.com\"]",
+                        JsonCompareMode.STRICT));
+    }
 }
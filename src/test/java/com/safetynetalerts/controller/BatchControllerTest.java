@@ -0,0 +1,59 @@
+package com.safetynetalerts.controller;
+
+import com.safetynetalerts.dto.BatchResultDTO;
+import com.safetynetalerts.service.BatchService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(BatchController.class)
+public class BatchControllerTest {
+
+    private static final String BODY = """
+            [{"action":"UPDATE","person":{"firstName":"John","lastName":"Boyd","address":"29 15th St"}},
+             {"action":"DELETE","firestation":{"address":"1509 Culver St"}}]
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private BatchService batchService;
+
+    @Test
+    void applyBatch_returnsNewVersion() throws Exception {
+        BatchResultDTO result = new BatchResultDTO();
+        result.setApplied(true);
+        result.setOperations(2);
+        result.setVersion(7);
+        Mockito.when(batchService.applyBatch(Mockito.argThat(ops -> ops.size() == 2
+                && ops.get(0).getPerson().getAddress().equals("29 15th St")
+                && ops.get(1).getFirestation() != null))).thenReturn(result);
+
+        mockMvc.perform(post("/batch").contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applied", is(true)))
+                .andExpect(jsonPath("$.version", is(7)));
+    }
+
+    @Test
+    void applyBatch_conflict_returns409() throws Exception {
+        BatchResultDTO result = new BatchResultDTO();
+        result.setFailedIndex(1);
+        result.setError("Firestation 1509 Culver St introuvable");
+        Mockito.when(batchService.applyBatch(Mockito.any())).thenReturn(result);
+
+        mockMvc.perform(post("/batch").contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.applied", is(false)))
+                .andExpect(jsonPath("$.failedIndex", is(1)));
+    }
+}
@@ -2,8 +2,12 @@ package com.safetynetalerts.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.safetynetalerts.dto.FirestationCoverageDTO;
+import com.safetynetalerts.dto.ImportResultDTO;
 import com.safetynetalerts.dto.PersonInfoDTO;
+import com.safetynetalerts.dto.StationCoverageDTO;
+import com.safetynetalerts.dto.StationReassignmentResultDTO;
 import com.safetynetalerts.model.Firestation;
+import com.safetynetalerts.service.EncodedResponse;
 import com.safetynetalerts.service.FirestationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,8 +18,11 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -49,7 +56,8 @@ public class FirestationControllerTest {
     // GET /firestation
     @Test
     void getPersonsByStation_returnsCoverage() throws Exception {
-        Mockito.when(firestationService.getPersonsCoveredByStation("1")).thenReturn(coverageDTO);
+        Mockito.when(firestationService.getPersonsCoveredByStationJson("1"))
+                .thenReturn(EncodedResponse.of(mapper, coverageDTO));
 
         mockMvc.perform(get("/firestation").param("stationNumber", "1"))
                 .andExpect(status().isOk())
@@ -58,6 +66,26 @@ public class FirestationControllerTest {
                 .andExpect(jsonPath("$.numberOfChildren", is(1)));
     }
 
+    // GET /firestation/coverage
+    @Test
+    void getStationCoverage_returnsCounters() throws Exception {
+        Mockito.when(firestationService.getStationCoverage("1"))
+                .thenReturn(new StationCoverageDTO("1", 3, 2, 1, 2));
+        Mockito.when(firestationService.getAllStationCoverages()).thenReturn(List.of(
+                new StationCoverageDTO("1", 3, 2, 1, 2),
+                new StationCoverageDTO("2", 1, 1, 0, 1)));
+
+        mockMvc.perform(get("/firestation/coverage").param("stationNumber", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].children", is(1)))
+                .andExpect(jsonPath("$[0].distinctPhones", is(2)));
+
+        mockMvc.perform(get("/firestation/coverage"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].station", contains("1", "2")));
+    }
+
     // POST /firestation
     @Test
     void addFirestation_createsMapping() throws Exception {
@@ -71,6 +99,47 @@ public class FirestationControllerTest {
                 .andExpect(jsonPath("$.address", is("1509 Culver St")));
     }
 
+    // POST /firestation/bulk
+    @Test
+    void importFirestations_readsNdjsonAndJsonArrayRows() throws Exception {
+        List<String> addresses = new ArrayList<>();
+        Mockito.when(firestationService.importFirestations(Mockito.any())).thenAnswer(invocation -> {
+            Iterator<Firestation> rows = invocation.getArgument(0);
+            ImportResultDTO result = new ImportResultDTO();
+            rows.forEachRemaining(f -> addresses.add(f.getAddress()));
+            result.setReceived(addresses.size());
+            result.setCreated(addresses.size());
+            return result;
+        });
+
+        mockMvc.perform(post("/firestation/bulk")
+                .contentType("application/x-ndjson")
+                .content("{\"address\":\"A St\",\"station\":\"1\"}\n{\"address\":\"B St\",\"station\":\"2\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", is(2)))
+                .andExpect(jsonPath("$.complete", is(true)));
+
+        mockMvc.perform(post("/firestation/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(List.of(firestation, updated))))
+                .andExpect(status().isOk());
+
+        assertThat(addresses).containsExactly("A St", "B St", "1509 Culver St", "1509 Culver St");
+    }
+
+    // PUT /firestation/reassign
+    @Test
+    void reassignStation_returnsMovedAddresses() throws Exception {
+        Mockito.when(firestationService.reassignStation(Mockito.argThat(r -> "3".equals(r.getFromStation()))))
+                .thenReturn(new StationReassignmentResultDTO("5", List.of("1509 Culver St"), List.of()));
+
+        mockMvc.perform(put("/firestation/reassign")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromStation\":\"3\",\"toStation\":\"5\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reassigned", contains("1509 Culver St")));
+    }
+
     // PUT /firestation
     @Test
     void updateFirestation_updatesMapping() throws Exception {
@@ -0,0 +1,68 @@
+package com.safetynetalerts.controller;
+
+import com.safetynetalerts.dto.CacheStatsDTO;
+import com.safetynetalerts.dto.MemoryFootprintDTO;
+import com.safetynetalerts.dto.PersistenceStatsDTO;
+import com.safetynetalerts.service.MonitoringService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(MonitoringController.class)
+public class MonitoringControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private MonitoringService monitoringService;
+
+    @Test
+    void persistence_returnsStats() throws Exception {
+        PersistenceStatsDTO stats = new PersistenceStatsDTO();
+        stats.setMode("JOURNAL");
+        stats.setAsync(true);
+        stats.setMaxBatchSize(12);
+        Mockito.when(monitoringService.getPersistenceStats()).thenReturn(stats);
+
+        mockMvc.perform(get("/monitoring/persistence"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mode", is("JOURNAL")))
+                .andExpect(jsonPath("$.async", is(true)))
+                .andExpect(jsonPath("$.maxBatchSize", is(12)));
+    }
+
+    @Test
+    void memory_returnsFootprint() throws Exception {
+        MemoryFootprintDTO footprint = new MemoryFootprintDTO();
+        footprint.setInternedValues(42);
+        footprint.setEstimatedBytesSaved(4096);
+        Mockito.when(monitoringService.getMemoryFootprint()).thenReturn(footprint);
+
+        mockMvc.perform(get("/monitoring/memory"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.internedValues", is(42)))
+                .andExpect(jsonPath("$.estimatedBytesSaved", is(4096)));
+    }
+
+    @Test
+    void cache_returnsStats() throws Exception {
+        CacheStatsDTO stats = new CacheStatsDTO();
+        stats.setHits(3);
+        stats.setMisses(1);
+        stats.setHitRatio(0.75);
+        Mockito.when(monitoringService.getCacheStats()).thenReturn(stats);
+
+        mockMvc.perform(get("/monitoring/cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits", is(3)))
+                .andExpect(jsonPath("$.hitRatio", is(0.75)));
+    }
+}
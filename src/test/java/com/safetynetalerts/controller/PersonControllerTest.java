@@ -1,6 +1,7 @@
 package com.safetynetalerts.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynetalerts.dto.PageDTO;
 import com.safetynetalerts.model.Person;
 import com.safetynetalerts.service.PersonService;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,9 +12,11 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -50,6 +53,44 @@ public class PersonControllerTest {
                 .andExpect(jsonPath("$[1].firstName", is("Jane")));
     }
 
+    @Test
+    void getAllPersons_defaultsToJsonArrayWithoutAccept() throws Exception {
+        Mockito.when(personService.getAllPersons()).thenReturn(List.of(john, jane));
+
+        mockMvc.perform(get("/person"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    void getPersonsPage_returnsItemsAndCursor() throws Exception {
+        Mockito.when(personService.getPersonsPage(null, 1)).thenReturn(new PageDTO<>(List.of(john), "abc"));
+
+        mockMvc.perform(get("/person").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor", is("abc")));
+    }
+
+    @Test
+    void streamPersons_writesOneJsonObjectPerLine() throws Exception {
+        Mockito.when(personService.getAllPersons()).thenReturn(List.of(john, jane));
+
+        MvcResult pending = mockMvc.perform(get("/person").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[1], Person.class).getFirstName())
+                .isEqualTo("Jane");
+    }
+
     @Test
     void getPersonByName_found() throws Exception {
         Mockito.when(personService.getPersonByName("John", "Boyd")).thenReturn(john);
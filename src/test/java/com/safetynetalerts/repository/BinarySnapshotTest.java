@@ -0,0 +1,71 @@
+package com.safetynetalerts.repository;
+
+import com.safetynetalerts.model.Firestation;
+import com.safetynetalerts.model.MedicalRecord;
+import com.safetynetalerts.model.Person;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BinarySnapshotTest {
+
+    private final List<Person> persons = List.of(
+            new Person("John", "Boyd", "1509 Culver St", "Culver", "97451", "111-111", "john@email.com"),
+            new Person("Zoé", "Boyd", "1509 Culver St", "Culver", "97451", null, "zoé@email.com"));
+    private final List<Firestation> firestations = List.of(new Firestation("1509 Culver St", "1"));
+    private final List<MedicalRecord> records = List.of(
+            new MedicalRecord("John", "Boyd", "03/06/1984", List.of("aznol:350mg", "hydrapermazol:100mg"), List.of()),
+            new MedicalRecord("Zoé", "Boyd", "01/01/2020", null, List.of("nillacilan")));
+
+    @Test
+    void writeThenRead_restoresEveryField(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("data.bin");
+
+        new BinarySnapshot().write(file, persons, firestations, records);
+
+        List<Person> readPersons = new ArrayList<>();
+        List<Firestation> readFirestations = new ArrayList<>();
+        List<MedicalRecord> readRecords = new ArrayList<>();
+        new BinarySnapshot().read(file, readPersons::add, readFirestations::add, readRecords::add);
+
+        assertThat(readPersons).usingRecursiveFieldByFieldElementComparator().isEqualTo(persons);
+        assertThat(readFirestations).usingRecursiveFieldByFieldElementComparator().isEqualTo(firestations);
+        assertThat(readRecords).usingRecursiveFieldByFieldElementComparator().isEqualTo(records);
+        // Chaînes répétées décodées une seule fois
+        assertThat(readPersons.get(0).getAddress()).isSameAs(readPersons.get(1).getAddress());
+    }
+
+    @Test
+    void read_truncatedFile_fails(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("data.bin");
+        new BinarySnapshot().write(file, persons, firestations, records);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+
+        assertThatThrownBy(() -> new BinarySnapshot().read(file, p -> { }, f -> { }, m -> { }))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void converter_roundTripsThroughJson(@TempDir Path dir) throws Exception {
+        Path json = dir.resolve("data.json");
+        Path binary = dir.resolve("data.json.bin");
+        Path back = dir.resolve("back.json");
+        new JsonDataWriter().write(json, persons, firestations, records, true);
+
+        SnapshotConverter.toBinary(json, binary);
+        SnapshotConverter.toJson(binary, back, true);
+
+        assertThat(Files.readString(back)).isEqualTo(Files.readString(json));
+        assertThat(Files.size(binary)).isLessThan(Files.size(json));
+    }
+}
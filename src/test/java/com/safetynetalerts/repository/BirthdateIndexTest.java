@@ -0,0 +1,89 @@
+package com.safetynetalerts.repository;
+
+import com.safetynetalerts.model.MedicalRecord;
+import com.safetynetalerts.model.Person;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BirthdateIndexTest {
+
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
+    @Test
+    void incrementalWrites_keepTheIndexSortedAcrossChunks() {
+        Random random = new Random(42);
+        List<Resident> expected = new ArrayList<>();
+        BirthdateIndex.Builder builder = BirthdateIndex.EMPTY.toBuilder();
+        for (int i = 0; i < 3000; i++) {
+            Resident r = resident("p" + i, 1950 + random.nextInt(60));
+            expected.add(r);
+            builder.add(r);
+        }
+        BirthdateIndex base = builder.build();
+        List<Resident> baseContent = new ArrayList<>(expected);
+
+        BirthdateIndex.Builder next = base.toBuilder();
+        for (int i = 0; i < 500; i++) {
+            Resident removed = expected.remove(random.nextInt(expected.size()));
+            assertThat(next.remove(removed)).isTrue();
+        }
+        for (int i = 0; i < 200; i++) {
+            int at = random.nextInt(expected.size());
+            Resident previous = expected.get(at);
+            Resident moved = resident(previous.getPerson().getFirstName(), 1950 + random.nextInt(60));
+            expected.set(at, moved);
+            next.replace(previous, moved);
+        }
+        BirthdateIndex updated = next.build();
+
+        List<Resident> all = updated.find(Integer.MIN_VALUE + 1, Integer.MAX_VALUE);
+        assertThat(all).containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(all).extracting(Resident::getBirthEpochDay)
+                .containsExactlyElementsOf(sorted(expected).stream().map(Resident::getBirthEpochDay).toList());
+        int from = (int) LocalDate.of(1970, 1, 1).toEpochDay();
+        int to = (int) LocalDate.of(1979, 12, 31).toEpochDay();
+        assertThat(updated.find(from, to)).containsExactlyInAnyOrderElementsOf(expected.stream()
+                .filter(r -> r.getBirthEpochDay() >= from && r.getBirthEpochDay() <= to)
+                .toList());
+        // La version précédente n’est pas touchée
+        assertThat(base.find(Integer.MIN_VALUE + 1, Integer.MAX_VALUE))
+                .containsExactlyElementsOf(sorted(baseContent));
+    }
+
+    @Test
+    void replace_withSameBirthdate_keepsPosition() {
+        Resident first = resident("A", 1980);
+        Resident second = resident("B", 1980);
+        Resident undated = new Resident(new Person("C", "Doe", "", "", "", "", ""), null, null);
+        BirthdateIndex.Builder builder = BirthdateIndex.EMPTY.toBuilder();
+        builder.add(first);
+        builder.add(second);
+        builder.add(undated);
+        BirthdateIndex base = builder.build();
+
+        BirthdateIndex.Builder next = base.toBuilder();
+        Resident moved = first.withStation("3");
+        next.replace(first, moved);
+        assertThat(next.build().find(Integer.MIN_VALUE + 1, Integer.MAX_VALUE)).containsExactly(moved, second);
+    }
+
+    private static List<Resident> sorted(List<Resident> residents) {
+        List<Resident> sorted = new ArrayList<>(residents);
+        sorted.sort(Comparator.comparingInt(Resident::getBirthEpochDay));
+        return sorted;
+    }
+
+    private static Resident resident(String firstName, int year) {
+        String birthdate = LocalDate.of(year, 1, 1).plusDays(firstName.length()).format(FORMAT);
+        return new Resident(new Person(firstName, "Doe", "", "", "", "", ""),
+                new MedicalRecord(firstName, "Doe", birthdate, List.of(), List.of()), null);
+    }
+}
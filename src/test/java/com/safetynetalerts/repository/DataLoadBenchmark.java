@@ -0,0 +1,157 @@
+package com.safetynetalerts.repository;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynetalerts.model.Firestation;
+import com.safetynetalerts.model.MedicalRecord;
+import com.safetynetalerts.model.Person;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Compare le chargement historique (arbre {@code JsonNode} puis conversion)
+ * au chargement streaming de {@link DataRepository}, et au chargement du
+ * {@link BinarySnapshot} : durée et pic de heap.
+ *
+ * Non exécuté par Maven (pas de suffixe « Test »). Lancement, après
+ * {@code mvn test-compile}, de préférence un mode par JVM :
+ *
+ * <pre>
+ * java -Xmx8g -cp target/classes:target/test-classes:&lt;classpath&gt; \
+ *     com.safetynetalerts.repository.DataLoadBenchmark 2000000 tree
+ * java -Xmx8g -cp ... com.safetynetalerts.repository.DataLoadBenchmark 2000000 streaming
+ * java -Xmx8g -cp ... com.safetynetalerts.repository.DataLoadBenchmark 2000000 binary
+ * </pre>
+ */
+public class DataLoadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int persons = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        String mode = args.length > 1 ? args[1] : "both";
+
+        Path file = Files.createTempFile("safetynet-bench", ".json");
+        Path binary = file.resolveSibling(file.getFileName() + ".bin");
+        try {
+            generate(file, persons);
+            System.out.printf("Fichier : %,d personnes, %,d Mo%n", persons, Files.size(file) >> 20);
+
+            if (mode.equals("tree") || mode.equals("both")) {
+                measure("tree", () -> loadWithTree(file));
+            }
+            if (mode.equals("streaming") || mode.equals("both")) {
+                measure("streaming", () -> loadStreaming(file, SnapshotFormat.JSON));
+            }
+            if (mode.equals("binary") || mode.equals("both")) {
+                SnapshotConverter.toBinary(file, binary);
+                System.out.printf("Snapshot binaire : %,d Mo%n", Files.size(binary) >> 20);
+                measure("binary", () -> loadStreaming(file, SnapshotFormat.BINARY));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(binary);
+        }
+    }
+
+    /** Chargement historique : readTree puis traverse() de chaque sous-arbre. */
+    private static DataRepository loadWithTree(Path file) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        try (InputStream is = Files.newInputStream(file)) {
+            JsonNode root = mapper.readTree(is);
+            List<Person> p = mapper.readValue(root.get("persons").traverse(), new TypeReference<>() {
+            });
+            List<Firestation> f = mapper.readValue(root.get("firestations").traverse(), new TypeReference<>() {
+            });
+            List<MedicalRecord> m = mapper.readValue(root.get("medicalrecords").traverse(), new TypeReference<>() {
+            });
+            DataRepository repository = new DataRepository();
+            repository.load(p, f, m);
+            return repository;
+        }
+    }
+
+    private static DataRepository loadStreaming(Path file, SnapshotFormat format) {
+        DataRepository repository = new DataRepository();
+        ReflectionTestUtils.setField(repository, "dataFile", new FileSystemResource(file));
+        ReflectionTestUtils.setField(repository, "snapshotFormat", format);
+        ReflectionTestUtils.invokeMethod(repository, "loadData");
+        return repository;
+    }
+
+    private static void measure(String label, Loader loader) throws Exception {
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        System.gc();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        long start = System.nanoTime();
+        DataRepository repository = loader.load();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        long peak = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        System.out.printf("%-10s %,8d ms   pic heap %,8d Mo   (%,d personnes)%n",
+                label, elapsedMillis, peak >> 20, repository.getPersons().size());
+    }
+
+    /** Génère un jeu de données réaliste : ~4 habitants par adresse, 50 casernes. */
+    private static void generate(Path file, int persons) throws IOException {
+        int addresses = Math.max(1, persons / 4);
+        ObjectMapper mapper = new ObjectMapper();
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(Files.newOutputStream(file))) {
+            gen.writeStartObject();
+            gen.writeArrayFieldStart("persons");
+            for (int i = 0; i < persons; i++) {
+                gen.writeStartObject();
+                gen.writeStringField("firstName", "First" + i);
+                gen.writeStringField("lastName", "Last" + (i / 4));
+                gen.writeStringField("address", (i % addresses) + " Main St");
+                gen.writeStringField("city", "City" + (i % 20));
+                gen.writeStringField("zip", String.valueOf(97000 + i % 20));
+                gen.writeStringField("phone", "841-874-" + (i % 10_000));
+                gen.writeStringField("email", "user" + i + "@email.com");
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeArrayFieldStart("firestations");
+            for (int a = 0; a < addresses; a++) {
+                gen.writeStartObject();
+                gen.writeStringField("address", a + " Main St");
+                gen.writeStringField("station", String.valueOf(a % 50));
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeArrayFieldStart("medicalrecords");
+            for (int i = 0; i < persons; i++) {
+                gen.writeStartObject();
+                gen.writeStringField("firstName", "First" + i);
+                gen.writeStringField("lastName", "Last" + (i / 4));
+                gen.writeStringField("birthdate", String.format("%02d/%02d/%d", 1 + i % 12, 1 + i % 28, 1930 + i % 90));
+                gen.writeArrayFieldStart("medications");
+                gen.writeString("aznol:350mg");
+                gen.writeEndArray();
+                gen.writeArrayFieldStart("allergies");
+                gen.writeString("nillacilan");
+                gen.writeEndArray();
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Loader {
+        DataRepository load() throws Exception;
+    }
+}
@@ -0,0 +1,432 @@
+package com.safetynetalerts.repository;
+
+import com.safetynetalerts.model.Firestation;
+import com.safetynetalerts.model.MedicalRecord;
+import com.safetynetalerts.model.Person;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class DataRepositoryTest {
+
+    private DataRepository dataRepository;
+
+    private Person john;
+    private Person jane;
+
+    @BeforeEach
+    void setUp() {
+        dataRepository = new DataRepository();
+
+        john = new Person("John", "Boyd", "1509 Culver St", "Culver", "97451",
+                "111-111", "john@email.com");
+        jane = new Person("Jane", "Doe", "29 15th St", "Culver", "97451",
+                "333-333", "jane@email.com");
+
+        dataRepository.load(List.of(john, jane),
+                List.of(new Firestation("1509 Culver St", "1"), new Firestation("29 15th St", "2")),
+                List.of(new MedicalRecord("John", "Boyd", "01/01/1980", List.of(), List.of())));
+    }
+
+    // ---------------
+    // index lookups
+    // ---------------
+    @Test
+    void lookups_areCaseInsensitive() {
+        assertThat(dataRepository.findPerson("JOHN", "boyd")).isSameAs(john);
+        assertThat(dataRepository.findPersonsByAddress("1509 culver st")).containsExactly(john);
+        assertThat(dataRepository.findMedicalRecord("john", "BOYD")).isNotNull();
+        assertThat(dataRepository.findFirestation("29 15TH ST").getStation()).isEqualTo("2");
+    }
+
+    // ---------------------
+    // index maintenance
+    // ---------------------
+    @Test
+    void updatePerson_movesPersonBetweenAddressBuckets() {
+        Person moved = new Person("John", "Boyd", "29 15th St", "Culver", "97451",
+                "111-111", "john@email.com");
+        dataRepository.updatePerson(moved);
+
+        assertThat(dataRepository.findPersonsByAddress("1509 Culver St")).isEmpty();
+        assertThat(dataRepository.findPersonsByAddress("29 15th St"))
+                .extracting(Person::getFirstName)
+                .containsExactlyInAnyOrder("John", "Jane");
+    }
+
+    @Test
+    void updateFirestation_movesAddressBetweenStations() {
+        dataRepository.updateFirestation("1509 Culver St", "2");
+
+        assertThat(dataRepository.findAddressesByStation("1")).isEmpty();
+        assertThat(dataRepository.findAddressesByStation("2"))
+                .containsExactly("29 15th St", "1509 Culver St");
+    }
+
+    @Test
+    void reassignFirestations_movesOnlyMappingsOfSourceStationInOneVersion() {
+        // 29 15th St est desservie par 2 et 1 : seul son mapping vers 1 bouge
+        dataRepository.addFirestation(new Firestation("29 15th St", "1"));
+        long version = dataRepository.snapshot().getVersion();
+
+        List<Firestation> moved = dataRepository.reassignFirestations("1", null, "4");
+
+        assertThat(moved).extracting(Firestation::getAddress)
+                .containsExactlyInAnyOrder("1509 Culver St", "29 15th St");
+        assertThat(dataRepository.snapshot().getVersion()).isEqualTo(version + 1);
+        assertThat(dataRepository.findAddressesByStation("1")).isEmpty();
+        assertThat(dataRepository.findAddressesByStation("2")).containsExactly("29 15th St");
+        assertThat(dataRepository.findAddressesByStation("4"))
+                .containsExactlyInAnyOrder("1509 Culver St", "29 15th St");
+        assertThat(dataRepository.snapshot().getStationCoverage("1").getResidents()).isZero();
+        assertThat(dataRepository.snapshot().getStationCoverage("4").getResidents()).isEqualTo(2);
+        assertThat(dataRepository.snapshot().getStationCoverage("2").getResidents()).isEqualTo(1);
+
+        // Rien à déplacer : aucune version publiée
+        assertThat(dataRepository.reassignFirestations("1", null, "4")).isEmpty();
+        assertThat(dataRepository.snapshot().getVersion()).isEqualTo(version + 1);
+    }
+
+    @Test
+    void updateFirestation_keepsAddressUnderStationStillMappedByDuplicate() {
+        // Comme « 748 Townings Dr » dans data.json : deux mappings vers la même caserne
+        dataRepository.addFirestation(new Firestation("1509 Culver St", "1"));
+
+        dataRepository.updateFirestation("1509 Culver St", "2");
+
+        assertThat(dataRepository.findAddressesByStation("1")).containsExactly("1509 Culver St");
+        assertThat(dataRepository.findAddressesByStation("2")).containsExactlyInAnyOrder("29 15th St", "1509 Culver St");
+        assertThat(dataRepository.snapshot().getStationCoverage("1").getResidents()).isEqualTo(1);
+        assertThat(dataRepository.snapshot().getStationCoverage("2").getResidents()).isEqualTo(2);
+    }
+
+    @Test
+    void childThresholdRecount_matchesIncrementalCoverage() {
+        dataRepository.addFirestation(new Firestation("1509 Culver St", "1"));
+        dataRepository.updateFirestation("1509 Culver St", "2");
+
+        // John (1980) devient « enfant » : compté par chaque caserne qui dessert son adresse
+        dataRepository.updateChildBirthDayThreshold((int) LocalDate.of(1970, 1, 1).toEpochDay());
+        assertThat(dataRepository.snapshot().getStationCoverage("1").getChildren()).isEqualTo(1);
+        assertThat(dataRepository.snapshot().getStationCoverage("2").getChildren()).isEqualTo(1);
+        assertThat(dataRepository.snapshot().getStationCoverage("1").getAdults()).isZero();
+    }
+
+    @Test
+    void applyAll_appliesReassignmentsWithTheRestOfTheBatch() {
+        int rejected = dataRepository.applyAll(List.of(
+                Mutation.of(Mutation.Type.ADD_FIRESTATION, new Firestation("3 Elm St", "1")),
+                Mutation.reassign("1509 Culver St", "1", "4"),
+                Mutation.reassign("3 Elm St", "1", "4")));
+
+        assertThat(rejected).isEqualTo(-1);
+        assertThat(dataRepository.findAddressesByStation("1")).isEmpty();
+        assertThat(dataRepository.findAddressesByStation("4")).containsExactlyInAnyOrder("1509 Culver St", "3 Elm St");
+
+        // Adresse sans mapping : tout le lot est refusé
+        assertThat(dataRepository.applyAll(List.of(Mutation.reassign("9 Nowhere", "4", "5")))).isZero();
+    }
+
+    @Test
+    void delete_removesFromListsAndIndexes() {
+        assertThat(dataRepository.deletePerson("Jane", "Doe")).isTrue();
+        assertThat(dataRepository.deleteMedicalRecord("John", "Boyd")).isTrue();
+
+        assertThat(dataRepository.getPersons()).containsExactly(john);
+        assertThat(dataRepository.findPersonsByLastName("Doe")).isEmpty();
+        assertThat(dataRepository.findMedicalRecord("John", "Boyd")).isNull();
+        assertThat(dataRepository.getMedicalRecords()).isEmpty();
+    }
+
+    // ----------------
+    // resident view
+    // ----------------
+    @Test
+    void residents_followMedicalRecordAndStationChanges() {
+        Resident resident = dataRepository.findResidentsByAddress("1509 Culver St").get(0);
+        assertThat(resident.getStation()).isEqualTo("1");
+        assertThat(resident.getBirthDate()).isEqualTo(LocalDate.of(1980, 1, 1));
+
+        dataRepository.updateMedicalRecord(new MedicalRecord("John", "Boyd", "02/03/2001", List.of(), List.of()));
+        dataRepository.updateFirestation("1509 Culver St", "4");
+        resident = dataRepository.findResidentsByAddress("1509 Culver St").get(0);
+        assertThat(resident.getBirthDate()).isEqualTo(LocalDate.of(2001, 2, 3));
+        assertThat(resident.getStation()).isEqualTo("4");
+
+        dataRepository.deleteMedicalRecord("John", "Boyd");
+        dataRepository.deleteFirestation("1509 Culver St");
+        resident = dataRepository.findResidentsByAddress("1509 Culver St").get(0);
+        assertThat(resident.getMedicalRecord()).isNull();
+        assertThat(resident.getStation()).isNull();
+    }
+
+    @Test
+    void birthRanges_followMedicalRecordAndStationChanges() {
+        int from = (int) LocalDate.of(1970, 1, 1).toEpochDay();
+        int to = (int) LocalDate.of(2010, 1, 1).toEpochDay();
+        DataSnapshot before = dataRepository.snapshot();
+
+        dataRepository.updateMedicalRecord(new MedicalRecord("John", "Boyd", "02/03/2001", List.of(), List.of()));
+        dataRepository.updateFirestation("1509 Culver St", "4");
+
+        DataSnapshot after = dataRepository.snapshot();
+        assertThat(after.findResidentsByBirthRange(from, to))
+                .extracting(Resident::getBirthDate, Resident::getStation)
+                .containsExactly(tuple(LocalDate.of(2001, 2, 3), "4"));
+        assertThat(after.findStationResidentsByBirthRange("1", from, to)).isEmpty();
+        assertThat(after.findStationResidentsByBirthRange("4", from, to))
+                .extracting(r -> r.getPerson().getFirstName()).containsExactly("John");
+        // La version précédente garde ses propres index
+        assertThat(before.findStationResidentsByBirthRange("1", from, to))
+                .extracting(Resident::getBirthDate).containsExactly(LocalDate.of(1980, 1, 1));
+
+        dataRepository.deleteMedicalRecord("John", "Boyd");
+        assertThat(dataRepository.snapshot().findResidentsByBirthRange(from, to)).isEmpty();
+        assertThat(dataRepository.snapshot().findStationResidentsByBirthRange("4", from, to)).isEmpty();
+    }
+
+    // -------------------
+    // station coverage
+    // -------------------
+    @Test
+    void stationCoverage_followsWritesAndThresholdChanges() {
+        dataRepository.updateChildBirthDayThreshold((int) LocalDate.of(2000, 1, 1).toEpochDay());
+        dataRepository.addPerson(new Person("Tenley", "Boyd", "1509 Culver St", "Culver", "97451",
+                "111-111", "tenley@email.com"));
+        dataRepository.addMedicalRecord(new MedicalRecord("Tenley", "Boyd", "02/18/2012", List.of(), List.of()));
+
+        StationCoverage one = dataRepository.snapshot().getStationCoverage("1");
+        assertThat(one.getResidents()).isEqualTo(2);
+        assertThat(one.getAdults()).isEqualTo(1);
+        assertThat(one.getChildren()).isEqualTo(1);
+        assertThat(one.getDistinctPhones()).isEqualTo(1);
+
+        // Jane (sans dossier) rejoint la caserne 1 : ni adulte ni enfant
+        dataRepository.updateFirestation("29 15th St", "1");
+        one = dataRepository.snapshot().getStationCoverage("1");
+        assertThat(one.getResidents()).isEqualTo(3);
+        assertThat(one.getAdults() + one.getChildren()).isEqualTo(2);
+        assertThat(one.getDistinctPhones()).isEqualTo(2);
+        assertThat(dataRepository.snapshot().getStationCoverages()).doesNotContainKey("2");
+
+        // Bascule : le seuil passe après la naissance de Tenley
+        dataRepository.updateChildBirthDayThreshold((int) LocalDate.of(2013, 1, 1).toEpochDay());
+        one = dataRepository.snapshot().getStationCoverage("1");
+        assertThat(one.getAdults()).isEqualTo(2);
+        assertThat(one.getChildren()).isZero();
+
+        dataRepository.deletePerson("John", "Boyd");
+        dataRepository.deleteFirestation("29 15th St");
+        one = dataRepository.snapshot().getStationCoverage("1");
+        assertThat(one.getResidents()).isEqualTo(1);
+        assertThat(one.getDistinctPhones()).isEqualTo(1);
+        // Numéro partagé : toujours présent tant que Tenley est couverte
+        assertThat(one.getPhones()).containsExactly("111-111");
+        assertThat(dataRepository.snapshot().getStationCoverage("3").getResidents()).isZero();
+    }
+
+    @Test
+    void cityEmails_areCountedAcrossPersonWrites() {
+        dataRepository.addPerson(new Person("Tenley", "Boyd", "1509 Culver St", "culver", "97451",
+                "111-111", "john@email.com"));
+        assertThat(dataRepository.snapshot().findDistinctEmailsByCity("CULVER"))
+                .containsExactlyInAnyOrder("john@email.com", "jane@email.com");
+
+        // E-mail partagé : conservé tant que Tenley l’utilise encore
+        dataRepository.deletePerson("John", "Boyd");
+        dataRepository.updatePerson(new Person("Jane", "Doe", "29 15th St", "Springfield", "97451",
+                "333-333", "jane@email.com"));
+        assertThat(dataRepository.snapshot().findDistinctEmailsByCity("Culver")).containsExactly("john@email.com");
+        assertThat(dataRepository.snapshot().findDistinctEmailsByCity("springfield"))
+                .containsExactly("jane@email.com");
+    }
+
+    // -----------
+    // snapshots
+    // -----------
+    @Test
+    void publishedSnapshot_isUnchangedByLaterWrites() {
+        DataSnapshot before = dataRepository.snapshot();
+
+        dataRepository.updatePerson(new Person("John", "Boyd", "29 15th St", "Culver", "97451",
+                "111-111", "john@email.com"));
+        dataRepository.deletePerson("Jane", "Doe");
+        dataRepository.updateFirestation("1509 Culver St", "3");
+
+        assertThat(before.findPerson("John", "Boyd").getAddress()).isEqualTo("1509 Culver St");
+        assertThat(before.findPersonsByAddress("29 15th St")).containsExactly(jane);
+        assertThat(before.findFirestation("1509 Culver St").getStation()).isEqualTo("1");
+        assertThat(before.findResidentsByAddress("1509 Culver St").get(0).getStation()).isEqualTo("1");
+
+        DataSnapshot after = dataRepository.snapshot();
+        assertThat(after.getVersion()).isEqualTo(before.getVersion() + 3);
+        assertThat(after.findPersonsByAddress("29 15th St"))
+                .extracting(Person::getFirstName)
+                .containsExactly("John");
+        assertThat(after.findAddressesByStation("3")).containsExactly("1509 Culver St");
+    }
+
+    @Test
+    void addPerson_isJoinedToExistingRecordAndStation() {
+        dataRepository.addMedicalRecord(new MedicalRecord("Jane", "Doe", "05/06/1990", List.of(), List.of()));
+        Resident resident = dataRepository.findResidentsByLastName("doe").get(0);
+
+        assertThat(resident.getMedicalRecord()).isNotNull();
+        assertThat(resident.getStation()).isEqualTo("2");
+    }
+
+    // -------------
+    // string pool
+    // -------------
+    @Test
+    void repeatedValues_shareOneInstance() {
+        Person neighbour = new Person("Tenley", "Boyd", new String("1509 Culver St"), new String("Culver"),
+                new String("97451"), "222", "t@mail.com");
+        dataRepository.addPerson(neighbour);
+        Person moved = new Person("Jane", "Doe", new String("1509 Culver St"), new String("Culver"),
+                new String("97451"), "999", "jane@mail.com");
+        dataRepository.updatePerson(moved);
+
+        Person first = dataRepository.findPerson("John", "Boyd");
+        assertThat(neighbour.getAddress()).isSameAs(first.getAddress());
+        assertThat(neighbour.getCity()).isSameAs(first.getCity());
+        assertThat(dataRepository.findPerson("Jane", "Doe").getZip()).isSameAs(first.getZip());
+
+        MemoryFootprint footprint = dataRepository.getMemoryFootprint();
+        assertThat(footprint.getSharedReferences()).isGreaterThan(footprint.getInternedValues());
+        assertThat(footprint.getEstimatedBytesSaved()).isPositive();
+    }
+
+    // ----------------
+    // name order pages
+    // ----------------
+    @Test
+    void personPages_carryTheNameOrderAcrossWrites() {
+        assertThat(names(dataRepository.snapshot().findPersonsAfter(null, null, 10)))
+                .containsExactly("Boyd John", "Doe Jane");
+
+        dataRepository.addPerson(new Person("Al", "Aaron", "1 Main St", "Culver", "97451", "1", "a@mail.com"));
+        dataRepository.addPerson(new Person("Zed", "Doe", "1 Main St", "Culver", "97451", "2", "z@mail.com"));
+        dataRepository.deletePerson("John", "Boyd");
+        // Deux versions sans page demandée entre elles : changements cumulés
+        dataRepository.updatePerson(new Person("Jane", "Doe", "9 Elm St", "Culver", "97451", "3", "j@mail.com"));
+        dataRepository.addFirestation(new Firestation("9 Elm St", "4"));
+
+        Page<Person> first = dataRepository.snapshot().findPersonsAfter(null, null, 2);
+        assertThat(names(first)).containsExactly("Aaron Al", "Doe Jane");
+        assertThat(first.getItems().get(1).getAddress()).isEqualTo("9 Elm St");
+        assertThat(names(dataRepository.snapshot().findPersonsAfter("Doe", "Jane", 2))).containsExactly("Doe Zed");
+
+        dataRepository.deleteMedicalRecord("John", "Boyd");
+        dataRepository.addMedicalRecord(new MedicalRecord("Al", "Aaron", "01/01/1990", List.of(), List.of()));
+        assertThat(dataRepository.snapshot().findMedicalRecordsAfter(null, null, 10).getItems())
+                .extracting(MedicalRecord::getLastName)
+                .containsExactly("Aaron");
+    }
+
+    private static List<String> names(Page<Person> page) {
+        return page.getItems().stream().map(p -> p.getLastName() + " " + p.getFirstName()).toList();
+    }
+
+    // -------------
+    // journal mode
+    // -------------
+    @Test
+    void journalMode_appendsMutationsAndReplaysThemOnRestart(@TempDir Path dir) throws Exception {
+        Path data = dir.resolve("data.json");
+        Files.writeString(data, "{\"persons\":[],\"firestations\":[],\"medicalrecords\":[]}");
+
+        DataRepository first = fileRepository(data, PersistenceMode.JOURNAL);
+        first.addPerson(new Person("John", "Boyd", "1509 Culver St", "Culver", "97451", "111", "j@mail.com"));
+        first.saveData();
+        first.addFirestation(new Firestation("1509 Culver St", "1"));
+        first.updateFirestation("1509 Culver St", "3");
+        first.saveData();
+
+        assertThat(Files.readString(data)).doesNotContain("John");
+        assertThat(Files.readAllLines(dir.resolve("data.json.journal"))).hasSize(3);
+
+        DataRepository restarted = fileRepository(data, PersistenceMode.JOURNAL);
+        assertThat(restarted.findResidentsByAddress("1509 Culver St"))
+                .extracting(Resident::getStation)
+                .containsExactly("3");
+
+        restarted.compact();
+        assertThat(dir.resolve("data.json.journal")).doesNotExist();
+        assertThat(Files.readString(data)).contains("John");
+    }
+
+    @Test
+    void failedSave_isReportedAndRetriedByNextBatch(@TempDir Path dir) throws Exception {
+        Path data = dir.resolve("data.json");
+        Files.writeString(data, "{\"persons\":[],\"firestations\":[],\"medicalrecords\":[]}");
+        DataRepository repository = fileRepository(data, PersistenceMode.SNAPSHOT);
+
+        // Un répertoire non vide à la place du fichier temporaire bloque l’écriture
+        Path blocker = Files.createDirectories(dir.resolve("data.json.tmp").resolve("x"));
+        repository.addPerson(new Person("John", "Boyd", "1509 Culver St", "Culver", "97451", "111", "j@mail.com"));
+        assertThatThrownBy(repository::saveData).isInstanceOf(UncheckedIOException.class);
+
+        repository.execute(() -> repository.findPerson("John", "Boyd"));
+        assertThat(Files.readString(data)).doesNotContain("John");
+
+        Files.delete(blocker);
+        Files.delete(blocker.getParent());
+        repository.execute(() -> null); // aucune modification : seule la version en échec est réécrite
+        assertThat(Files.readString(data)).contains("John");
+        repository.close();
+    }
+
+    // -------------
+    // binary snapshot
+    // -------------
+    @Test
+    void binarySnapshot_isPreferredUnlessJsonIsNewer(@TempDir Path dir) throws Exception {
+        Path data = dir.resolve("data.json");
+        Path binary = dir.resolve("data.json.bin");
+        Files.writeString(data, "{\"persons\":[],\"firestations\":[],\"medicalrecords\":[]}");
+
+        DataRepository first = fileRepository(data, PersistenceMode.SNAPSHOT, SnapshotFormat.JSON_AND_BINARY);
+        assertThat(binary).exists(); // généré dès le premier démarrage
+        first.addPerson(new Person("John", "Boyd", "1509 Culver St", "Culver", "97451", "111", "j@mail.com"));
+        first.saveData();
+
+        // JSON illisible mais plus ancien : seul le binaire est lu
+        Files.writeString(data, "pas du JSON");
+        Files.setLastModifiedTime(data, FileTime.fromMillis(Files.getLastModifiedTime(binary).toMillis() - 1000));
+        assertThat(fileRepository(data, PersistenceMode.SNAPSHOT, SnapshotFormat.JSON_AND_BINARY)
+                .findPerson("John", "Boyd")).isNotNull();
+
+        // JSON modifié à la main après le binaire : il fait foi
+        Files.writeString(data, "{\"persons\":[],\"firestations\":[],\"medicalrecords\":[]}");
+        Files.setLastModifiedTime(data, FileTime.fromMillis(Files.getLastModifiedTime(binary).toMillis() + 1000));
+        assertThat(fileRepository(data, PersistenceMode.SNAPSHOT, SnapshotFormat.JSON_AND_BINARY)
+                .findPerson("John", "Boyd")).isNull();
+    }
+
+    private static DataRepository fileRepository(Path data, PersistenceMode mode) {
+        return fileRepository(data, mode, SnapshotFormat.JSON);
+    }
+
+    private static DataRepository fileRepository(Path data, PersistenceMode mode, SnapshotFormat format) {
+        DataRepository repository = new DataRepository();
+        ReflectionTestUtils.setField(repository, "dataFile", new FileSystemResource(data));
+        ReflectionTestUtils.setField(repository, "persistenceMode", mode);
+        ReflectionTestUtils.setField(repository, "snapshotFormat", format);
+        ReflectionTestUtils.invokeMethod(repository, "loadData");
+        return repository;
+    }
+}
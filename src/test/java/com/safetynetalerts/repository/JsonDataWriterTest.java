@@ -0,0 +1,78 @@
+package com.safetynetalerts.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynetalerts.model.Firestation;
+import com.safetynetalerts.model.MedicalRecord;
+import com.safetynetalerts.model.Person;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class JsonDataWriterTest {
+
+    private final List<Person> persons = List.of(new Person("John", "Boyd", "1509 Culver St", "Culver",
+            "97451", "111-111", "john@email.com"));
+    private final List<Firestation> firestations = List.of(new Firestation("1509 Culver St", "1"));
+    private final List<MedicalRecord> records = List.of(new MedicalRecord("John", "Boyd", "03/06/1984",
+            List.of("aznol:350mg"), List.of()));
+
+    @Test
+    void write_prettyPrint_matchesHistoricalFormat(@TempDir Path dir) throws Exception {
+        Path target = dir.resolve("data.json");
+        Files.writeString(target, "ancien contenu");
+
+        new JsonDataWriter().write(target, persons, firestations, records, true);
+
+        ObjectMapper mapper = new ObjectMapper();
+        String expected = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(Map.of(
+                "persons", persons)).replace("\n}", ",\n  \"firestations\" : "
+                + mapper.writerWithDefaultPrettyPrinter().writeValueAsString(firestations).replace("\n", "\n  ")
+                + ",\n  \"medicalrecords\" : "
+                + mapper.writerWithDefaultPrettyPrinter().writeValueAsString(records).replace("\n", "\n  ")
+                + "\n}");
+        assertThat(Files.readString(target)).isEqualTo(expected);
+        try (var files = Files.list(dir)) {
+            assertThat(files).containsExactly(target); // pas de fichier temporaire résiduel
+        }
+    }
+
+    @Test
+    void write_compact_isReadableBack(@TempDir Path dir) throws Exception {
+        Path target = dir.resolve("data.json");
+
+        new JsonDataWriter().write(target, persons, firestations, records, false);
+
+        assertThat(Files.readString(target)).doesNotContain("\n");
+        DataRepository repository = new DataRepository();
+        try (var in = Files.newInputStream(target)) {
+            new JsonDataReader().read(in, repository::addPerson, repository::addFirestation,
+                    repository::addMedicalRecord);
+        }
+        assertThat(repository.findResidentsByAddress("1509 Culver St"))
+                .extracting(Resident::getStation)
+                .containsExactly("1");
+    }
+
+    @Test
+    void write_keepsPermissionsOfReplacedFile(@TempDir Path dir) throws Exception {
+        Path target = dir.resolve("data.json");
+        Files.writeString(target, "ancien contenu");
+        assumeTrue(target.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r-----");
+        Files.setPosixFilePermissions(target, permissions);
+
+        new JsonDataWriter().write(target, persons, firestations, records, false);
+
+        assertThat(Files.getPosixFilePermissions(target)).isEqualTo(permissions);
+    }
+}
@@ -0,0 +1,65 @@
+package com.safetynetalerts.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PersistenceWriterTest {
+
+    @Test
+    void markDirty_coalescesSavesIntoOneFlush() throws Exception {
+        AtomicInteger flushes = new AtomicInteger();
+        PersistenceMetrics metrics = new PersistenceMetrics();
+        PersistenceWriter writer = new PersistenceWriter(flushes::incrementAndGet, 60_000, 3, metrics);
+
+        writer.markDirty();
+        writer.markDirty();
+        CompletableFuture<Void> third = writer.markDirty(); // atteint la taille de lot
+
+        third.get(5, TimeUnit.SECONDS);
+        assertThat(flushes).hasValue(1);
+        assertThat(metrics.getLastBatchSize()).isEqualTo(3);
+        writer.shutdown();
+    }
+
+    @Test
+    void shutdown_flushesPendingSaves() throws Exception {
+        AtomicInteger flushes = new AtomicInteger();
+        PersistenceMetrics metrics = new PersistenceMetrics();
+        PersistenceWriter writer = new PersistenceWriter(flushes::incrementAndGet, 60_000, 100, metrics);
+
+        CompletableFuture<Void> pending = writer.markDirty();
+        assertThat(pending).isNotDone();
+
+        writer.shutdown();
+        assertThat(pending).isCompleted();
+        assertThat(flushes).hasValue(1);
+        assertThat(metrics.getFlushCount()).isEqualTo(1);
+    }
+
+    @Test
+    void failedFlush_failsTheFutureAndIsRetried() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        PersistenceWriter writer = new PersistenceWriter(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new UncheckedIOException(new IOException("disque plein"));
+            }
+        }, 60_000, 1, new PersistenceMetrics());
+
+        CompletableFuture<Void> failed = writer.markDirty();
+        assertThatThrownBy(() -> failed.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(UncheckedIOException.class);
+
+        writer.shutdown(); // la sauvegarde en échec est toujours en attente
+        assertThat(attempts).hasValue(2);
+    }
+}
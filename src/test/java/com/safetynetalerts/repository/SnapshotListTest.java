@@ -0,0 +1,49 @@
+package com.safetynetalerts.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SnapshotListTest {
+
+    @Test
+    void removeAndReplace_touchOnlyTheNewVersion() {
+        List<String> elements = new ArrayList<>();
+        SnapshotList.Builder<String> builder = SnapshotList.<String>empty().toBuilder();
+        for (int i = 0; i < 3000; i++) {
+            String e = new String("e" + i);
+            elements.add(e);
+            builder.add(e);
+        }
+        SnapshotList<String> base = builder.build();
+
+        SnapshotList.Builder<String> next = base.toBuilder();
+        String replacement = new String("r2500");
+        assertThat(next.remove(elements.get(1500))).isTrue();
+        assertThat(next.replace(elements.get(2500), replacement)).isTrue();
+        assertThat(next.remove(new String("e10"))).isFalse(); // égal mais autre instance
+        SnapshotList<String> updated = next.build();
+
+        assertThat(updated).hasSize(2999).doesNotContain("e1500").contains("r2500");
+        assertThat(updated.get(2499)).isSameAs(replacement);
+        assertThat(base).hasSize(3000).contains("e1500", "e2500");
+    }
+
+    @Test
+    void remove_stillFindsElementsAfterAnAbandonedBuilder() {
+        SnapshotList.Builder<String> builder = SnapshotList.<String>empty().toBuilder();
+        String kept = new String("kept");
+        builder.add(kept);
+        SnapshotList<String> base = builder.build();
+
+        // Version jamais publiée : l’index partagé ne connaît plus « kept »
+        base.toBuilder().remove(kept);
+
+        SnapshotList.Builder<String> retry = base.toBuilder();
+        assertThat(retry.remove(kept)).isTrue();
+        assertThat(retry.build()).isEmpty();
+    }
+}
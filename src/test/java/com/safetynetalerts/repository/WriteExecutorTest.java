@@ -0,0 +1,78 @@
+package com.safetynetalerts.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class WriteExecutorTest {
+
+    @Test
+    void queuedCommands_runOnOneThreadAndShareOneSave() throws Exception {
+        AtomicInteger saves = new AtomicInteger();
+        WriteExecutor executor = new WriteExecutor(16, 16, saves::incrementAndGet);
+        List<String> threads = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+
+        // La première commande occupe l’écrivain pendant que les suivantes s’accumulent
+        CompletableFuture<Void> blocking = CompletableFuture.runAsync(() -> executor.execute(() -> {
+            threads.add(Thread.currentThread().getName());
+            awaitQuietly(release);
+            return null;
+        }));
+        waitUntil(() -> saves.get() == 0 && threads.size() == 1);
+        List<CompletableFuture<Integer>> queued = List.of(
+                CompletableFuture.supplyAsync(() -> executor.execute(() -> record(threads, 1))),
+                CompletableFuture.supplyAsync(() -> executor.execute(() -> record(threads, 2))),
+                CompletableFuture.supplyAsync(() -> executor.execute(() -> record(threads, 3))));
+        waitUntil(() -> executor.pending() == 3);
+        release.countDown();
+
+        blocking.get(5, TimeUnit.SECONDS);
+        assertThat(queued).allSatisfy(f -> assertThat(f.get(5, TimeUnit.SECONDS)).isPositive());
+        assertThat(threads).hasSize(4).containsOnly("data-writer");
+        assertThat(saves).hasValue(2);
+        executor.shutdown();
+    }
+
+    @Test
+    void failingCommand_isRethrownToCaller() {
+        WriteExecutor executor = new WriteExecutor(4, 4, () -> { });
+
+        assertThatThrownBy(() -> executor.execute(() -> {
+            throw new IllegalArgumentException("refusé");
+        })).isInstanceOf(IllegalArgumentException.class).hasMessage("refusé");
+        assertThat(executor.execute(() -> "suivante")).isEqualTo("suivante");
+
+        executor.shutdown();
+        assertThatThrownBy(() -> executor.execute(() -> "après arrêt"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static int record(List<String> threads, int value) {
+        threads.add(Thread.currentThread().getName());
+        return value;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
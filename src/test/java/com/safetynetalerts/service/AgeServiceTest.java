@@ -0,0 +1,89 @@
+package com.safetynetalerts.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AgeServiceTest {
+
+    @Test
+    void ageOf_matchesPeriodBetween() {
+        for (LocalDate today : new LocalDate[] {
+                LocalDate.of(2024, 2, 29), LocalDate.of(2025, 2, 28), LocalDate.of(2025, 3, 1),
+                LocalDate.of(2025, 12, 31), LocalDate.of(2026, 1, 1) }) {
+            AgeService ageService = new AgeService(fixedAt(today));
+            for (LocalDate birth = today.minusYears(160); !birth.isAfter(today.plusYears(2)); birth = birth.plusDays(7)) {
+                assertAge(ageService, birth, today);
+            }
+            assertAge(ageService, LocalDate.of(2000, 2, 29), today);
+            assertAge(ageService, today.minusYears(18), today);
+            assertAge(ageService, today.minusYears(18).plusDays(1), today);
+        }
+    }
+
+    @Test
+    void refresh_switchesToTheNewDay() {
+        MutableClock clock = new MutableClock(LocalDate.of(2025, 6, 14));
+        AgeService ageService = new AgeService(clock);
+        int birth = (int) LocalDate.of(2007, 6, 15).toEpochDay();
+        assertThat(ageService.ageOf(birth)).isEqualTo(17);
+
+        clock.date = LocalDate.of(2025, 6, 15);
+        assertThat(ageService.ageOf(birth)).isEqualTo(17); // date figée jusqu'au rafraîchissement
+
+        ageService.refresh();
+        assertThat(ageService.today()).isEqualTo(LocalDate.of(2025, 6, 15));
+        assertThat(ageService.ageOf(birth)).isEqualTo(18);
+    }
+
+    @Test
+    void earliestBirthDay_withoutUpperLimit_keepsTheOldest() {
+        AgeService ageService = new AgeService(fixedAt(LocalDate.of(2025, 6, 14)));
+        int senior = (int) LocalDate.of(1930, 1, 1).toEpochDay();
+
+        assertThat(ageService.earliestBirthDay(Integer.MAX_VALUE)).isLessThanOrEqualTo(senior);
+        assertThat(ageService.earliestBirthDay(Integer.MAX_VALUE))
+                .isLessThanOrEqualTo(ageService.latestBirthDay(65));
+    }
+
+    private static void assertAge(AgeService ageService, LocalDate birth, LocalDate today) {
+        assertThat(ageService.ageOf((int) birth.toEpochDay()))
+                .as("naissance %s au %s", birth, today)
+                .isEqualTo(Period.between(birth, today).getYears());
+    }
+
+    private static Clock fixedAt(LocalDate date) {
+        return Clock.fixed(date.atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private LocalDate date;
+
+        MutableClock(LocalDate date) {
+            this.date = date;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return date.atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+    }
+}
@@ -5,14 +5,17 @@ import com.safetynetalerts.model.Firestation;
 import com.safetynetalerts.model.MedicalRecord;
 import com.safetynetalerts.model.Person;
 import com.safetynetalerts.repository.DataRepository;
+import com.safetynetalerts.repository.Resident;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.assertj.core.api.Assertions.tuple;
 
 public class AlertServiceTest {
 
@@ -30,8 +33,8 @@ public class AlertServiceTest {
 
     @BeforeEach
     void setUp() {
-        dataRepository = mock(DataRepository.class);
-        alertService = new AlertService(dataRepository);
+        dataRepository = new DataRepository();
+        alertService = new AlertService(dataRepository, new AgeService(), new ResponseCache(dataRepository, 100));
 
         // Persons ---
         johnAdult = new Person("John", "Boyd", "1509 Culver St", "Culver", "97451",
@@ -53,13 +56,10 @@ public class AlertServiceTest {
         Firestation fs1 = new Firestation("1509 Culver St", "1");
         Firestation fs2 = new Firestation("29 15th St", "2");
 
-        // Stub repository ---
-        when(dataRepository.getPersons())
-                .thenReturn(List.of(johnAdult, rogerChild, janeOther));
-        when(dataRepository.getMedicalRecords())
-                .thenReturn(List.of(mrJohn, mrRoger, mrJane));
-        when(dataRepository.getFirestations())
-                .thenReturn(List.of(fs1, fs2));
+        // Repository en mémoire ---
+        dataRepository.load(List.of(johnAdult, rogerChild, janeOther),
+                List.of(fs1, fs2),
+                List.of(mrJohn, mrRoger, mrJane));
     }
 
     // -------------
@@ -83,6 +83,39 @@ public class AlertServiceTest {
         assertThat(children).isEmpty();
     }
 
+    // ----------------
+    // residentsByAge
+    // ----------------
+    @Test
+    void getResidentsByAge_filtersByAgeRangeStationAndAddress() {
+        assertThat(alertService.getResidentsByAge(30, 120, null, null))
+                .extracting(ResidentAgeDTO::getFirstName)
+                .containsExactly("John", "Jane"); // du plus âgé au plus jeune
+        assertThat(alertService.getResidentsByAge(0, 18, null, null))
+                .extracting(ResidentAgeDTO::getFirstName)
+                .containsExactly("Roger");
+        assertThat(alertService.getResidentsByAge(30, 120, "1", null))
+                .extracting(ResidentAgeDTO::getFirstName, ResidentAgeDTO::getStation)
+                .containsExactly(tuple("John", "1"));
+        assertThat(alertService.getResidentsByAge(30, 120, null, "29 15th St"))
+                .extracting(ResidentAgeDTO::getFirstName)
+                .containsExactly("Jane");
+    }
+
+    @Test
+    void getResidentsByAge_withoutMaxAge_returnsSeniors() {
+        dataRepository.addPerson(new Person("Eric", "Cadigan", "29 15th St", "Culver", "97451",
+                "444-444", "eric@email.com"));
+        dataRepository.addMedicalRecord(new MedicalRecord("Eric", "Cadigan", "08/06/1945", List.of(), List.of()));
+
+        assertThat(alertService.getResidentsByAge(65, Integer.MAX_VALUE, null, null))
+                .extracting(ResidentAgeDTO::getFirstName, ResidentAgeDTO::getStation)
+                .containsExactly(tuple("Eric", "2"));
+        assertThat(alertService.getResidentsByAge(0, Integer.MAX_VALUE, null, null))
+                .extracting(ResidentAgeDTO::getFirstName)
+                .containsExactly("Eric", "John", "Jane", "Roger");
+    }
+
     // -------------
     // phoneAlert
     // -------------
@@ -106,6 +139,46 @@ public class AlertServiceTest {
                 .containsExactlyInAnyOrder("John", "Roger");
     }
 
+    @Test
+    void getFires_resolvesEachDistinctAddressOnceAndSharesFireCache() {
+        FireDTO single = alertService.getFire("1509 Culver St");
+
+        Map<String, FireDTO> fires = alertService.getFires(
+                List.of("1509 Culver St", "29 15th St", "1509 CULVER ST", "1 Unknown St"));
+
+        assertThat(fires).containsOnlyKeys("1509 Culver St", "29 15th St", "1509 CULVER ST", "1 Unknown St");
+        assertThat(fires.get("1509 Culver St")).isSameAs(single);
+        assertThat(fires.get("1509 CULVER ST")).isSameAs(single);
+        assertThat(fires.get("29 15th St").getStationNumber()).isEqualTo("2");
+        assertThat(fires.get("1 Unknown St").getPersons()).isEmpty();
+    }
+
+    @Test
+    void getFires_doesNotCacheAnswerComputedBeforeConcurrentWrite() {
+        dataRepository.addMedicalRecord(new MedicalRecord("Tim", "Doe", "01/01/2000", List.of(), List.of()));
+        // Écriture sur la 2e adresse pendant le calcul de la 1re
+        AtomicBoolean written = new AtomicBoolean();
+        AgeService interleaving = new AgeService() {
+            @Override
+            public int ageOf(Resident resident) {
+                if (written.compareAndSet(false, true)) {
+                    dataRepository.addPerson(new Person("Tim", "Doe", "29 15th St", "Culver", "97451",
+                            "555-555", "tim@email.com"));
+                }
+                return super.ageOf(resident);
+            }
+        };
+        AlertService service = new AlertService(dataRepository, interleaving, new ResponseCache(dataRepository, 100));
+
+        Map<String, FireDTO> fires = service.getFires(List.of("1509 Culver St", "29 15th St"));
+
+        assertThat(written).isTrue();
+        assertThat(fires.get("29 15th St").getPersons())
+                .extracting(FirePersonDTO::getFirstName)
+                .containsExactlyInAnyOrder("Jane", "Tim");
+        assertThat(service.getFire("29 15th St").getPersons()).hasSize(2);
+    }
+
     // -----------------
     // flood/stations
     // -----------------
@@ -118,6 +191,37 @@ public class AlertServiceTest {
         assertThat(house.getOccupants()).hasSize(2);
     }
 
+    @Test
+    void getFloodStations_parallelPathMatchesSequentialOrder() {
+        List<Person> persons = new ArrayList<>();
+        List<Firestation> mappings = new ArrayList<>();
+        List<MedicalRecord> records = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            String address = i + " Flood St";
+            mappings.add(new Firestation(address, String.valueOf(i % 3)));
+            persons.add(new Person("P" + i, "Flood", address, "Culver", "97451", "555", "p@mail.com"));
+            if (i % 7 != 0) { // sans dossier : foyer absent de la réponse
+                records.add(new MedicalRecord("P" + i, "Flood", "01/01/19" + (10 + i % 90), List.of(), List.of()));
+            }
+        }
+        DataRepository large = new DataRepository();
+        large.load(persons, mappings, records);
+        AlertService sequential = new AlertService(large, new AgeService(), new ResponseCache(large, 0),
+                Integer.MAX_VALUE, 1);
+        AlertService parallel = new AlertService(large, new AgeService(), new ResponseCache(large, 0), 0, 4);
+
+        List<String> stations = List.of("2", "0", "1");
+        List<HouseholdDTO> expected = sequential.getFloodStations(stations);
+        List<HouseholdDTO> actual = parallel.getFloodStations(stations);
+        parallel.close();
+
+        assertThat(actual).hasSize(expected.size()).hasSizeGreaterThan(1000);
+        assertThat(actual).extracting(HouseholdDTO::getAddress)
+                .containsExactlyElementsOf(expected.stream().map(HouseholdDTO::getAddress).toList());
+        assertThat(actual).extracting(h -> h.getOccupants().get(0).getAge())
+                .containsExactlyElementsOf(expected.stream().map(h -> h.getOccupants().get(0).getAge()).toList());
+    }
+
     // -------------
     // personInfo
     // -------------
@@ -141,4 +245,13 @@ public class AlertServiceTest {
                 "roger@email.com",
                 "jane@email.com");
     }
+
+    @Test
+    void forEachCommunityEmail_visitsTheSameEmailsWithoutAList() {
+        List<String> visited = new ArrayList<>();
+        int count = alertService.forEachCommunityEmail("CULVER", visited::add);
+
+        assertThat(count).isEqualTo(3);
+        assertThat(visited).containsExactlyInAnyOrderElementsOf(alertService.getCommunityEmail("Culver"));
+    }
 }
@@ -0,0 +1,81 @@
+package com.safetynetalerts.service;
+
+import com.safetynetalerts.dto.BatchOperationDTO;
+import com.safetynetalerts.dto.BatchOperationDTO.Action;
+import com.safetynetalerts.dto.BatchResultDTO;
+import com.safetynetalerts.model.Firestation;
+import com.safetynetalerts.model.MedicalRecord;
+import com.safetynetalerts.model.Person;
+import com.safetynetalerts.repository.DataRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BatchServiceTest {
+
+    private DataRepository dataRepository;
+    private BatchService batchService;
+
+    @BeforeEach
+    void setUp() {
+        dataRepository = new DataRepository();
+        batchService = new BatchService(dataRepository);
+
+        dataRepository.load(
+                List.of(new Person("John", "Boyd", "1509 Culver St", "Culver", "97451", "111", "john@mail.com")),
+                List.of(new Firestation("1509 Culver St", "3")),
+                List.of(new MedicalRecord("John", "Boyd", "03/06/1984", List.of(), List.of())));
+    }
+
+    @Test
+    void applyBatch_appliesDependentOperationsInOneVersion() {
+        long version = dataRepository.snapshot().getVersion();
+
+        BatchResultDTO result = batchService.applyBatch(List.of(
+                new BatchOperationDTO(Action.ADD, new Firestation("29 15th St", "2")),
+                new BatchOperationDTO(Action.UPDATE,
+                        new Person("John", "Boyd", "29 15th St", "Culver", "97451", "111", "john@mail.com")),
+                new BatchOperationDTO(Action.ADD,
+                        new Person("Tenley", "Boyd", "29 15th St", "Culver", "97451", "222", "t@mail.com")),
+                new BatchOperationDTO(Action.UPDATE,
+                        new Person("Tenley", "Boyd", "29 15th St", "Culver", "97451", "333", "t@mail.com")),
+                new BatchOperationDTO(Action.DELETE, new MedicalRecord("John", "Boyd", null, null, null))));
+
+        assertThat(result.isApplied()).isTrue();
+        assertThat(result.getVersion()).isEqualTo(version + 1);
+        assertThat(dataRepository.snapshot().getVersion()).isEqualTo(version + 1);
+        assertThat(dataRepository.findPerson("Tenley", "Boyd").getPhone()).isEqualTo("333");
+        assertThat(dataRepository.findPersonsByAddress("29 15th St")).hasSize(2);
+        assertThat(dataRepository.findMedicalRecord("John", "Boyd")).isNull();
+    }
+
+    @Test
+    void applyBatch_conflictLeavesDataUntouched() {
+        long version = dataRepository.snapshot().getVersion();
+
+        BatchResultDTO result = batchService.applyBatch(List.of(
+                new BatchOperationDTO(Action.DELETE, new Person("John", "Boyd", null, null, null, null, null)),
+                new BatchOperationDTO(Action.UPDATE,
+                        new Person("John", "Boyd", "29 15th St", "Culver", "97451", "111", "john@mail.com"))));
+
+        assertThat(result.isApplied()).isFalse();
+        assertThat(result.getFailedIndex()).isEqualTo(1);
+        assertThat(result.getError()).contains("introuvable");
+        assertThat(dataRepository.snapshot().getVersion()).isEqualTo(version);
+        assertThat(dataRepository.findPerson("John", "Boyd")).isNotNull();
+    }
+
+    @Test
+    void applyBatch_rejectsOperationWithoutSingleTarget() {
+        BatchOperationDTO empty = new BatchOperationDTO();
+        empty.setAction(Action.ADD);
+
+        assertThatThrownBy(() -> batchService.applyBatch(List.of(empty)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Opération 0");
+    }
+}
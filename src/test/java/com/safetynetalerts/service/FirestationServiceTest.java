@@ -1,6 +1,12 @@
 package com.safetynetalerts.service;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.safetynetalerts.dto.FirestationCoverageDTO;
+import com.safetynetalerts.dto.ImportResultDTO;
+import com.safetynetalerts.dto.ImportRowDTO;
+import com.safetynetalerts.dto.StationReassignmentDTO;
+import com.safetynetalerts.dto.StationReassignmentResultDTO;
 import com.safetynetalerts.model.Firestation;
 import com.safetynetalerts.model.MedicalRecord;
 import com.safetynetalerts.model.Person;
@@ -8,12 +14,9 @@ import com.safetynetalerts.repository.DataRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
 
 public class FirestationServiceTest {
 
@@ -29,12 +32,10 @@ public class FirestationServiceTest {
     private MedicalRecord mrRoger;
     private MedicalRecord mrJane;
 
-    private List<Firestation> firestationMappings;
-
     @BeforeEach
     void setUp() {
-        dataRepository = mock(DataRepository.class);
-        firestationService = new FirestationService(dataRepository);
+        dataRepository = new DataRepository();
+        firestationService = new FirestationService(dataRepository, new AgeService(), new ResponseCache(dataRepository, 100));
 
         // Persons ---
         johnAdult = new Person("John", "Boyd", "1509 Culver St", "Culver", "97451",
@@ -55,15 +56,11 @@ public class FirestationServiceTest {
         // Firestations ---
         Firestation fs1 = new Firestation("1509 Culver St", "1");
         Firestation fs2 = new Firestation("29 15th St", "2");
-        firestationMappings = new ArrayList<>(List.of(fs1, fs2));
-
-        // Stubs ---
-        when(dataRepository.getPersons())
-                .thenReturn(List.of(johnAdult, rogerChild, janeOther));
-        when(dataRepository.getMedicalRecords())
-                .thenReturn(List.of(mrJohn, mrRoger, mrJane));
-        when(dataRepository.getFirestations())
-                .thenAnswer(invocation -> firestationMappings); // return live list
+
+        // Repository en mémoire ---
+        dataRepository.load(List.of(johnAdult, rogerChild, janeOther),
+                List.of(fs1, fs2),
+                List.of(mrJohn, mrRoger, mrJane));
     }
 
     // -------------------------------
@@ -82,6 +79,18 @@ public class FirestationServiceTest {
                 .containsExactlyInAnyOrder("John", "Roger");
     }
 
+    @Test
+    void stationCoverage_isReadWithoutWriting() {
+        long version = dataRepository.snapshot().getVersion();
+
+        // Seuil « enfant » déjà juste au chargement : la lecture ne recompte pas
+        assertThat(dataRepository.snapshot().getChildBirthDayThreshold())
+                .isEqualTo(new AgeService().earliestBirthDay(AgeService.CHILD_MAX_AGE));
+        assertThat(firestationService.getStationCoverage("1").getChildren()).isEqualTo(1);
+        assertThat(firestationService.getAllStationCoverages()).hasSize(2);
+        assertThat(dataRepository.snapshot().getVersion()).isEqualTo(version);
+    }
+
     // -------------------------------
     // addFirestation
     // -------------------------------
@@ -91,7 +100,7 @@ public class FirestationServiceTest {
         Firestation created = firestationService.addFirestation(newFs);
 
         assertThat(created).isNotNull();
-        assertThat(firestationMappings).contains(newFs);
+        assertThat(dataRepository.getFirestations()).contains(newFs);
     }
 
     @Test
@@ -101,7 +110,35 @@ public class FirestationServiceTest {
 
         assertThat(created).isNull();
         // taille inchangée
-        assertThat(firestationMappings).hasSize(2);
+        assertThat(dataRepository.getFirestations()).hasSize(2);
+    }
+
+    // -------------------------------
+    // importFirestations
+    // -------------------------------
+    @Test
+    void importFirestations_skipsMistypedRowAndStopsOnUnreadableStream() throws Exception {
+        String ndjson = """
+                {"address":"487 New St","station":"3"}
+                {"address":{"street":"x"},"station":"4"}
+                {"address":"29 15th St","station":"5"}
+                {"address":"12 Other St","station":"3"}
+                {"address":
+                """;
+        ImportResultDTO result;
+        try (MappingIterator<Firestation> rows = new ObjectMapper()
+                .readerFor(Firestation.class).readValues(ndjson)) {
+            result = firestationService.importFirestations(rows);
+        }
+
+        assertThat(result.getCreated()).isEqualTo(2);
+        assertThat(result.getDuplicates()).isEqualTo(1);
+        assertThat(result.getRejected()).isEqualTo(2);
+        assertThat(result.isComplete()).isFalse();
+        assertThat(result.getRows()).extracting(ImportRowDTO::getRow)
+                .containsExactly(2, 5, 3);
+        assertThat(dataRepository.findAddressesByStation("3"))
+                .containsExactlyInAnyOrder("487 New St", "12 Other St");
     }
 
     // -------------------------------
@@ -123,6 +160,20 @@ public class FirestationServiceTest {
         assertThat(updated).isNull();
     }
 
+    // -------------------------------
+    // reassignStation
+    // -------------------------------
+    @Test
+    void reassignStation_movesAddressListAndReportsUnknownOnes() {
+        StationReassignmentResultDTO result = firestationService.reassignStation(
+                new StationReassignmentDTO(null, List.of("1509 culver st", "1 Unknown St"), "2"));
+
+        assertThat(result.getReassigned()).containsExactly("1509 Culver St");
+        assertThat(result.getNotFound()).containsExactly("1 Unknown St");
+        assertThat(firestationService.getPersonsCoveredByStation("2").getPersons()).hasSize(3);
+        assertThat(firestationService.getPersonsCoveredByStation("1").getPersons()).isEmpty();
+    }
+
     // -------------------------------
     // deleteFirestation
     // -------------------------------
@@ -131,7 +182,7 @@ public class FirestationServiceTest {
         boolean removed = firestationService.deleteFirestation("29 15th St");
 
         assertThat(removed).isTrue();
-        assertThat(firestationMappings)
+        assertThat(dataRepository.getFirestations())
                 .extracting(Firestation::getAddress)
                 .doesNotContain("29 15th St");
     }
@@ -140,6 +191,6 @@ public class FirestationServiceTest {
     void deleteFirestation_whenAddressMissing_returnsFalse() {
         boolean removed = firestationService.deleteFirestation("No street");
         assertThat(removed).isFalse();
-        assertThat(firestationMappings).hasSize(2);
+        assertThat(dataRepository.getFirestations()).hasSize(2);
     }
 }
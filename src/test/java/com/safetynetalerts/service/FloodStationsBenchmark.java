@@ -0,0 +1,106 @@
+package com.safetynetalerts.service;
+
+import com.safetynetalerts.dto.HouseholdDTO;
+import com.safetynetalerts.model.Firestation;
+import com.safetynetalerts.model.MedicalRecord;
+import com.safetynetalerts.model.Person;
+import com.safetynetalerts.repository.DataRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compare le calcul séquentiel et le calcul parallèle (pool dédié) de
+ * /flood/stations selon le nombre d’adresses couvertes, pour situer le
+ * seuil {@code alerts.flood.parallel-threshold}.
+ *
+ * Non exécuté par Maven (pas de suffixe « Test »). Lancement, après
+ * {@code mvn test-compile} :
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes:&lt;classpath&gt; \
+ *     com.safetynetalerts.service.FloodStationsBenchmark [habitants par adresse] [threads]
+ * </pre>
+ */
+public class FloodStationsBenchmark {
+
+    private static final int[] ADDRESS_COUNTS = { 100, 250, 500, 1000, 2000, 5000, 10_000, 50_000, 200_000 };
+    private static final int STATIONS = 10;
+
+    public static void main(String[] args) {
+        int residentsPerAddress = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        System.out.printf("%d habitant(s) par adresse, %d thread(s)%n", residentsPerAddress, threads);
+        System.out.printf("%10s %14s %14s %8s%n", "adresses", "séquentiel µs", "parallèle µs", "gain");
+
+        // Plus petit volume à partir duquel le parallèle reste devant
+        Integer crossover = null;
+        for (int addresses : ADDRESS_COUNTS) {
+            DataRepository repository = generate(addresses, residentsPerAddress);
+            // Cache désactivé : chaque appel recalcule la réponse
+            AlertService sequential = new AlertService(repository, new AgeService(),
+                    new ResponseCache(repository, 0), Integer.MAX_VALUE, threads);
+            AlertService parallel = new AlertService(repository, new AgeService(),
+                    new ResponseCache(repository, 0), 0, threads);
+            List<String> stations = new ArrayList<>();
+            for (int s = 0; s < STATIONS; s++) {
+                stations.add(String.valueOf(s));
+            }
+
+            double seq = medianMicros(sequential, stations, addresses);
+            double par = medianMicros(parallel, stations, addresses);
+            parallel.close();
+            sequential.close();
+            System.out.printf("%,10d %14.0f %14.0f %7.2fx%n", addresses, seq, par, seq / par);
+            if (par >= seq) {
+                crossover = null;
+            } else if (crossover == null) {
+                crossover = addresses;
+            }
+        }
+        System.out.println(crossover == null
+                ? "Le parallèle n’est jamais plus rapide sur cette machine"
+                : "Le parallèle l’emporte à partir de " + crossover + " adresses");
+    }
+
+    /** Médiane de plusieurs mesures, après échauffement du JIT. */
+    private static double medianMicros(AlertService service, List<String> stations, int addresses) {
+        int runs = Math.max(5, Math.min(200, 2_000_000 / addresses));
+        long sink = 0;
+        for (int i = 0; i < runs; i++) {
+            sink += service.getFloodStations(stations).size();
+        }
+        long[] times = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            List<HouseholdDTO> households = service.getFloodStations(stations);
+            times[i] = System.nanoTime() - start;
+            sink += households.size();
+        }
+        if (sink == 42) {
+            System.out.println(); // empêche l’élimination du calcul
+        }
+        Arrays.sort(times);
+        return times[runs / 2] / 1000.0;
+    }
+
+    private static DataRepository generate(int addresses, int residentsPerAddress) {
+        List<Person> persons = new ArrayList<>(addresses * residentsPerAddress);
+        List<MedicalRecord> records = new ArrayList<>(addresses * residentsPerAddress);
+        List<Firestation> mappings = new ArrayList<>(addresses);
+        for (int a = 0; a < addresses; a++) {
+            String address = a + " Bench St";
+            mappings.add(new Firestation(address, String.valueOf(a % STATIONS)));
+            for (int r = 0; r < residentsPerAddress; r++) {
+                String firstName = "F" + a + "_" + r;
+                persons.add(new Person(firstName, "Bench", address, "Culver", "97451", "555-" + a, "b@mail.com"));
+                records.add(new MedicalRecord(firstName, "Bench", "03/06/19" + (20 + (a + r) % 80),
+                        List.of("aznol:350mg"), List.of("nillacilan")));
+            }
+        }
+        DataRepository repository = new DataRepository();
+        repository.load(persons, mappings, records);
+        return repository;
+    }
+}
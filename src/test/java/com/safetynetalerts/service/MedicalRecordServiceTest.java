@@ -9,20 +9,18 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.*;
 
 public class MedicalRecordServiceTest {
 
     private DataRepository dataRepository;
     private MedicalRecordService medicalRecordService;
 
-    private List<MedicalRecord> records;
     private MedicalRecord mrJohn;
     private MedicalRecord mrJane;
 
     @BeforeEach
     void setUp() {
-        dataRepository = mock(DataRepository.class);
+        dataRepository = new DataRepository();
         medicalRecordService = new MedicalRecordService(dataRepository);
 
         // jeu de données
@@ -31,8 +29,7 @@ public class MedicalRecordServiceTest {
         mrJane = new MedicalRecord("Jane", "Doe", "02/02/1990",
                 new ArrayList<>(), List.of("pollen"));
 
-        records = new ArrayList<>(List.of(mrJohn, mrJane));
-        when(dataRepository.getMedicalRecords()).thenReturn(records);
+        dataRepository.load(List.of(), List.of(), List.of(mrJohn, mrJane));
     }
 
     // --------------------
@@ -69,7 +66,7 @@ public class MedicalRecordServiceTest {
         MedicalRecord created = medicalRecordService.addMedicalRecord(newRec);
 
         assertThat(created).isEqualTo(newRec);
-        assertThat(records).contains(newRec);
+        assertThat(dataRepository.getMedicalRecords()).contains(newRec);
     }
 
     @Test
@@ -78,7 +75,7 @@ public class MedicalRecordServiceTest {
                 List.of(), List.of());
         MedicalRecord created = medicalRecordService.addMedicalRecord(duplicate);
         assertThat(created).isNull();
-        assertThat(records).hasSize(2);
+        assertThat(dataRepository.getMedicalRecords()).hasSize(2);
     }
 
     // --------------------
@@ -110,7 +107,7 @@ public class MedicalRecordServiceTest {
     void deleteMedicalRecord_success() {
         boolean removed = medicalRecordService.deleteMedicalRecord("John", "Boyd");
         assertThat(removed).isTrue();
-        assertThat(records).doesNotContain(mrJohn);
+        assertThat(dataRepository.getMedicalRecords()).doesNotContain(mrJohn);
     }
 
     @Test
@@ -1,5 +1,8 @@
 package com.safetynetalerts.service;
 
+import com.safetynetalerts.dto.ImportResultDTO;
+import com.safetynetalerts.dto.ImportRowDTO;
+import com.safetynetalerts.dto.PageDTO;
 import com.safetynetalerts.model.Person;
 import com.safetynetalerts.repository.DataRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,28 +12,26 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.*;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 public class PersonServiceTest {
 
     private DataRepository dataRepository;
     private PersonService personService;
 
-    private List<Person> personList;
-
     private Person bob;
     private Person alice;
 
     @BeforeEach
     void setUp() {
-        dataRepository = mock(DataRepository.class);
+        dataRepository = new DataRepository();
         personService = new PersonService(dataRepository);
 
         bob = new Person("Bob", "Marley", "12 Jamaican St", "Kingston", "12345", "111", "bob@music.com");
         alice = new Person("Alice", "Cooper", "13 Rock St", "Phoenix", "54321", "222", "alice@rock.com");
 
-        personList = new ArrayList<>(List.of(bob, alice));
-        when(dataRepository.getPersons()).thenReturn(personList);
+        dataRepository.load(List.of(bob, alice), List.of(), List.of());
     }
 
     // getAllPersons ---
@@ -40,6 +41,28 @@ public class PersonServiceTest {
         assertThat(all).hasSize(2);
     }
 
+    // getPersonsPage ---
+    @Test
+    void getPersonsPage_followsNameOrderAcrossWrites() {
+        dataRepository.addPerson(new Person("Zoe", "Adams", "1 Main St", "Kingston", "12345", "333", "z@mail.com"));
+
+        PageDTO<Person> first = personService.getPersonsPage(null, 2);
+        assertThat(first.getItems()).extracting(Person::getLastName).containsExactly("Adams", "Cooper");
+        assertThat(first.getNextCursor()).isNotNull();
+
+        // Insérée avant le curseur : ni décalage ni doublon sur la page suivante
+        dataRepository.addPerson(new Person("Al", "Aaron", "2 Main St", "Kingston", "12345", "444", "a@mail.com"));
+        PageDTO<Person> second = personService.getPersonsPage(first.getNextCursor(), 2);
+        assertThat(second.getItems()).extracting(Person::getLastName).containsExactly("Marley");
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getPersonsPage_rejectsUnreadableCursor() {
+        assertThatThrownBy(() -> personService.getPersonsPage("bm90LWEtY3Vyc29y", 2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
     // getPersonByName ---
     @Test
     void getPersonByName_found() {
@@ -60,7 +83,7 @@ public class PersonServiceTest {
         Person newP = new Person("John", "Doe", "1 Main", "City", "00000", "333", "john@doe.com");
         Person created = personService.addPerson(newP);
         assertThat(created).isEqualTo(newP);
-        assertThat(personList).contains(newP);
+        assertThat(dataRepository.getPersons()).contains(newP);
     }
 
     @Test
@@ -68,10 +91,39 @@ public class PersonServiceTest {
         Person dup = new Person("Bob", "Marley", "some", "C", "0", "999", "dup@dup.com");
         Person created = personService.addPerson(dup);
         assertThat(created).isNull();
-        assertThat(personList).hasSize(2);
+        assertThat(dataRepository.getPersons()).hasSize(2);
     }
 
     // updatePerson ---
+    // importPersons ---
+    @Test
+    void importPersons_appliesOneVersionPerBatchAndReportsSkippedRows() {
+        List<Person> rows = new ArrayList<>();
+        rows.add(new Person("BOB", "marley", "x", "x", "x", "x", "x"));      // doublon existant
+        rows.add(new Person(null, "Nobody", "x", "x", "x", "x", "x"));       // invalide
+        for (int i = 0; i < 1500; i++) {
+            rows.add(new Person("P" + i, "Bulk", "1 Main St", "Kingston", "12345", "555", "p@mail.com"));
+        }
+        rows.add(new Person("P0", "Bulk", "x", "x", "x", "x", "x"));         // doublon du flux
+        long version = dataRepository.snapshot().getVersion();
+
+        ImportResultDTO result = personService.importPersons(rows.iterator());
+
+        assertThat(result.getReceived()).isEqualTo(1503);
+        assertThat(result.getCreated()).isEqualTo(1500);
+        assertThat(result.getDuplicates()).isEqualTo(2);
+        assertThat(result.getRejected()).isEqualTo(1);
+        assertThat(result.isComplete()).isTrue();
+        assertThat(result.getRows()).extracting(ImportRowDTO::getRow, ImportRowDTO::getStatus)
+                .containsExactly(
+                        tuple(2, ImportRowDTO.Status.REJECTED),
+                        tuple(1, ImportRowDTO.Status.DUPLICATE),
+                        tuple(1503, ImportRowDTO.Status.DUPLICATE));
+        // 1502 lignes valides : deux lots, donc deux versions
+        assertThat(dataRepository.snapshot().getVersion()).isEqualTo(version + 2);
+        assertThat(dataRepository.getPersons()).hasSize(1502);
+    }
+
     @Test
     void updatePerson_success() {
         Person update = new Person("Alice", "Cooper", "Updated Addr", "LA", "99999", "555", "new@alice.com");
@@ -93,7 +145,7 @@ public class PersonServiceTest {
     void deletePerson_success_thenFail() {
         boolean removed = personService.deletePerson("Bob", "Marley");
         assertThat(removed).isTrue();
-        assertThat(personList).doesNotContain(bob);
+        assertThat(dataRepository.getPersons()).doesNotContain(bob);
 
         // second appel : déjà supprimé -> false
         boolean removedAgain = personService.deletePerson("Bob", "Marley");
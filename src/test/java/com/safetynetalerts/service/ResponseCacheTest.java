@@ -0,0 +1,121 @@
+package com.safetynetalerts.service;
+
+import com.safetynetalerts.dto.FireDTO;
+import com.safetynetalerts.model.Firestation;
+import com.safetynetalerts.model.MedicalRecord;
+import com.safetynetalerts.model.Person;
+import com.safetynetalerts.repository.DataRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResponseCacheTest {
+
+    private DataRepository dataRepository;
+    private ResponseCache responseCache;
+    private AlertService alertService;
+
+    @BeforeEach
+    void setUp() {
+        dataRepository = new DataRepository();
+        dataRepository.load(
+                List.of(new Person("John", "Boyd", "1509 Culver St", "Culver", "97451", "111", "john@mail.com"),
+                        new Person("Jane", "Doe", "29 15th St", "Culver", "97451", "333", "jane@mail.com")),
+                List.of(new Firestation("1509 Culver St", "1"), new Firestation("29 15th St", "2")),
+                List.of(new MedicalRecord("John", "Boyd", "01/01/1980", List.of(), List.of()),
+                        new MedicalRecord("Jane", "Doe", "02/02/1990", List.of(), List.of())));
+        responseCache = new ResponseCache(dataRepository, 3);
+        alertService = new AlertService(dataRepository, new AgeService(), responseCache);
+    }
+
+    @Test
+    void write_evictsOnlyResponsesOfTouchedAddress() {
+        FireDTO culver = alertService.getFire("1509 Culver St");
+        FireDTO fifteenth = alertService.getFire("29 15th St");
+        assertThat(alertService.getFire("1509 CULVER ST")).isSameAs(culver);
+        assertThat(responseCache.getHits()).isEqualTo(1);
+
+        dataRepository.updatePerson(new Person("John", "Boyd", "1509 Culver St", "Culver", "97451",
+                "999", "john@mail.com"));
+
+        assertThat(alertService.getFire("29 15th St")).isSameAs(fifteenth);
+        FireDTO refreshed = alertService.getFire("1509 Culver St");
+        assertThat(refreshed).isNotSameAs(culver);
+        assertThat(refreshed.getPersons().get(0).getPhone()).isEqualTo("999");
+        assertThat(responseCache.getInvalidations()).isEqualTo(1);
+    }
+
+    @Test
+    void stationChange_evictsStationResponses() {
+        List<String> phones = alertService.getPhoneAlert("2");
+        assertThat(alertService.getPhoneAlert("2")).isSameAs(phones);
+
+        dataRepository.updateFirestation("1509 Culver St", "2");
+
+        assertThat(alertService.getPhoneAlert("2")).containsExactlyInAnyOrder("111", "333");
+    }
+
+    @Test
+    void leastRecentlyUsed_isEvictedBeyondCapacity() {
+        AtomicInteger loads = new AtomicInteger();
+        for (String key : List.of("a", "b", "c")) {
+            responseCache.get(key, List.of(), loads::incrementAndGet);
+        }
+        responseCache.get("a", List.of(), loads::incrementAndGet);
+        responseCache.get("d", List.of(), loads::incrementAndGet);
+
+        assertThat(responseCache.size()).isEqualTo(3);
+        assertThat(responseCache.getEvictions()).isEqualTo(1);
+        responseCache.get("a", List.of(), loads::incrementAndGet);
+        responseCache.get("b", List.of(), loads::incrementAndGet);
+        assertThat(loads).hasValue(5);
+    }
+
+    @Test
+    void responseComputedDuringWrite_isNotStored() {
+        responseCache.get("fire|x", List.of(ResponseCache.addressTag("x")), () -> {
+            dataRepository.deletePerson("Jane", "Doe");
+            return "stale";
+        });
+
+        assertThat(responseCache.size()).isZero();
+    }
+
+    @Test
+    void etag_changesOnlyWithTouchedKeys() {
+        String culver = alertService.getChildAlertETag("1509 Culver St");
+        String flood = alertService.getFloodStationsETag(List.of("1", "2"));
+        String fifteenth = alertService.getChildAlertETag("29 15th st");
+
+        dataRepository.updateMedicalRecord(new MedicalRecord("John", "Boyd", "01/01/2012", List.of(), List.of()));
+
+        assertThat(alertService.getChildAlertETag("1509 CULVER ST")).isNotEqualTo(culver);
+        assertThat(alertService.getFloodStationsETag(List.of("1", "2"))).isNotEqualTo(flood);
+        assertThat(alertService.getChildAlertETag("29 15th St")).isEqualTo(fifteenth);
+    }
+
+    @Test
+    void etag_carriesBootEpoch() {
+        // Versions recomptées à chaque démarrage : l’epoch distingue les lancements
+        assertThat(ResponseCache.etag("fire|x", 1))
+                .isEqualTo(ResponseCache.etag("fire|x", 1))
+                .startsWith("\"" + ResponseCache.BOOT_EPOCH + "-1-");
+    }
+
+    @Test
+    void encodedResponse_isReusedUntilAddressChanges() {
+        EncodedResponse json = alertService.getFireJson("1509 Culver St");
+        assertThat(alertService.getFireJson("1509 culver st")).isSameAs(json);
+        assertThat(new String(json.getJson(), StandardCharsets.UTF_8)).contains("\"stationNumber\":\"1\"");
+
+        dataRepository.updateFirestation("1509 Culver St", "4");
+
+        assertThat(new String(alertService.getFireJson("1509 Culver St").getJson(), StandardCharsets.UTF_8))
+                .contains("\"stationNumber\":\"4\"");
+    }
+}